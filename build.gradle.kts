@@ -30,4 +30,13 @@ tasks.getByName<ShadowJar>("shadowJar") {
     baseName = "piranhas_2019_client"
     classifier = ""
     destinationDir = rootDir
-}
\ No newline at end of file
+}
+// bricht ab, wenn Zuggenerierung, Bewertung oder Suche je Knoten Speicher anfordern
+task<JavaExec>("allocationCheck") {
+    description = "Prüft, dass die Suche je Knoten keinen Speicher anfordert."
+    group = "verification"
+    classpath = sourceSets.getByName("main").runtimeClasspath
+    main = "sc.player2019.bench.AllocationCheck"
+}
+
+tasks.getByName("check").dependsOn("allocationCheck")
@@ -0,0 +1,126 @@
+package sc.player2019;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.Swarm;
+import sc.player2019.logic.board.SwarmCache;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.tablebase.TablebaseSet;
+
+/**
+ * Startet mehrere Clients in einer JVM. Jeder Client hat eine eigene
+ * Verbindung, eine eigene Logik und eine eigene Reservierung. Die Berechnung
+ * der Züge läuft für alle Spiele auf einem gemeinsamen Thread-Pool mit fester
+ * Größe, damit gleichzeitige Züge die Kerne nicht überbuchen. <br>
+ * Die vorberechneten Tabellen ({@link BitBoard}, {@link Swarm}) sind statisch
+ * und werden daher einmal geladen und von allen Spielen gemeinsam genutzt,
+ * ebenso die Gewichte eines Netzes und die Endspieldatenbanken.
+ */
+public class GameHost {
+
+	private static final Logger log = LoggerFactory.getLogger(GameHost.class);
+
+	private final String host;
+	private final int port;
+	private final int threads;
+	private final ExecutorService searchPool;
+	private final NnueWeights weights;
+	private final TablebaseSet tablebases;
+	private final List<Starter> clients = Collections.synchronizedList(new ArrayList<Starter>());
+
+	/**
+	 * @param host    Der Spielserver
+	 * @param port    Der Port des Spielservers
+	 * @param threads Die Anzahl der Threads, auf denen alle Spiele ihre Züge
+	 *                berechnen
+	 * @param weights Die Gewichte des Netzes, die alle Spiele teilen, oder null
+	 */
+	public GameHost(String host, int port, int threads, NnueWeights weights) {
+		this(host, port, threads, weights, null);
+	}
+
+	/**
+	 * @param host       Der Spielserver
+	 * @param port       Der Port des Spielservers
+	 * @param threads    Die Anzahl der Threads, auf denen alle Spiele ihre Züge
+	 *                   berechnen
+	 * @param weights    Die Gewichte des Netzes, die alle Spiele teilen, oder null
+	 * @param tablebases Die Endspieldatenbanken, die alle Spiele teilen, oder null
+	 */
+	public GameHost(String host, int port, int threads, NnueWeights weights, TablebaseSet tablebases) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Es wird mindestens ein Thread benötigt.");
+		this.host = host;
+		this.port = port;
+		this.threads = threads;
+		this.weights = weights;
+		this.tablebases = tablebases;
+		this.searchPool = Executors.newFixedThreadPool(threads, new SearchThreadFactory());
+		// gemeinsame Tabellen einmal vor dem ersten Spiel laden
+		new BitBoard();
+		Swarm.isConnected(0L, 0L);
+		SwarmCache.getShared().size();
+	}
+
+	/**
+	 * Tritt für jede Reservierung einem vorbereiteten Spiel bei.
+	 */
+	public void join(List<String> reservations) throws Exception {
+		for (String reservation : reservations)
+			start(reservation.trim());
+	}
+
+	/**
+	 * Tritt <code>games</code> beliebigen Spielen bei.
+	 */
+	public void joinAny(int games) throws Exception {
+		for (int i = 0; i < games; i++)
+			start("");
+	}
+
+	private void start(String reservation) throws Exception {
+		clients.add(new Starter(host, port, reservation, searchPool, weights, tablebases));
+		log.info("Client {} gestartet ({} Threads für alle Spiele).", clients.size(), threads);
+	}
+
+	/** Die Anzahl der bisher gestarteten Clients. */
+	public int getClientCount() {
+		return clients.size();
+	}
+
+	/**
+	 * Beendet den gemeinsamen Thread-Pool. Laufende Berechnungen werden noch
+	 * abgeschlossen.
+	 */
+	public void shutdown() {
+		searchPool.shutdown();
+	}
+
+	/**
+	 * Die Threads des Pools sind Daemon-Threads, die JVM läuft also genau so lange
+	 * wie die Verbindungen der Clients.
+	 */
+	private static class SearchThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "search-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+package sc.player2019;
+
+import sc.player2019.logic.board.SwarmCache;
+import sc.player2019.logic.search.TranspositionTable;
+import sc.player2019.util.GcMonitor;
+
+/**
+ * Teilt einen festen Speicher auf die Tabellen auf, damit der Client auf
+ * Turnierrechnern mit festem Heap nicht mitten im Zug in lange Pausen der
+ * Speicherbereinigung läuft. <br>
+ * Vom Budget (Standard: der maximale Heap der JVM) wird zuerst abgezogen, was
+ * nach dem Start schon belegt ist, etwa die Gewichte eines Netzes, und je Spiel
+ * {@link #PER_GAME_MB} für Spielstände, Dekodieren und Suche. Vom Rest bekommen
+ * die Tabellen {@link #TABLE_PERCENT} Prozent, der andere Teil bleibt frei,
+ * damit die junge Generation groß genug ist und kurzlebige Objekte nie in die
+ * alte Generation gelangen. Ein Viertel des Tabellenanteils geht an den
+ * gemeinsamen {@link SwarmCache}, der Rest an die Transpositionstabellen, eine
+ * je Spiel. <br>
+ * {@link #apply()} legt die Tabellen gleich an und räumt einmal auf, so liegen
+ * sie schon vor dem ersten Zug in der alten Generation. Analysedatei und
+ * Endspieldatenbanken liegen außerhalb des Heaps und zählen nicht zum Budget.
+ */
+public final class MemoryBudget {
+
+	/** Je Spiel für Spielstände, Dekodieren und die Suche ohne Tabellen */
+	public static final int PER_GAME_MB = 16;
+	/** Anteil der Tabellen am freien Budget */
+	public static final int TABLE_PERCENT = 25;
+
+	static final int MIN_TABLE_BITS = 12;
+	static final int MAX_TABLE_BITS = 24;
+	static final int MIN_SWARM_BITS = 10;
+	static final int MAX_SWARM_BITS = 20;
+	/** Bytes je Eintrag, in beiden Tabellen zwei long */
+	private static final int ENTRY_BYTES = 16;
+
+	private final long budget;
+	private final long base;
+	private final int games;
+	private final int tableBits;
+	private final int swarmBits;
+
+	private MemoryBudget(long budget, long base, int games, int tableBits, int swarmBits) {
+		this.budget = budget;
+		this.base = base;
+		this.games = games;
+		this.tableBits = tableBits;
+		this.swarmBits = swarmBits;
+	}
+
+	/**
+	 * Bemisst die Tabellen.
+	 *
+	 * @param budget Der Speicher in Bytes, den der Client höchstens belegen soll
+	 * @param base   Der schon belegte Speicher in Bytes
+	 * @param games  Die Anzahl der gleichzeitigen Spiele
+	 */
+	public static MemoryBudget plan(long budget, long base, int games) {
+		games = Math.max(1, games);
+		long free = budget - base - (long) games * PER_GAME_MB * 1024 * 1024;
+		long tables = Math.max(0, free) / 100 * TABLE_PERCENT;
+		int swarmBits = bits(tables / 4, MIN_SWARM_BITS, MAX_SWARM_BITS);
+		long rest = tables - ((long) ENTRY_BYTES << swarmBits);
+		int tableBits = bits(rest / games, MIN_TABLE_BITS, MAX_TABLE_BITS);
+		return new MemoryBudget(budget, base, games, tableBits, swarmBits);
+	}
+
+	/**
+	 * Bemisst die Tabellen nach dem maximalen Heap der JVM oder dem übergebenen
+	 * Budget, je nachdem, was kleiner ist. Der schon belegte Speicher wird nach
+	 * einer Bereinigung gemessen.
+	 *
+	 * @param megabytes Das Budget in MB oder 0 für den maximalen Heap
+	 */
+	public static MemoryBudget forHeap(int megabytes, int games) {
+		long max = Runtime.getRuntime().maxMemory();
+		long budget = megabytes > 0 ? Math.min(max, (long) megabytes * 1024 * 1024) : max;
+		System.gc();
+		return plan(budget, GcMonitor.usedHeap(), games);
+	}
+
+	/** Die größte Zweierpotenz an Einträgen, die in die Bytes passt. */
+	private static int bits(long bytes, int min, int max) {
+		long entries = bytes / ENTRY_BYTES;
+		int bits = entries > 0 ? 63 - Long.numberOfLeadingZeros(entries) : 0;
+		return Math.max(min, Math.min(max, bits));
+	}
+
+	/**
+	 * Stellt die Größen ein, legt den {@link SwarmCache} an und räumt einmal
+	 * auf. Die Transpositionstabellen legt jede Suche selbst an, aber schon mit
+	 * dieser Größe.
+	 */
+	public void apply() {
+		TranspositionTable.setDefaultBits(tableBits);
+		if (SwarmCache.getShared().size() != 1 << swarmBits)
+			SwarmCache.setShared(new SwarmCache(swarmBits));
+		System.gc();
+	}
+
+	/** Einträge je Transpositionstabelle als Zweierpotenz */
+	public int getTableBits() {
+		return tableBits;
+	}
+
+	/** Einträge des {@link SwarmCache} als Zweierpotenz */
+	public int getSwarmBits() {
+		return swarmBits;
+	}
+
+	/** Speicher aller Tabellen in Bytes */
+	public long getTableBytes() {
+		return ((long) ENTRY_BYTES << tableBits) * games + ((long) ENTRY_BYTES << swarmBits);
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Budget %d MB, davon belegt %d MB, %d Spiele zu %d MB, Tabellen %d MB "
+				+ "(Transposition 2^%d je Spiel, Schwärme 2^%d)", budget >> 20, base >> 20, games, PER_GAME_MB,
+				getTableBytes() >> 20, tableBits, swarmBits);
+	}
+
+}
@@ -1,14 +1,26 @@
 package sc.player2019;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jargs.gnu.CmdLineParser;
+import sc.player2019.bench.PositionBench;
 import sc.player2019.logic.Logic;
+import sc.player2019.logic.ParallelAnalysis;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.OpponentModel;
+import sc.player2019.logic.search.AnalysisCache;
+import sc.player2019.logic.tablebase.TablebaseSet;
+import sc.player2019.net.FastDecoding;
+import sc.player2019.tools.Worker;
 import sc.plugin2019.AbstractClient;
 import sc.plugin2019.IGameHandler;
+import sc.plugin2019.util.Configuration;
 import sc.shared.SharedConfiguration;
 
 /**
@@ -19,11 +31,35 @@ public class Starter extends AbstractClient {
 	private static final Logger logger = LoggerFactory.getLogger(Starter.class);
 
 	public Starter(String host, int port, String reservation) throws Exception {
+		this(host, port, reservation, null, null);
+	}
+
+	/**
+	 * Erzeugt einen Client, dessen Logik die Züge auf dem übergebenen Executor
+	 * berechnet und Stellungen mit dem übergebenen Netz bewertet. Wird vom
+	 * {@link GameHost} genutzt.
+	 *
+	 * @param searchExecutor Der Executor für die Berechnung oder null
+	 * @param weights        Die Gewichte des Netzes oder null
+	 */
+	public Starter(String host, int port, String reservation, Executor searchExecutor, NnueWeights weights)
+			throws Exception {
+		this(host, port, reservation, searchExecutor, weights, null);
+	}
+
+	/**
+	 * Erzeugt einen Client wie oben, dessen Logik im Endspiel zusätzlich die
+	 * übergebenen Endspieldatenbanken fragt.
+	 *
+	 * @param tablebases Die Endspieldatenbanken oder null
+	 */
+	public Starter(String host, int port, String reservation, Executor searchExecutor, NnueWeights weights,
+			TablebaseSet tablebases) throws Exception {
 		// client starten
 		super(host, port);
 
 		// Strategie zuweisen
-		IGameHandler logic = new Logic(this);
+		IGameHandler logic = new Logic(this, searchExecutor, weights, tablebases);
 		setHandler(logic);
 
 		// einem Spiel beitreten
@@ -43,6 +79,20 @@ public class Starter extends AbstractClient {
 		CmdLineParser.Option hostOption = parser.addStringOption('h', "host");
 		CmdLineParser.Option portOption = parser.addIntegerOption('p', "port");
 		CmdLineParser.Option reservationOption = parser.addStringOption('r', "reservation");
+		CmdLineParser.Option fastDecodeOption = parser.addBooleanOption('f', "fast-decode");
+		CmdLineParser.Option gamesOption = parser.addIntegerOption('n', "games");
+		CmdLineParser.Option threadsOption = parser.addIntegerOption('t', "threads");
+		CmdLineParser.Option nnueOption = parser.addStringOption('e', "nnue");
+		CmdLineParser.Option tablebaseOption = parser.addStringOption('b', "tablebase");
+		CmdLineParser.Option benchOption = parser.addBooleanOption("bench");
+		CmdLineParser.Option depthOption = parser.addIntegerOption('d', "depth");
+		CmdLineParser.Option cacheOption = parser.addStringOption('c', "cache");
+		CmdLineParser.Option cacheSizeOption = parser.addIntegerOption("cache-size");
+		CmdLineParser.Option workerOption = parser.addBooleanOption("worker");
+		CmdLineParser.Option memoryOption = parser.addIntegerOption('m', "memory");
+		CmdLineParser.Option parallelOption = parser.addIntegerOption('a', "analysis-threads");
+		CmdLineParser.Option modelOption = parser.addStringOption("model");
+		CmdLineParser.Option repliesOption = parser.addIntegerOption("replies");
 
 		try {
 			// Parameter auslesen
@@ -57,10 +107,114 @@ public class Starter extends AbstractClient {
 		String host = (String) parser.getOptionValue(hostOption, "localhost");
 		int port = (Integer) parser.getOptionValue(portOption, SharedConfiguration.DEFAULT_PORT);
 		String reservation = (String) parser.getOptionValue(reservationOption, "");
+		boolean fastDecode = (Boolean) parser.getOptionValue(fastDecodeOption, false);
+		int games = (Integer) parser.getOptionValue(gamesOption, 1);
+		int threads = (Integer) parser.getOptionValue(threadsOption, Runtime.getRuntime().availableProcessors());
+		String nnue = (String) parser.getOptionValue(nnueOption, "");
+		String tablebase = (String) parser.getOptionValue(tablebaseOption, "");
+		boolean bench = (Boolean) parser.getOptionValue(benchOption, false);
+		int depth = (Integer) parser.getOptionValue(depthOption, PositionBench.DEFAULT_DEPTH);
+		String cache = (String) parser.getOptionValue(cacheOption, "");
+		int cacheSize = (Integer) parser.getOptionValue(cacheSizeOption, AnalysisCache.DEFAULT_MB);
+		boolean worker = (Boolean) parser.getOptionValue(workerOption, false);
+		int memory = (Integer) parser.getOptionValue(memoryOption, 0);
+		int analysisThreads = (Integer) parser.getOptionValue(parallelOption, 0);
+		String model = (String) parser.getOptionValue(modelOption, "");
+		int replies = (Integer) parser.getOptionValue(repliesOption, Logic.DEFAULT_REPLIES);
+
+		// Spielstände ohne Reflection dekodieren
+		if (fastDecode)
+			FastDecoding.install(Configuration.getXStream());
+
+		// Gewichte des Netzes, werden von allen Spielen dieser JVM geteilt
+		NnueWeights weights = null;
+		if (!nnue.isEmpty()) {
+			try {
+				weights = NnueWeights.load(new File(nnue));
+				logger.info("Bewertung mit dem Netz aus {} ({} Neuronen).", nnue, weights.getHidden());
+			} catch (IOException e) {
+				logger.error("Die Gewichte konnten nicht geladen werden, es wird nach Punkten bewertet:", e);
+			}
+		}
+
+		// Analysedatei, wird von allen Suchen dieser JVM und von anderen Clients geteilt
+		if (!cache.isEmpty()) {
+			try {
+				AnalysisCache.setShared(AnalysisCache.open(new File(cache), cacheSize));
+				logger.info("Analysedatei {}.", AnalysisCache.getShared());
+			} catch (IOException e) {
+				logger.error("Die Analysedatei konnte nicht geöffnet werden:", e);
+			}
+		}
+
+		// feste Stellungen durchsuchen, ohne sich mit einem Server zu verbinden
+		if (bench) {
+			PositionBench.run(depth, weights, System.out);
+			return;
+		}
+
+		// Tabellen nach dem Speicherbudget bemessen und vorab anlegen
+		String[] reservations = reservation.split(",");
+		MemoryBudget budget = MemoryBudget.forHeap(memory, worker ? 1 : Math.max(games, reservations.length));
+		budget.apply();
+		logger.info("Speicher: {}", budget);
+
+		// Pakete von einem Coordinator unter host:port rechnen statt zu spielen
+		if (worker) {
+			try {
+				new Worker(host, port, weights).run();
+			} catch (Exception e) {
+				logger.error("Der Worker wurde abgebrochen:", e);
+			}
+			return;
+		}
+
+		// Endspieldatenbanken, werden in den Speicher abgebildet und von allen Spielen geteilt
+		TablebaseSet tablebases = null;
+		if (!tablebase.isEmpty()) {
+			try {
+				tablebases = TablebaseSet.open(new File(tablebase));
+				logger.info("{} geladen aus {}.", tablebases, tablebase);
+			} catch (IOException e) {
+				logger.error("Die Endspieldatenbanken konnten nicht geladen werden:", e);
+			}
+		}
+
+		// die Moves jedes Zuges auf Threads verteilen, geteilt von allen Spielen
+		if (analysisThreads > 0) {
+			ParallelAnalysis.setShared(new ParallelAnalysis(analysisThreads, weights));
+			logger.info("Analyse der Moves auf {} Threads.", analysisThreads);
+		}
+
+		// die Suche jedes Spiels durchsucht nur die Antworten, die ein Gegnermodell erwartet
+		if (!model.isEmpty()) {
+			try {
+				Logic.setDefaultOpponentModel(OpponentModel.Type.parse(model), replies);
+			} catch (IllegalArgumentException e) {
+				showHelp(e.getMessage());
+				System.exit(2);
+			}
+			logger.info("Gegnermodell {} mit {} Antworten.", model, replies);
+		}
+
+		// mehrere Spiele in dieser JVM: mehrere Reservierungen durch Kommata getrennt
+		if (games > 1 || reservations.length > 1) {
+			try {
+				GameHost gameHost = new GameHost(host, port, threads, weights, tablebases);
+				if (reservations.length > 1)
+					gameHost.join(Arrays.asList(reservations));
+				else
+					gameHost.joinAny(games);
+			} catch (Exception e) {
+				logger.error("Beim Starten der Clients ist ein Fehler aufgetreten:", e);
+				e.printStackTrace();
+			}
+			return;
+		}
 
 		// einen neuen client erzeugen
 		try {
-			new Starter(host, port, reservation);
+			new Starter(host, port, reservation, null, weights, tablebases);
 		} catch (Exception e) {
 			logger.error("Beim Starten den Clients ist ein Fehler aufgetreten:", e);
 			e.printStackTrace();
@@ -74,9 +228,32 @@ public class Starter extends AbstractClient {
 		System.out.println("\n" + errorMsg);
 		System.out.println("\nBitte das Programm mit folgenden Parametern (optional) aufrufen: \n" + "java -jar "
 				+ jarName + " [{-h,--host} hostname]\n" + "                               [{-p,--port} port]\n"
-				+ "                               [{-r,--reservation} reservierung]");
+				+ "                               [{-r,--reservation} reservierung]\n"
+				+ "                               [{-f,--fast-decode}]\n"
+				+ "                               [{-n,--games} anzahl]\n"
+				+ "                               [{-t,--threads} anzahl]\n"
+				+ "                               [{-e,--nnue} gewichtsdatei]\n"
+				+ "                               [{-b,--tablebase} datei oder verzeichnis]\n"
+				+ "                               [{-c,--cache} analysedatei [--cache-size MB]]\n"
+				+ "                               [--bench [{-d,--depth} tiefe]]\n"
+				+ "                               [{-m,--memory} MB]\n"
+				+ "                               [{-a,--analysis-threads} anzahl]\n"
+				+ "                               [--model greedy|frequency [--replies anzahl]]\n"
+				+ "                               [--worker]");
 		System.out.println(
 				"\nBeispiel: \n" + "java -jar " + jarName + " --host 127.0.0.1 --port 10500 --reservation 1234\n");
+		System.out.println("Mehrere Spiele in einer JVM: \n" + "java -jar " + jarName
+				+ " --reservation 1234,5678 --threads 2\n" + "java -jar " + jarName + " --games 8 --threads 4\n");
+		System.out.println("Die Moves jedes Zuges auf 4 Threads analysieren: \n" + "java -jar " + jarName
+				+ " --analysis-threads 4\n");
+		System.out.println("Nur die 8 Antworten durchsuchen, die der Gegner bisher am häufigsten spielt: \n"
+				+ "java -jar " + jarName + " --model frequency --replies 8\n");
+		System.out.println("Tabellen nach einem Speicherbudget statt nach dem maximalen Heap bemessen: \n"
+				+ "java -Xmx512m -jar " + jarName + " --memory 256\n");
+		System.out.println("Geschwindigkeit mit festen Stellungen messen: \n" + "java -jar " + jarName
+				+ " --bench --depth 6\n");
+		System.out.println("Pakete eines Coordinators (sc.player2019.tools.Coordinator) rechnen: \n" + "java -jar "
+				+ jarName + " --worker --host 127.0.0.1 --port 13100\n");
 	}
 
 }
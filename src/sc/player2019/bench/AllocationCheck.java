@@ -0,0 +1,133 @@
+package sc.player2019.bench;
+
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.Evaluator;
+import sc.player2019.logic.search.PointsEvaluator;
+import sc.player2019.logic.search.Search;
+import sc.player2019.util.AllocationMeter;
+
+/**
+ * Prüft, dass Zuggenerierung, Bewertung und Suche je Knoten keinen Speicher
+ * anfordern. Jeder Teil läuft auf den Stellungen der {@link PositionBench}
+ * einmal zum Aufwärmen und einmal gemessen; gezählt wird mit
+ * {@link AllocationMeter#allocatedBytes()} nur der eigene Thread. Was einmalig
+ * angelegt wird, etwa die Transpositionstabelle, fällt beim Aufwärmen an; die
+ * Tabelle wird vor jeder Stellung geleert. <br>
+ * Liegt ein Teil über {@link #MAX_BYTES_PER_NODE}, endet das Programm mit
+ * Status 1, so bricht <code>gradle check</code> bzw. <code>ant check</code> ab.
+ * <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.AllocationCheck</code>
+ */
+public class AllocationCheck {
+
+	/** So viele Bytes je Knoten dürfen es höchstens sein, etwa für die Messung selbst */
+	public static final double MAX_BYTES_PER_NODE = 0.5;
+	/** Tiefe der Suche */
+	static final int DEPTH = 4;
+	/** Wiederholungen je Stellung für Zuggenerierung und Bewertung */
+	static final int REPEAT = 2000;
+
+	/** Ein gemessener Teil, gibt die Anzahl der Knoten zurück */
+	interface Part {
+		long run(BitBoard[] boards);
+	}
+
+	public static void main(String[] args) {
+		if (AllocationMeter.allocatedBytes() < 0) {
+			System.out.println("Die JVM misst den angeforderten Speicher nicht, keine Prüfung.");
+			return;
+		}
+		BitBoard[] boards = new BitBoard[PositionBench.POSITIONS.length];
+		for (int i = 0; i < boards.length; i++)
+			boards[i] = BitBoard.parse(PositionBench.POSITIONS[i]);
+		NnueWeights weights = NnueWeights.random(32, new Random(2019));
+
+		System.out.println("Teil                      Knoten     Bytes  Bytes/Knoten");
+		boolean ok = true;
+		ok &= check("Zuggenerierung", boards, AllocationCheck::generate);
+		ok &= check("Ausführen", boards, AllocationCheck::play);
+		ok &= check("Bewertung Punkte", boards, evaluate(new PointsEvaluator()));
+		ok &= check("Bewertung Netz", boards, evaluate(new NnueEvaluator(weights)));
+		ok &= check("Suche Punkte", boards, search(new Search(new PointsEvaluator())));
+		ok &= check("Suche Netz", boards, search(new Search(new NnueEvaluator(weights))));
+		if (!ok) {
+			System.out.println("Mindestens ein Teil fordert je Knoten Speicher an (Grenze " + MAX_BYTES_PER_NODE
+					+ " Bytes).");
+			System.exit(1);
+		}
+		System.out.println("Kein Teil fordert je Knoten Speicher an.");
+	}
+
+	/** Misst den Teil nach einem Durchlauf zum Aufwärmen und gibt eine Zeile aus. */
+	private static boolean check(String name, BitBoard[] boards, Part part) {
+		part.run(boards);
+		long before = AllocationMeter.allocatedBytes();
+		long nodes = part.run(boards);
+		long bytes = AllocationMeter.allocatedBytes() - before;
+		double perNode = nodes > 0 ? (double) bytes / nodes : 0;
+		boolean ok = perNode <= MAX_BYTES_PER_NODE;
+		System.out.printf("%-18s %13d %9d %13.3f%s%n", name, nodes, bytes, perNode, ok ? "" : "  zu viel");
+		return ok;
+	}
+
+	private static long generate(BitBoard[] boards) {
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		long nodes = 0;
+		for (BitBoard board : boards) {
+			for (int r = 0; r < REPEAT; r++) {
+				board.generateMoves(moves);
+				nodes++;
+			}
+		}
+		return nodes;
+	}
+
+	private static long play(BitBoard[] boards) {
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		BitBoard next = new BitBoard();
+		long nodes = 0;
+		for (BitBoard board : boards) {
+			int count = board.generateMoves(moves);
+			for (int r = 0; r < REPEAT / 10; r++) {
+				for (int i = 0; i < count; i++) {
+					next.copyFrom(board);
+					next.play(moves[i]);
+					nodes++;
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private static Part evaluate(Evaluator evaluator) {
+		return boards -> {
+			long nodes = 0;
+			int sum = 0;
+			for (BitBoard board : boards) {
+				for (int r = 0; r < REPEAT; r++) {
+					sum += evaluator.evaluate(board);
+					nodes++;
+				}
+			}
+			// das Ergebnis verwenden, damit die Bewertung nicht wegfällt
+			return sum == Integer.MIN_VALUE ? nodes + 1 : nodes;
+		};
+	}
+
+	private static Part search(Search search) {
+		return boards -> {
+			search.getStats().reset();
+			for (BitBoard board : boards) {
+				// sonst kennt der gemessene Durchlauf alle Stellungen schon
+				search.getTranspositionTable().clear();
+				search.search(board, DEPTH);
+			}
+			return search.getStats().getTotalNodes();
+		};
+	}
+
+}
@@ -0,0 +1,105 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.LeafBatch;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.GameRuleLogic;
+import sc.shared.PlayerColor;
+
+/**
+ * Vergleicht den Durchsatz beim Bewerten vieler Blattstellungen: einzeln über
+ * den GameState (Punkte beider Spieler), einzeln über
+ * {@link LeafBatch#evaluateSingle(BitBoard, int)} und gesammelt über einen
+ * {@link LeafBatch}. Die Blätter sind alle Nachfolger zufälliger Stellungen.
+ * <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.BatchEvalBenchmark [Stellungen]</code>
+ */
+public class BatchEvalBenchmark {
+
+	private static final int BATCH_SIZE = BitBoard.MAX_MOVES;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		ArrayList<GameState> leafStates = new ArrayList<GameState>();
+		ArrayList<BitBoard> leafBoards = new ArrayList<BitBoard>();
+		for (GameState gs : SwarmCutBenchmark.randomPositions(positions, new Random(2019))) {
+			for (Move m : GameRuleLogic.getPossibleMoves(gs)) {
+				GameState child = gs.clone();
+				m.perform(child);
+				leafStates.add(child);
+				leafBoards.add(BitBoard.of(child));
+			}
+		}
+
+		LeafBatch batch = new LeafBatch(BATCH_SIZE);
+		int[] out = new int[BATCH_SIZE];
+		for (int i = 0; i < 5; i++) {
+			gameState(leafStates);
+			single(leafBoards);
+			batched(leafBoards, batch, out);
+		}
+
+		// je Verfahren die schnellste von mehreren Messungen
+		long stateTime = Long.MAX_VALUE, singleTime = Long.MAX_VALUE, batchTime = Long.MAX_VALUE;
+		long stateSum = 0, singleSum = 0, batchSum = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			stateSum = gameState(leafStates);
+			stateTime = Math.min(stateTime, System.nanoTime() - start);
+			start = System.nanoTime();
+			singleSum = single(leafBoards);
+			singleTime = Math.min(singleTime, System.nanoTime() - start);
+			start = System.nanoTime();
+			batchSum = batched(leafBoards, batch, out);
+			batchTime = Math.min(batchTime, System.nanoTime() - start);
+		}
+
+		int n = leafBoards.size();
+		System.out.println("Blattstellungen:            " + n);
+		System.out.printf("GameState, einzeln:         %.1f ns/Stellung (nur Punkte, Prüfsumme %d)%n",
+				(double) stateTime / n, stateSum);
+		System.out.printf("BitBoard, einzeln:          %.1f ns/Stellung%n", (double) singleTime / n);
+		System.out.printf("LeafBatch, je %d:          %.1f ns/Stellung%n", BATCH_SIZE, (double) batchTime / n);
+		System.out.println("Prüfsummen:                 " + singleSum + " / " + batchSum
+				+ (singleSum == batchSum ? " (gleich)" : " (ABWEICHUNG!)"));
+	}
+
+	private static long gameState(ArrayList<GameState> states) {
+		long sum = 0;
+		for (GameState gs : states) {
+			PlayerColor own = gs.getOtherPlayerColor();
+			sum += gs.getPointsForPlayer(own) - gs.getPointsForPlayer(own.opponent());
+		}
+		return sum;
+	}
+
+	private static long single(ArrayList<BitBoard> boards) {
+		long sum = 0;
+		for (BitBoard b : boards)
+			sum += LeafBatch.evaluateSingle(b, 1 - b.current());
+		return sum;
+	}
+
+	private static long batched(ArrayList<BitBoard> boards, LeafBatch batch, int[] out) {
+		long sum = 0;
+		int n = boards.size();
+		for (int from = 0; from < n; from += BATCH_SIZE) {
+			batch.clear();
+			int to = Math.min(n, from + BATCH_SIZE);
+			for (int i = from; i < to; i++) {
+				BitBoard b = boards.get(i);
+				batch.add(b, 1 - b.current());
+			}
+			batch.evaluate(out);
+			for (int i = 0; i < to - from; i++)
+				sum += out[i];
+		}
+		return sum;
+	}
+
+}
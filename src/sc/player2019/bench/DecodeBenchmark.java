@@ -0,0 +1,76 @@
+package sc.player2019.bench;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Random;
+
+import com.thoughtworks.xstream.XStream;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.net.FastDecoding;
+import sc.player2019.net.MementoDecoder;
+import sc.plugin2019.GameState;
+import sc.plugin2019.util.Configuration;
+import sc.protocol.responses.MementoPacket;
+import sc.protocol.responses.RoomPacket;
+
+/**
+ * Misst, wie lange das Dekodieren eines Spielstands dauert: einmal über
+ * XStream wie im Plugin, einmal über XStream mit {@link FastDecoding} und
+ * einmal direkt mit dem {@link MementoDecoder} in ein BitBoard. <br>
+ * Unter Java 9 und neuer benötigt XStream
+ * <code>--add-opens java.base/java.util=ALL-UNNAMED</code> (und ähnliche).
+ * <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.DecodeBenchmark [Stellungen]</code>
+ */
+public class DecodeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		XStream xStream = Configuration.getXStream();
+		ArrayList<String> messages = new ArrayList<String>();
+		StringBuilder protocol = new StringBuilder("<protocol>");
+		for (GameState gs : SwarmCutBenchmark.randomPositions(positions, new Random(2019))) {
+			String xml = xStream.toXML(new RoomPacket("bench", new MementoPacket(gs, null)));
+			messages.add(xml);
+			protocol.append(xml);
+		}
+		protocol.append("</protocol>");
+
+		for (int i = 0; i < 3; i++) {
+			xstream(xStream, messages);
+			pull(protocol.toString());
+		}
+		long plain = xstream(xStream, messages);
+		long pull = pull(protocol.toString());
+		FastDecoding.install(xStream);
+		for (int i = 0; i < 3; i++)
+			xstream(xStream, messages);
+		long fast = xstream(xStream, messages);
+
+		System.out.println("Spielstände:             " + messages.size());
+		System.out.printf("XStream:                 %.1f µs/Spielstand%n", plain / 1000.0 / messages.size());
+		System.out.printf("XStream + FastDecoding:  %.1f µs/Spielstand%n", fast / 1000.0 / messages.size());
+		System.out.printf("MementoDecoder:          %.1f µs/Spielstand%n", pull / 1000.0 / messages.size());
+		System.out.println("FastDecoding:            " + FastDecoding.getStats());
+	}
+
+	private static long xstream(XStream xStream, ArrayList<String> messages) {
+		long start = System.nanoTime();
+		for (String xml : messages) {
+			xStream.fromXML(xml);
+			FastDecoding.takeDecoded();
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static long pull(String protocol) throws Exception {
+		long start = System.nanoTime();
+		MementoDecoder decoder = new MementoDecoder(new StringReader(protocol));
+		BitBoard board = new BitBoard();
+		while (decoder.next(board))
+			;
+		return System.nanoTime() - start;
+	}
+
+}
@@ -0,0 +1,83 @@
+package sc.player2019.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.Accumulator;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.plugin2019.GameState;
+
+/**
+ * Misst die Kosten der Bewertung mit dem Netz: schrittweise Aktualisierung des
+ * {@link Accumulator}s samt Ausgabe, vollständige Neuberechnung und die Knoten
+ * pro Sekunde einer {@link Search} im Vergleich zur Bewertung nach Punkten.
+ * Ohne Gewichtsdatei werden zufällige Gewichte genutzt. <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.NnueBenchmark [gewichte]</code>
+ */
+public class NnueBenchmark {
+
+	private static final int EVALUATIONS = 2000000;
+
+	public static void main(String[] args) throws Exception {
+		NnueWeights weights = args.length > 0 ? NnueWeights.load(new File(args[0]))
+				: NnueWeights.random(32, new Random(2019));
+		ArrayList<BitBoard> boards = new ArrayList<BitBoard>();
+		for (GameState gs : SwarmCutBenchmark.randomPositions(20, new Random(2019)))
+			boards.add(BitBoard.of(gs));
+
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		Accumulator parent = new Accumulator(weights);
+		Accumulator child = new Accumulator(weights);
+		long sum = 0;
+		long updateTime = 0;
+		long refreshTime = 0;
+		for (int round = 0; round < 2; round++) {
+			updateTime = 0;
+			refreshTime = 0;
+			for (BitBoard board : boards) {
+				parent.refresh(board);
+				int count = board.generateMoves(moves);
+				int n = EVALUATIONS / boards.size();
+				long start = System.nanoTime();
+				for (int i = 0; i < n; i++) {
+					child.update(parent, board, moves[i % count]);
+					sum += child.output(i & 1);
+				}
+				updateTime += System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < n / 10; i++) {
+					child.refresh(board);
+					sum += child.output(i & 1);
+				}
+				refreshTime += (System.nanoTime() - start) * 10;
+			}
+		}
+		System.out.println("Neuronen:                    " + weights.getHidden());
+		System.out.printf("Aktualisierung + Ausgabe:    %.0f ns (%.0f /s)%n", (double) updateTime / EVALUATIONS,
+				EVALUATIONS * 1e9 / updateTime);
+		System.out.printf("Neuberechnung + Ausgabe:     %.0f ns (%.0f /s)%n", (double) refreshTime / EVALUATIONS,
+				EVALUATIONS * 1e9 / refreshTime);
+
+		Search nnue = new Search(new NnueEvaluator(weights));
+		Search points = new Search();
+		long nnueNodes = 0, pointsNodes = 0, nnueMillis = 0, pointsMillis = 0;
+		for (BitBoard board : boards) {
+			SearchResult r = nnue.iterate(board, Search.MAX_PLY, 200);
+			nnueNodes += r.getNodes();
+			nnueMillis += r.getMillis();
+			r = points.iterate(board, Search.MAX_PLY, 200);
+			pointsNodes += r.getNodes();
+			pointsMillis += r.getMillis();
+		}
+		System.out.println("Suche mit Netz:              " + nnueNodes * 1000 / Math.max(1, nnueMillis) + " Knoten/s");
+		System.out.println("Suche nach Punkten:          " + pointsNodes * 1000 / Math.max(1, pointsMillis)
+				+ " Knoten/s");
+		System.out.println("(Prüfsumme " + sum + ")");
+	}
+
+}
@@ -0,0 +1,83 @@
+package sc.player2019.bench;
+
+import java.io.PrintStream;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.AnalysisCache;
+import sc.player2019.logic.search.PointsEvaluator;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+
+/**
+ * Durchsucht eine feste Menge von Stellungen mit fester Tiefe in einem Thread
+ * und gibt die Summe der Knoten und die Knoten pro Sekunde aus. Die Summe hängt
+ * nur von der Suche ab, nicht vom Rechner: Ändert sie sich, hat eine Änderung
+ * das Verhalten der Suche geändert, sonst nur ihre Geschwindigkeit. <br>
+ * Jede Stellung bekommt eine neue {@link Search}, damit die
+ * Transpositionstabelle keine Ergebnisse von einer Stellung zur nächsten
+ * trägt. Die Stellungen stammen aus Spielen der Suche gegen sich selbst mit
+ * einigen zufälligen Zügen und sind in der Kurzform von
+ * {@link BitBoard#toCode()} angegeben. <br>
+ * Aufruf: <code>java -jar ... --bench [--depth tiefe] [--nnue gewichtsdatei]</code>
+ */
+public class PositionBench {
+
+	/** Tiefe, wenn keine angegeben ist */
+	public static final int DEFAULT_DEPTH = 6;
+
+	static final String[] POSITIONS = {
+			".BBBBBBBB./R........R/R........R/R........R/R........R/..R..O...R/R..O.....R/R........R/R........R/.BBBBBBBB. b 1",
+			".BB.BBBBB./R........R/R..B.....R/R..O.....R/R.R..O...R/R........R/.........R/R........R/R........R/.BBBBBBBB. r 2",
+			".BBB.BBB../R........R/R...B.B..R/R........R/R........R/R........R/.B...O..../R.O......./R......R.R/..BBBBBRB. r 6",
+			"...BBBBBB./RR.....R../.B..B....R/R...O....R/R........R/R........R/..R......R/R...B.O..R/R........R/.B.BBBBBB. b 7",
+			".BRBBBB.../R......B.R/.........B/R........R/R........R/.....O...R/R..O.....R/R.....B..B/..R..R...R/.B.BBB..B. r 12",
+			".BB.BBB.B./R........R/R..B.....R/R..O.....R/R.R..O...R/R........R/........RR/...B.....B/R......B.R/...BBBB.B. b 13",
+			".BRBBBBR../R........R/........../R........R/B........R/R........B/.B...O..../.RO.BB..../...R...RRR/......B.B. r 18",
+			"..BBBBBBB./R........R/RB.......R/....OR...R/R........R/R........R/...R.....R/R...B.O..B/....B....R/...BBBB... b 19",
+			".BRBRBB.../...R...RBR/.........B/.........R/........../.....O..RR/R..O.....R/R........B/..R......R/...BBBB.B. r 24",
+			".BB.BBB.../R....R...R/R.....B.B./R..O.....R/R....O...R/R........R/R........R/......BBR./.....B.B.R/....BBB..R b 25",
+			"..RBBBBR../R.B......R/........../..R......R/B........B/.B.......B/.....O..../..O.R...../...R.R.R../......RBB. r 30",
+			"..BBBBBB../R.....R.../RBR.....RR/....O....R/.........R/R.......RB/...R.....R/R...B.O.../....B...../...BBBB... b 31",
+			".BRBRBB.../...R...RBR/......R.R./.......R.R/......RR../.....O..../...O...B../.RR....B../.......BB./.....BB... r 36",
+			".B..BBB.../R........R/B.......B./R..O....../R.R..O...R/R........R/.......B../......BBR./.....B.B.R/....B.B..R b 37",
+			"..RB.BBR../R...B...../........../.R.......B/B........./........../.....O.R../..O.R...../...R...RB./.R......B. r 44",
+			"..RBBB.R../R.....R.../.B.....RB./..R.O...R./.........R/..B.....RB/...B.....R/....B.O.../....B...../...B.B.... b 45" };
+
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+		run(depth, null, System.out);
+	}
+
+	/**
+	 * Durchsucht alle Stellungen und schreibt je Stellung und am Ende eine Zeile.
+	 *
+	 * @param weights Die Gewichte des Netzes oder null, um nach Punkten zu
+	 *                bewerten
+	 * @return Die Summe der Knoten
+	 */
+	public static long run(int depth, NnueWeights weights, PrintStream out) {
+		out.println("Stellungen: " + POSITIONS.length + ", Tiefe: " + depth + ", Bewertung: "
+				+ (weights == null ? "Punkte" : "Netz"));
+		long nodes = 0;
+		long nanos = 0;
+		for (int i = 0; i < POSITIONS.length; i++) {
+			BitBoard board = BitBoard.parse(POSITIONS[i]);
+			Search search = new Search(weights == null ? new PointsEvaluator() : new NnueEvaluator(weights));
+			long start = System.nanoTime();
+			SearchResult result = search.iterate(board, depth, 0);
+			long time = System.nanoTime() - start;
+			long n = result == null ? 0 : result.getNodes();
+			nodes += n;
+			nanos += time;
+			out.printf("%2d  Zug %2d  %10d Knoten  %7.1f ms  %s%n", i + 1, board.turn(), n, time / 1e6,
+					result == null ? "-" : result.getMove());
+		}
+		out.printf("Knoten: %d%nKnoten/s: %.0f%n", nodes, nanos > 0 ? nodes * 1e9 / nanos : 0);
+		if (AnalysisCache.getShared() != null)
+			out.println("Mit Analysedatei, die Knoten sind nicht vergleichbar: " + AnalysisCache.getShared());
+		return nodes;
+	}
+
+}
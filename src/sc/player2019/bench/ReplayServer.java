@@ -0,0 +1,262 @@
+package sc.player2019.bench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import com.thoughtworks.xstream.XStream;
+
+import sc.framework.plugins.Player;
+import sc.framework.plugins.protocol.MoveRequest;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Configuration;
+import sc.plugin2019.util.Constants;
+import sc.plugin2019.util.GameRuleLogic;
+import sc.protocol.LobbyProtocol;
+import sc.protocol.requests.JoinPreparedRoomRequest;
+import sc.protocol.requests.JoinRoomRequest;
+import sc.protocol.responses.CloseConnection;
+import sc.protocol.responses.JoinGameProtocolMessage;
+import sc.protocol.responses.LeftGameEvent;
+import sc.protocol.responses.MementoPacket;
+import sc.protocol.responses.RoomPacket;
+import sc.shared.GameResult;
+import sc.shared.PlayerColor;
+import sc.shared.PlayerScore;
+import sc.shared.ScoreCause;
+import sc.shared.ScoreDefinition;
+import sc.shared.WelcomeMessage;
+
+/**
+ * Ein Ersatz für den Spielserver, der aufgezeichnete Spielstände über die
+ * Loopback-Schnittstelle an einen Client schickt und misst, wie lange es von
+ * der Anfrage nach einem Zug bis zum Eintreffen des Moves dauert. Das ist die
+ * Zeit, die der echte Server gegen das Zeitlimit prüft. <br>
+ * Der Server spricht dasselbe Protokoll wie der echte: Er nimmt eine
+ * Verbindung an, beantwortet die Anmeldung mit Raum und Farbe und schickt dann
+ * je Spielstand ein {@link MementoPacket} und, wenn noch ein Move möglich
+ * ist, direkt danach einen {@link MoveRequest}. Der Client rechnet für die Seite,
+ * die am Zug ist, also für beide Farben. Welcher Move zurückkommt, spielt keine
+ * Rolle, der nächste Spielstand kommt aus der Aufzeichnung. <br>
+ * Gemessen wird auf Seite des Servers, jeweils bis der Move vollständig
+ * gelesen ist:
+ * <ul>
+ * <li>Anfrage: ab dem Senden des {@link MoveRequest}, wie beim Zeitlimit</li>
+ * <li>Spielstand: ab dem Senden des Spielstands, also mit dessen
+ * Dekodieren</li>
+ * </ul>
+ * Mit einer Pause zwischen Spielstand und Anfrage ist der Spielstand
+ * dekodiert, bevor die Anfrage ankommt; der Unterschied zur Messung ohne Pause
+ * ist die Zeit für das Dekodieren. Was dann von der Anfrage übrig bleibt, ist
+ * die Berechnung, die der Client selbst ausgibt, und der Rest ist Netz und
+ * Protokoll. <br>
+ * Die Spielstände stammen aus Replays des Servers (<code>.xml</code> oder
+ * <code>.xml.gz</code>) oder aus zufällig gespielten Spielen. <br>
+ * Unter Java 9 und neuer benötigt XStream
+ * <code>--add-opens java.base/java.util=ALL-UNNAMED</code> (und ähnliche).
+ * <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.bench.ReplayServer port [pause-ms] [anzahl | replay...]</code>,
+ * danach den Client mit <code>--port port</code> starten.
+ */
+public class ReplayServer {
+
+	private static final String ROOM = "replay";
+
+	private final XStream xStream = Configuration.getXStream();
+	private final ArrayList<GameState> states;
+	private final long pauseMillis;
+	/** Ab dem Senden der Anfrage, in Nanosekunden */
+	private long[] requestLatency;
+	/** Ab dem Senden des Spielstands, in Nanosekunden */
+	private long[] stateLatency;
+	private int turns;
+
+	public ReplayServer(ArrayList<GameState> states, long pauseMillis) {
+		this.states = states;
+		this.pauseMillis = pauseMillis;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Aufruf: ReplayServer port [pause-ms] [anzahl | replay...]");
+			System.exit(2);
+		}
+		int port = Integer.parseInt(args[0]);
+		long pause = args.length > 1 ? Long.parseLong(args[1]) : 0;
+		ArrayList<GameState> states;
+		if (args.length <= 2 || args[2].matches("\\d+")) {
+			int count = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+			states = SwarmCutBenchmark.randomPositions(count, new Random(2019));
+		} else {
+			states = new ArrayList<GameState>();
+			for (int i = 2; i < args.length; i++)
+				states.addAll(readReplay(new File(args[i])));
+		}
+		ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+		System.out.println(states.size() + " Spielstände, warte auf den Client an Port " + server.getLocalPort());
+		try {
+			ReplayServer replay = new ReplayServer(states, pause);
+			replay.serve(server.accept());
+			replay.print();
+		} finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Liest alle Spielstände eines Replays in ihrer Reihenfolge. Der Server
+	 * schreibt Spielstände als <code>class="state"</code>, das Plugin kennt
+	 * diesen Namen nicht, deshalb wird ein eigenes XStream genutzt.
+	 */
+	static ArrayList<GameState> readReplay(File file) throws IOException, ClassNotFoundException {
+		XStream replayStream = new XStream();
+		replayStream.setMode(XStream.NO_REFERENCES);
+		replayStream.setClassLoader(Configuration.class.getClassLoader());
+		LobbyProtocol.registerMessages(replayStream);
+		LobbyProtocol.registerAdditionalMessages(replayStream, Configuration.getClassesToRegister());
+		replayStream.alias("state", GameState.class);
+		ArrayList<GameState> states = new ArrayList<GameState>();
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			if (file.getName().endsWith(".gz"))
+				in = new GZIPInputStream(in);
+			ObjectInputStream objects = replayStream.createObjectInputStream(in);
+			while (true) {
+				Object o;
+				try {
+					o = objects.readObject();
+				} catch (EOFException e) {
+					break;
+				}
+				if (o instanceof RoomPacket && ((RoomPacket) o).getData() instanceof MementoPacket)
+					states.add((GameState) ((MementoPacket) ((RoomPacket) o).getData()).getState());
+			}
+		} finally {
+			in.close();
+		}
+		return states;
+	}
+
+	/**
+	 * Spielt alle Spielstände über die Verbindung ab und misst jede Anfrage.
+	 */
+	public void serve(Socket socket) throws IOException, ClassNotFoundException, InterruptedException {
+		socket.setTcpNoDelay(true);
+		requestLatency = new long[states.size()];
+		stateLatency = new long[states.size()];
+		turns = 0;
+		try {
+			ObjectOutputStream out = xStream.createObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()),
+					"protocol");
+			ObjectInputStream in = xStream.createObjectInputStream(socket.getInputStream());
+			Object join = in.readObject();
+			if (!(join instanceof JoinRoomRequest || join instanceof JoinPreparedRoomRequest))
+				throw new IOException("Unerwartete Anmeldung: " + join);
+			out.writeObject(new JoinGameProtocolMessage(ROOM));
+			out.writeObject(new RoomPacket(ROOM, new WelcomeMessage(PlayerColor.RED)));
+			out.flush();
+
+			for (GameState state : states) {
+				// wie der echte Server nur, solange das Spiel läuft
+				boolean request = state.getTurn() < Constants.ROUND_LIMIT * 2
+						&& !GameRuleLogic.getPossibleMoves(state).isEmpty();
+				long stateSent = System.nanoTime();
+				out.writeObject(new RoomPacket(ROOM, new MementoPacket(state, null)));
+				out.flush();
+				if (!request)
+					continue;
+				if (pauseMillis > 0)
+					Thread.sleep(pauseMillis);
+				out.writeObject(new RoomPacket(ROOM, new MoveRequest()));
+				out.flush();
+				long requestSent = System.nanoTime();
+				readMove(in);
+				long received = System.nanoTime();
+				requestLatency[turns] = received - requestSent;
+				stateLatency[turns] = received - stateSent;
+				turns++;
+			}
+			// wie der echte Server: erst das Ergebnis, dann verlässt der Client den Raum
+			// und beendet die Verbindung selbst
+			out.writeObject(new RoomPacket(ROOM, result()));
+			out.writeObject(new LeftGameEvent(ROOM));
+			out.flush();
+			try {
+				while (!(in.readObject() instanceof CloseConnection))
+					;
+			} catch (IOException e) {
+				// schon geschlossen
+			}
+			out.close();
+		} finally {
+			socket.close();
+		}
+	}
+
+	/** Ein unentschiedenes Ergebnis, das Spiel ist ja nur abgespielt */
+	private static GameResult result() {
+		ScoreDefinition definition = new ScoreDefinition();
+		definition.add("Siegpunkte");
+		ArrayList<PlayerScore> scores = new ArrayList<PlayerScore>();
+		scores.add(new PlayerScore(ScoreCause.REGULAR, "", 1));
+		scores.add(new PlayerScore(ScoreCause.REGULAR, "", 1));
+		return new GameResult(definition, scores, new ArrayList<Player>());
+	}
+
+	private static Move readMove(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		while (true) {
+			Object o = in.readObject();
+			if (o instanceof RoomPacket && ((RoomPacket) o).getData() instanceof Move)
+				return (Move) ((RoomPacket) o).getData();
+		}
+	}
+
+	/** Anzahl der gemessenen Anfragen */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @param percent zwischen 0 und 100
+	 * @return Das Perzentil der Zeit ab der Anfrage in Nanosekunden
+	 */
+	public long requestPercentile(int percent) {
+		return percentile(requestLatency, percent);
+	}
+
+	private long percentile(long[] latency, int percent) {
+		if (turns == 0)
+			return 0;
+		long[] sorted = Arrays.copyOf(latency, turns);
+		Arrays.sort(sorted);
+		return sorted[(int) ((turns - 1) * (long) percent / 100)];
+	}
+
+	public void print() {
+		System.out.println("Anfragen: " + turns + (pauseMillis > 0 ? ", Pause vor der Anfrage: " + pauseMillis + " ms" : ""));
+		System.out.println("              p50       p90       p99       max   (ms)");
+		print("Anfrage    ", requestLatency);
+		print("Spielstand ", stateLatency);
+	}
+
+	private void print(String name, long[] latency) {
+		System.out.printf("%s %9.2f %9.2f %9.2f %9.2f%n", name, percentile(latency, 50) / 1e6,
+				percentile(latency, 90) / 1e6, percentile(latency, 99) / 1e6, percentile(latency, 100) / 1e6);
+	}
+
+}
@@ -0,0 +1,81 @@
+package sc.player2019.bench;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.search.ReuseStats;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.plugin2019.GameState;
+
+/**
+ * Misst, was die Wiederverwendung der Suche von einem Zug zum nächsten bringt:
+ * Zwei {@link Search}es spielen ganze Spiele gegeneinander, jede behält ihre
+ * Transpositionstabelle über das Spiel. Zum Vergleich werden dieselben Spiele
+ * ohne Tabelle gespielt. Ausgegeben werden die mittlere Tiefe je Zug, ohne
+ * die Züge, deren Suche schon ein entschiedenes Spiel gefunden hat und deshalb
+ * früh aufhört, und die {@link ReuseStats}. <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.ReuseBenchmark [Spiele] [ms je Zug]</code>
+ */
+public class ReuseBenchmark {
+
+	public static void main(String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : 200;
+		BitBoard[] starts = new BitBoard[games];
+		for (int i = 0; i < games; i++)
+			starts[i] = BitBoard.of(new GameState());
+
+		// Aufwärmen
+		play(starts[0], true, millis / 4, new ReuseStats());
+
+		System.out.println("Spiele: " + games + ", Bedenkzeit: " + millis + " ms je Zug");
+		for (int config = 0; config < 2; config++) {
+			boolean table = config == 1;
+			ReuseStats reuse = new ReuseStats();
+			double depth = 0;
+			int moves = 0;
+			int decided = 0;
+			for (BitBoard start : starts) {
+				double[] r = play(start, table, millis, reuse);
+				depth += r[0];
+				moves += (int) r[1];
+				decided += (int) r[2];
+			}
+			System.out.printf("%-14s Tiefe %.2f je Zug (%d Züge, dazu %d entschieden)%n",
+					table ? "mit Tabelle" : "ohne Tabelle", depth / Math.max(1, moves), moves, decided);
+			if (table)
+				System.out.println("Wiederverwendung: " + reuse);
+		}
+	}
+
+	/**
+	 * Spielt ein Spiel bis zum Ende.
+	 *
+	 * @return Summe der Tiefen und Anzahl der offenen Züge, Anzahl der
+	 *         entschiedenen Züge
+	 */
+	private static double[] play(BitBoard start, boolean table, long millis, ReuseStats total) {
+		Search[] players = { new Search(), new Search() };
+		for (Search s : players)
+			s.setTranspositionTable(table);
+		BitBoard board = start.copy();
+		double depth = 0;
+		int moves = 0;
+		int decided = 0;
+		while (Search.outcome(board) == Integer.MIN_VALUE) {
+			SearchResult result = players[board.current()].iterate(board, Search.MAX_PLY, millis);
+			if (result == null)
+				break;
+			if (Search.isDecided(result.getScore())) {
+				decided++;
+			} else {
+				depth += result.getDepth();
+				moves++;
+			}
+			board.play(result.getEncodedMove());
+		}
+		for (Search s : players)
+			total.add(s.getReuseStats());
+		return new double[] { depth, moves, decided };
+	}
+
+}
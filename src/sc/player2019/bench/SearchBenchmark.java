@@ -0,0 +1,90 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.search.GreedyModel;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.player2019.logic.search.SearchStats;
+import sc.plugin2019.GameState;
+
+/**
+ * Vergleicht die selektiven Verfahren der {@link Search}: Jede Konfiguration
+ * durchsucht dieselben Stellungen mit derselben Bedenkzeit. Ausgegeben werden
+ * die erreichte Tiefe, der effektive Verzweigungsfaktor und die Knoten pro
+ * Sekunde. Das Gegnermodell ist nicht korrekt, es tauscht Genauigkeit gegen
+ * Tiefe; wie viel Genauigkeit, zeigt die {@link TacticalSuite}. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.bench.SearchBenchmark [Stellungen] [ms je Stellung]</code>
+ */
+public class SearchBenchmark {
+
+	private static final String[] NAMES = { "Alpha-Beta", "+ PVS", "+ LMR", "+ Aspiration", "+ Futility",
+			"+ Tabelle", "+ Gegnermodell" };
+	/** Antworten des Gegners mit Gegnermodell */
+	private static final int MODEL_REPLIES = 8;
+
+	public static void main(String[] args) throws Exception {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+		ArrayList<BitBoard> boards = new ArrayList<BitBoard>();
+		for (GameState gs : SwarmCutBenchmark.randomPositions(positions, new Random(2019)))
+			boards.add(BitBoard.of(gs));
+
+		// Aufwärmen
+		run(configure(NAMES.length - 1), boards, millis / 4);
+
+		System.out.println("Stellungen: " + boards.size() + ", Bedenkzeit: " + millis + " ms");
+		System.out.println("Konfiguration   Tiefe    EBF   Knoten/s  Abbrüche beim 1. Move");
+		for (int level = 0; level < NAMES.length; level++) {
+			double[] r = run(configure(level), boards, millis);
+			System.out.printf("%-14s %6.2f %6.2f %10.0f %8.0f %%%n", NAMES[level], r[0], r[1], r[2], r[3]);
+		}
+	}
+
+	/** Schaltet die ersten <code>level</code> Verfahren ein. */
+	private static Search configure(int level) {
+		Search search = new Search();
+		search.setPrincipalVariation(level >= 1);
+		search.setLateMoveReductions(level >= 2);
+		search.setAspirationWindows(level >= 3);
+		search.setFutilityPruning(level >= 4);
+		search.setTranspositionTable(level >= 5);
+		search.setOpponentModel(level >= 6 ? new GreedyModel() : null, MODEL_REPLIES);
+		return search;
+	}
+
+	/**
+	 * @return mittlere Tiefe, mittlerer EBF, Knoten pro Sekunde und Anteil der
+	 *         Abbrüche beim ersten Move
+	 */
+	private static double[] run(Search search, ArrayList<BitBoard> boards, long millis) {
+		double depth = 0;
+		double ebf = 0;
+		int ebfCount = 0;
+		long nodes = 0;
+		long time = 0;
+		long cutoffs = 0;
+		long firstMove = 0;
+		for (BitBoard board : boards) {
+			SearchResult result = search.iterate(board, Search.MAX_PLY, millis);
+			if (result == null)
+				continue;
+			SearchStats stats = search.getStats();
+			depth += result.getDepth();
+			if (stats.getEffectiveBranchingFactor() > 0) {
+				ebf += stats.getEffectiveBranchingFactor();
+				ebfCount++;
+			}
+			nodes += result.getNodes();
+			time += result.getMillis();
+			cutoffs += stats.getCutoffs();
+			firstMove += stats.getFirstMoveCutoffs();
+		}
+		return new double[] { depth / boards.size(), ebfCount > 0 ? ebf / ebfCount : 0,
+				time > 0 ? nodes * 1000.0 / time : 0, cutoffs > 0 ? firstMove * 100.0 / cutoffs : 0 };
+	}
+
+}
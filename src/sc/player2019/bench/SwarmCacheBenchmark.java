@@ -0,0 +1,103 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.Swarm;
+import sc.player2019.logic.board.SwarmCache;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.plugin2019.GameState;
+
+/**
+ * Misst, was der {@link SwarmCache} der {@link Search} bringt: Dieselben
+ * Stellungen werden mit fester Tiefe einmal mit und einmal ohne Speicher
+ * durchsucht. Da die Suche mit fester Tiefe in beiden Fällen dieselben Knoten
+ * besucht, sind die Knoten pro Sekunde direkt vergleichbar. Vorher wird
+ * geprüft, ob der Speicher für alle Stellungen dasselbe liefert wie
+ * {@link Swarm}. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.bench.SwarmCacheBenchmark [Stellungen] [Tiefe]</code>
+ */
+public class SwarmCacheBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		ArrayList<BitBoard> boards = new ArrayList<BitBoard>();
+		for (GameState gs : SwarmCutBenchmark.randomPositions(positions, new Random(2019)))
+			boards.add(BitBoard.of(gs));
+
+		int errors = verify(boards);
+		System.out.println("Abweichungen vom direkten Ergebnis: " + errors);
+
+		// Aufwärmen
+		run(boards, depth - 1, true);
+		run(boards, depth - 1, false);
+
+		System.out.println("Stellungen: " + boards.size() + ", Tiefe: " + depth);
+		for (int config = 0; config < 2; config++) {
+			boolean cached = config == 0;
+			SwarmCache.getShared().clear();
+			SwarmCache.getShared().resetStats();
+			double[] r = run(boards, depth, cached);
+			System.out.printf("%-14s %10.0f Knoten/s (%.0f Knoten)%n", cached ? "mit Speicher" : "ohne Speicher",
+					r[0], r[1]);
+			if (cached)
+				System.out.println("Speicher: " + SwarmCache.getShared());
+		}
+		SwarmCache.setEnabled(true);
+	}
+
+	/**
+	 * Vergleicht den Speicher für beide Farben jeder Stellung und aller
+	 * Folgestellungen mit {@link Swarm}.
+	 *
+	 * @return Anzahl der Abweichungen
+	 */
+	private static int verify(ArrayList<BitBoard> boards) {
+		SwarmCache cache = new SwarmCache(8);
+		int errors = 0;
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		for (BitBoard board : boards) {
+			int count = board.generateMoves(moves);
+			for (int i = 0; i <= count; i++) {
+				BitBoard b = board.copy();
+				if (i < count)
+					b.play(moves[i]);
+				for (int colour = 0; colour < 2; colour++) {
+					long lo = b.lo(colour);
+					long hi = b.hi(colour);
+					// zweimal, damit auch der Treffer geprüft wird
+					for (int pass = 0; pass < 2; pass++) {
+						if (cache.largest(lo, hi) != Swarm.largest(lo, hi)
+								|| cache.componentCount(lo, hi) != Swarm.componentCount(lo, hi)
+								|| cache.isConnected(lo, hi) != Swarm.isConnected(lo, hi))
+							errors++;
+					}
+				}
+			}
+		}
+		return errors;
+	}
+
+	/**
+	 * @return Knoten pro Sekunde und Anzahl der Knoten
+	 */
+	private static double[] run(ArrayList<BitBoard> boards, int depth, boolean cached) {
+		SwarmCache.setEnabled(cached);
+		long nodes = 0;
+		long time = 0;
+		for (BitBoard board : boards) {
+			Search search = new Search();
+			SearchResult result = search.iterate(board, depth, Long.MAX_VALUE / 2);
+			if (result == null)
+				continue;
+			nodes += result.getNodes();
+			time += result.getMillis();
+		}
+		return new double[] { time > 0 ? nodes * 1000.0 / time : 0, nodes };
+	}
+
+}
@@ -0,0 +1,109 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.SwarmAnalysis;
+import sc.plugin2019.FieldState;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+import sc.plugin2019.util.GameRuleLogic;
+import sc.shared.InvalidGameStateException;
+import sc.shared.InvalidMoveException;
+import sc.shared.PlayerColor;
+
+/**
+ * Vergleicht die Artikulationspunkt-Analyse aus {@link SwarmAnalysis} mit dem
+ * Abtasten jedes einzelnen Fisches auf dem GameState: Fisch entfernen, Schwarm
+ * über {@link GameRuleLogic} neu berechnen. Beide Verfahren liefern für jeden
+ * Fisch die Größe des größten Schwarms nach seinem Entfernen; Abweichungen
+ * werden mitgezählt. <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.SwarmCutBenchmark [Stellungen]</code>
+ */
+public class SwarmCutBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int positions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		ArrayList<GameState> states = randomPositions(positions, new Random(2019));
+		ArrayList<BitBoard> boards = new ArrayList<BitBoard>();
+		for (GameState gs : states)
+			boards.add(BitBoard.of(gs));
+
+		// Aufwärmen, damit beide Verfahren vom JIT übersetzt sind
+		for (int i = 0; i < 3; i++) {
+			scan(states);
+			tarjan(boards);
+		}
+
+		long start = System.nanoTime();
+		long scanSum = scan(states);
+		long scanTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		long tarjanSum = tarjan(boards);
+		long tarjanTime = System.nanoTime() - start;
+
+		System.out.println("Stellungen:            " + states.size());
+		System.out.printf("Abtasten je Fisch:     %.2f µs/Stellung%n", scanTime / 1000.0 / states.size());
+		System.out.printf("Tarjan auf Bitmasken:  %.2f µs/Stellung%n", tarjanTime / 1000.0 / states.size());
+		System.out.printf("Faktor:                %.1fx%n", (double) scanTime / tarjanTime);
+		System.out.println("Prüfsummen:            " + scanSum + " / " + tarjanSum
+				+ (scanSum == tarjanSum ? " (gleich)" : " (ABWEICHUNG!)"));
+	}
+
+	private static long scan(ArrayList<GameState> states) {
+		long sum = 0;
+		for (GameState gs : states) {
+			for (PlayerColor pc : PlayerColor.values()) {
+				for (int x = 0; x < BitBoard.SIZE; x++) {
+					for (int y = 0; y < BitBoard.SIZE; y++) {
+						if (gs.getField(x, y).getPiranha().orElse(null) != pc)
+							continue;
+						GameState copy = gs.clone();
+						copy.getField(x, y).setState(FieldState.EMPTY);
+						sum += GameRuleLogic.greatestSwarmSize(copy.getBoard(), pc) * (BitBoard.square(x, y) + 1);
+					}
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static long tarjan(ArrayList<BitBoard> boards) {
+		SwarmAnalysis analysis = new SwarmAnalysis();
+		long sum = 0;
+		for (BitBoard b : boards) {
+			for (int colour = BitBoard.RED; colour <= BitBoard.BLUE; colour++) {
+				analysis.analyse(b, colour);
+				for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+					if (b.test(colour, sq))
+						sum += analysis.largestAfterRemoval(sq) * (sq + 1);
+				}
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Spielt zufällige Partien und sammelt alle Stellungen, bis die gewünschte
+	 * Anzahl erreicht ist.
+	 */
+	static ArrayList<GameState> randomPositions(int count, Random random)
+			throws InvalidGameStateException, InvalidMoveException {
+		ArrayList<GameState> states = new ArrayList<GameState>();
+		while (states.size() < count) {
+			GameState gs = new GameState();
+			while (states.size() < count && gs.getTurn() < Constants.ROUND_LIMIT * 2 - 1) {
+				ArrayList<Move> moves = GameRuleLogic.getPossibleMoves(gs);
+				if (moves.isEmpty())
+					break;
+				moves.get(random.nextInt(moves.size())).perform(gs);
+				states.add(gs.clone());
+			}
+		}
+		return states;
+	}
+
+}
@@ -0,0 +1,293 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import sc.player2019.logic.Logic;
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.search.GreedyModel;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.plugin2019.Direction;
+import sc.plugin2019.IGameHandler;
+import sc.plugin2019.Move;
+
+/**
+ * Stellungen mit bekannter Lösung, um zu prüfen, ob ein schnelleres Programm
+ * auch besser spielt. Jede Stellung hat eine Art:
+ * <ul>
+ * <li>Sieg: Der Spieler am Zug kann den Sieg erzwingen, aber nur mit wenigen
+ * Moves</li>
+ * <li>Abwehr: Fast alle Moves verlieren, etwa weil der Gegner danach seinen
+ * Schwarm vereint oder am Rundenlimit mehr Punkte hat; nur die angegebenen
+ * halten die Stellung</li>
+ * </ul>
+ * Gelöst ist eine Stellung, wenn das Programm am Ende der Bedenkzeit einen der
+ * angegebenen Moves spielt. Die Zeit bis zur Lösung ist der Zeitpunkt, ab dem
+ * das Programm nur noch richtige Moves als besten Move meldet. Eine
+ * {@link Search} meldet nach jeder Iteration, ein {@link IGameHandler} wie
+ * {@link Logic} nur einmal, wenn er sendet. <br>
+ * Die Stellungen stammen aus Spielen der Suche gegen sich selbst. Angegeben
+ * sind alle Moves, die innerhalb von 6 Halbzügen gewinnen (Sieg) oder nicht
+ * verlieren (Abwehr). Damit die Sammlung nicht die Fehler der Suche bestätigt,
+ * prüft der {@link TacticalSuiteCheck} die Lösungen ohne Bewertung und mit
+ * dem Spielende nach dem Code des Servers. Die Stellungen sind in der
+ * Kurzform von {@link BitBoard#toCode()} angegeben, die Moves als
+ * <code>x,y,Richtung</code>. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.bench.TacticalSuite [ms je Stellung] [suche|logic|modell [Antworten]]</code>,
+ * mit <code>modell</code> sucht die Suche mit dem {@link GreedyModel} als
+ * Gegnermodell.
+ */
+public class TacticalSuite {
+
+	/** Bedenkzeit je Stellung, wenn keine angegeben ist */
+	public static final long DEFAULT_MILLIS = 1000;
+	/** Antworten des Gegners mit Gegnermodell, wenn keine Anzahl angegeben ist */
+	public static final int DEFAULT_REPLIES = 8;
+
+	static final String[] POSITIONS = {
+			"..BBB...../....B...../....BB.RRB/....BRB..R/..O......R/.........R/.........R/...O....../R........./R......... b 51; Sieg; 9,7,DOWN_LEFT",
+			"....R...../........../B.......BB/..RO.....B/........../........../.....O.R.R/.....RR.R./........../.......... b 51; Sieg; 0,7,RIGHT",
+			"...BB...../....B...../....BB.RRB/....BBB..R/..O......R/.........R/.........R/...O....../R........./R......... r 52; Abwehr; 0,0,UP_RIGHT",
+			"B...B.B.../....RR...B/..B..R..../..RO....../........../........../.........R/..O......./...B....../....BB.... r 54; Sieg; 9,3,UP_LEFT",
+			"..RB....../R........./RR....R.../R......R../....O....B/..O.....BB/.......B.B/........../.........R/.......... b 55; Sieg; 3,9,DOWN_RIGHT",
+			"...R.BB.../..B..R.B../....R...../....O...R./.......R../R........./.....O..../R........R/........../....R..... b 55; Sieg; 2,8,RIGHT",
+			"B..BBB.R../R........./R........./R....O..../......B.R./........RR/.......RR./..O.B..R../..B.B...../.B.B.B.... r 56; Abwehr; 7,2,UP 9,4,LEFT",
+			"......BR../........../........../.........R/...RB.B..B/R.R......R/.RO.B....R/.R...O..../.B......../.BB....... r 56; Sieg; 9,3,UP_LEFT",
+			"..BB....../RBRRRB..../..BBR.R.../........../........R./.....O..../..RO....../........../.B.......R/..B....BB. r 56; Sieg; 9,1,UP_LEFT 8,5,UP_LEFT",
+			"R..BB...../.RR......./.B....B.../....O...../........../........RR/.........R/.....BORB./.R....BB.R/........B. r 56; Abwehr; 9,4,DOWN_LEFT",
+			"..R.B...../....B...../.B.....R../R........./......O..R/........RR/...O.B.RR./...BB....B/....B...../.......... r 56; Sieg; 8,3,LEFT 0,6,DOWN_RIGHT",
+			"..R....R../B.R......R/.BR.R...../BRB......./........B./..O..B..../.B...O..../.........B/........../.......... r 56; Sieg; 4,7,LEFT",
+			".........R/........B./........../RR....O.B./RBB......R/.......R../........../...B.O..../........../.......... r 58; Sieg; 0,5,UP 0,5,UP_RIGHT",
+			"...BRBR.B./..B....B../BB.....R../R.BO....R./R......R../RRO......./........../B........./..R......./.B........ r 58; Sieg; 1,4,UP",
+			".....B..../...RB...../R.....B.../RRR.O....R/.RB....B../.......B../.....O..BR/.........B/.........B/.......... r 58; Sieg; 9,6,DOWN 9,6,DOWN_LEFT 3,8,DOWN_RIGHT",
+			".BB.B.B..R/....R....R/B........R/........R./..O...R.../B....O..../.B....B.../..B......./..B......./.......... r 58; Abwehr; 6,5,RIGHT",
+			"R....R.RR./R..B...R../......B.R./....O.BB.R/......B.../.........R/......B..R/.....O..../.........R/.R........ r 58; Sieg; 9,3,UP 9,6,UP_LEFT",
+			"...R.BB.../....BR..../....RR..../....O...RB/........../R........./.....O..../R........R/........../....R..... r 58; Abwehr; 8,6,UP",
+			".R..BB..../....R...../........../..O.....B./.......R.R/....B....B/.....B..../...O....../........../.......... r 58; Abwehr; 1,9,RIGHT",
+			".B.BR.B.R./.B.....R../.......R../R...R..R../B...O...../RR......../R........./......O.../......BBB./.......B.. r 58; Sieg; 4,9,DOWN_RIGHT",
+			"......BRB./.B.R.....R/R........./........B./........../...O....../..R...O.../.....RR.../...BRBBB../.......... r 58; Abwehr; 2,3,DOWN 2,3,LEFT" };
+
+	/** Eine Stellung der Sammlung mit ihren richtigen Moves */
+	public static final class Position {
+
+		final BitBoard board;
+		final String kind;
+		/** Die richtigen Moves, kodiert und sortiert */
+		final int[] solutions;
+
+		private Position(BitBoard board, String kind, int[] solutions) {
+			this.board = board;
+			this.kind = kind;
+			this.solutions = solutions;
+		}
+
+		/**
+		 * Liest eine Stellung im Format <code>Kurzform; Art; x,y,Richtung ...</code>.
+		 */
+		public static Position parse(String line) {
+			String[] parts = line.split(";");
+			if (parts.length != 3)
+				throw new IllegalArgumentException("Stellung ohne Art oder Lösung: " + line);
+			BitBoard board = BitBoard.parse(parts[0].trim());
+			String[] moves = parts[2].trim().split("\\s+");
+			int[] solutions = new int[moves.length];
+			for (int i = 0; i < moves.length; i++) {
+				String[] m = moves[i].split(",");
+				int move = board.encode(new Move(Integer.parseInt(m[0]), Integer.parseInt(m[1]), Direction.valueOf(m[2])));
+				if (!board.isLegal(move))
+					throw new IllegalArgumentException("Unerlaubter Move " + moves[i] + " in " + line);
+				solutions[i] = move;
+			}
+			Arrays.sort(solutions);
+			return new Position(board, parts[1].trim(), solutions);
+		}
+
+		public boolean isSolution(int move) {
+			return Arrays.binarySearch(solutions, move) >= 0;
+		}
+
+		public BitBoard getBoard() {
+			return board;
+		}
+
+		public String getKind() {
+			return kind;
+		}
+	}
+
+	/**
+	 * Die besten Moves, die ein Programm während der Bedenkzeit gemeldet hat, mit
+	 * den Nanosekunden ab dem Start.
+	 */
+	public static final class Trace {
+
+		private int[] moves = new int[16];
+		private long[] nanos = new long[16];
+		private int size;
+
+		public void add(int move, long nanos) {
+			if (size == moves.length) {
+				moves = Arrays.copyOf(moves, size * 2);
+				this.nanos = Arrays.copyOf(this.nanos, size * 2);
+			}
+			moves[size] = move;
+			this.nanos[size] = nanos;
+			size++;
+		}
+
+		/** Der zuletzt gemeldete Move oder 0 */
+		public int last() {
+			return size == 0 ? 0 : moves[size - 1];
+		}
+
+		/**
+		 * @return Die Nanosekunden, ab denen nur noch richtige Moves gemeldet
+		 *         wurden, oder -1, wenn der letzte falsch ist
+		 */
+		public long timeToSolve(Position position) {
+			long time = -1;
+			for (int i = size - 1; i >= 0 && position.isSolution(moves[i]); i--)
+				time = nanos[i];
+			return time;
+		}
+	}
+
+	/** Ein Programm, das in einer Stellung einen Move sucht */
+	public interface Engine {
+
+		/**
+		 * Sucht einen Move für den Spieler am Zug und meldet jeden neuen besten
+		 * Move an die Spur, der zuletzt gemeldete ist der gespielte.
+		 */
+		void solve(BitBoard board, long millis, Trace trace);
+	}
+
+	/**
+	 * Eine {@link Search} mit iterativer Vertiefung, die nach jeder Iteration ihren
+	 * besten Move meldet. Jede Stellung bekommt eine neue Suche. Ist das Spiel
+	 * entschieden, wird nicht tiefer gesucht.
+	 */
+	public static Engine search(Supplier<Search> searches) {
+		return (board, millis, trace) -> {
+			Search search = searches.get();
+			long start = System.nanoTime();
+			for (int depth = 1; depth <= Search.MAX_PLY; depth++) {
+				long left = millis - (System.nanoTime() - start) / 1000000;
+				if (left <= 0)
+					break;
+				SearchResult result = search.iterate(board, depth, left);
+				if (result == null)
+					break;
+				// eine abgebrochene Iteration liefert das Ergebnis der vorherigen
+				if (result.getDepth() < depth)
+					break;
+				trace.add(result.getEncodedMove(), System.nanoTime() - start);
+				if (Search.isDecided(result.getScore()))
+					break;
+			}
+		};
+	}
+
+	/**
+	 * Ein {@link IGameHandler}, der wie im Spiel einen Spielstand und eine Anfrage
+	 * bekommt. Jede Stellung bekommt einen neuen Handler.
+	 *
+	 * @param handlers Erzeugt einen Handler, der seine Moves an den übergebenen
+	 *                 Empfänger gibt
+	 */
+	public static Engine handler(Function<Consumer<Move>, IGameHandler> handlers) {
+		return (board, millis, trace) -> {
+			LinkedBlockingQueue<Move> sent = new LinkedBlockingQueue<Move>();
+			IGameHandler handler = handlers.apply(sent::add);
+			handler.onUpdate(board.toGameState());
+			long start = System.nanoTime();
+			handler.onRequestAction();
+			try {
+				Move move = sent.poll(Math.max(0, millis - (System.nanoTime() - start) / 1000000), TimeUnit.MILLISECONDS);
+				if (move != null)
+					trace.add(board.encode(move), System.nanoTime() - start);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			handler.gameEnded(null, null, null);
+		};
+	}
+
+	public static void main(String[] args) {
+		long millis = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_MILLIS;
+		String name = args.length > 1 ? args[1] : "suche";
+		Engine engine;
+		if (name.equals("logic")) {
+			engine = handler(sender -> new Logic(sender, null, null, null));
+		} else if (name.equals("modell")) {
+			int replies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_REPLIES;
+			name += " (" + replies + " Antworten)";
+			engine = search(() -> {
+				Search search = new Search();
+				search.setOpponentModel(new GreedyModel(), replies);
+				return search;
+			});
+		} else {
+			engine = search(Search::new);
+		}
+		System.out.println("Stellungen: " + POSITIONS.length + ", Bedenkzeit: " + millis + " ms, Programm: " + name);
+		run(engine, millis);
+	}
+
+	/**
+	 * Gibt jede Stellung dem Programm und schreibt je Stellung und am Ende eine
+	 * Zeile.
+	 *
+	 * @return Die Anzahl der gelösten Stellungen
+	 */
+	public static int run(Engine engine, long millis) {
+		ArrayList<Position> positions = new ArrayList<Position>(POSITIONS.length);
+		for (String line : POSITIONS)
+			positions.add(Position.parse(line));
+		int solved = 0;
+		long[] times = new long[positions.size()];
+		ArrayList<String> kinds = new ArrayList<String>();
+		int[][] perKind = new int[positions.size()][2];
+		for (int i = 0; i < positions.size(); i++) {
+			Position position = positions.get(i);
+			Trace trace = new Trace();
+			engine.solve(position.board.copy(), millis, trace);
+			long time = trace.timeToSolve(position);
+			int kind = kinds.indexOf(position.kind);
+			if (kind < 0) {
+				kind = kinds.size();
+				kinds.add(position.kind);
+			}
+			perKind[kind][1]++;
+			if (time >= 0) {
+				times[solved++] = time;
+				perKind[kind][0]++;
+			}
+			System.out.printf("%2d  %-6s  Zug %2d  %-8s %9s  %s%n", i + 1, position.kind, position.board.turn(),
+					time >= 0 ? "gelöst" : "falsch", time >= 0 ? String.format("%.1f ms", time / 1e6) : "-",
+					trace.last() == 0 ? "kein Move" : BitBoard.toMove(trace.last()));
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int k = 0; k < kinds.size(); k++)
+			sb.append(", ").append(kinds.get(k)).append(' ').append(perKind[k][0]).append('/').append(perKind[k][1]);
+		System.out.println("Gelöst: " + solved + "/" + positions.size() + sb);
+		if (solved > 0) {
+			long[] sorted = Arrays.copyOf(times, solved);
+			Arrays.sort(sorted);
+			long sum = 0;
+			for (long t : sorted)
+				sum += t;
+			System.out.printf("Zeit bis zur Lösung: Summe %.1f ms, Median %.1f ms, längste %.1f ms%n", sum / 1e6,
+					sorted[(solved - 1) / 2] / 1e6, sorted[solved - 1] / 1e6);
+		}
+		return solved;
+	}
+
+}
@@ -0,0 +1,191 @@
+package sc.player2019.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.Zobrist;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+import sc.plugin2019.util.GameRuleLogic;
+import sc.shared.PlayerColor;
+
+/**
+ * Prüft die Lösungen der {@link TacticalSuite} unabhängig von der
+ * {@link sc.player2019.logic.search.Search}: ohne Bewertung, ohne Tabelle und
+ * mit dem Spielende nach dem Code des Servers. Ob das Spiel entschieden ist,
+ * bestimmen {@link GameRuleLogic#isSwarmConnected} und
+ * {@link GameState#getPointsForPlayer} auf einem {@link GameState}, nach den
+ * Regeln von <code>Game.checkWinCondition</code>: nur am Ende einer Runde,
+ * gleiche Punkte bei zwei vereinten Schwärmen spielen weiter. Die Moves kommen
+ * aus dem {@link BitBoard}, an der Wurzel werden sie mit
+ * {@link GameRuleLogic#getPossibleMoves(GameState)} verglichen. <br>
+ * Jeder Move der Stellung wird bis {@link #DEPTH} Halbzüge tief nur auf Sieg
+ * und Niederlage durchsucht. Bei einem Sieg müssen die angegebenen Moves genau
+ * die gewinnenden sein, bei einer Abwehr genau die, die nicht verlieren. <br>
+ * Aufruf: <code>java -cp ... sc.player2019.bench.TacticalSuiteCheck</code>,
+ * endet mit Status 1, wenn eine Lösung nicht stimmt.
+ */
+public class TacticalSuiteCheck {
+
+	/** So viele Halbzüge tief wird ab der Stellung geprüft, der Move mitgezählt */
+	public static final int DEPTH = 6;
+
+	private static final int OPEN = Integer.MIN_VALUE;
+
+	private final BitBoard[] stack = new BitBoard[DEPTH + 1];
+	private final int[][] moves = new int[DEPTH + 1][BitBoard.MAX_MOVES];
+	/**
+	 * Der Ausgang nach den Regeln des Servers je Stellung, er ist teuer. Er hängt
+	 * nur von den Fischen und dem Zug ab, wie der Schlüssel.
+	 */
+	private final HashMap<Long, Integer> results = new HashMap<Long, Integer>();
+	private long nodes;
+
+	public TacticalSuiteCheck() {
+		for (int i = 0; i < stack.length; i++)
+			stack[i] = new BitBoard();
+	}
+
+	public static void main(String[] args) {
+		TacticalSuiteCheck check = new TacticalSuiteCheck();
+		int wrong = 0;
+		for (int i = 0; i < TacticalSuite.POSITIONS.length; i++) {
+			TacticalSuite.Position position = TacticalSuite.Position.parse(TacticalSuite.POSITIONS[i]);
+			int[] expected = check.solutions(position);
+			boolean ok = Arrays.equals(expected, position.solutions);
+			if (!ok)
+				wrong++;
+			System.out.printf("%2d  %-6s  Zug %2d  %-7s %s%n", i + 1, position.kind, position.board.turn(),
+					ok ? "stimmt" : "falsch", ok ? "" : "richtig wäre: " + format(expected));
+		}
+		System.out.println("Geprüft: " + TacticalSuite.POSITIONS.length + " Stellungen, " + wrong + " falsch, "
+				+ check.nodes + " Knoten");
+		if (wrong > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Bestimmt die richtigen Moves der Stellung nach ihrer Art.
+	 *
+	 * @return Die Moves kodiert und sortiert
+	 */
+	public int[] solutions(TacticalSuite.Position position) {
+		BitBoard board = position.board;
+		boolean win = position.kind.equals("Sieg");
+		if (!win && !position.kind.equals("Abwehr"))
+			throw new IllegalArgumentException("Unbekannte Art: " + position.kind);
+		int[] list = new int[BitBoard.MAX_MOVES];
+		int count = board.generateMoves(list);
+		checkMoves(board, list, count);
+		results.clear();
+		ArrayList<Integer> result = new ArrayList<Integer>();
+		BitBoard next = new BitBoard();
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(board);
+			next.play(list[i]);
+			// mit Nullfenster: gewinnt der Move bzw. verliert er nicht?
+			int value = win ? -prove(next, DEPTH - 1, -1, 0) : -prove(next, DEPTH - 1, 0, 1);
+			if (win ? value == 1 : value > -1)
+				result.add(list[i]);
+		}
+		int[] solutions = new int[result.size()];
+		for (int i = 0; i < solutions.length; i++)
+			solutions[i] = result.get(i);
+		Arrays.sort(solutions);
+		return solutions;
+	}
+
+	/**
+	 * Alpha-Beta nur über Sieg (1), offen (0) und Niederlage (-1) aus Sicht des
+	 * Spielers am Zug.
+	 */
+	private int prove(BitBoard board, int depth, int alpha, int beta) {
+		nodes++;
+		int result = OPEN;
+		if (board.turn() % 2 == 0) {
+			Integer known = results.get(Zobrist.key(board));
+			if (known == null) {
+				known = serverResult(board);
+				results.put(Zobrist.key(board), known);
+			}
+			result = known;
+		}
+		if (result != OPEN)
+			return result;
+		if (depth == 0)
+			return 0;
+		int[] list = moves[depth];
+		int count = board.generateMoves(list);
+		if (count == 0)
+			return 0;
+		BitBoard next = stack[depth - 1];
+		int best = -1;
+		for (int i = 0; i < count; i++) {
+			next.copyFrom(board);
+			next.play(list[i]);
+			int value = -prove(next, depth - 1, -beta, -alpha);
+			if (value > best) {
+				best = value;
+				if (best > alpha)
+					alpha = best;
+				if (alpha >= beta)
+					break;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Der Ausgang nach <code>Game.checkWinCondition</code> aus Sicht des Spielers
+	 * am Zug, {@link #OPEN} wenn das Spiel weitergeht.
+	 */
+	static int serverResult(BitBoard board) {
+		if (board.turn() % 2 == 1)
+			return OPEN;
+		GameState gs = board.toGameState();
+		boolean red = GameRuleLogic.isSwarmConnected(gs.getBoard(), PlayerColor.RED);
+		boolean blue = GameRuleLogic.isSwarmConnected(gs.getBoard(), PlayerColor.BLUE);
+		int points = Integer.signum(gs.getPointsForPlayer(PlayerColor.RED) - gs.getPointsForPlayer(PlayerColor.BLUE));
+		// der Sieger wie in Game.getWinner, 0 für keinen
+		int winner = red && blue ? points : red ? 1 : blue ? -1 : 0;
+		int redResult;
+		if (gs.getTurn() < 2 * Constants.ROUND_LIMIT) {
+			if (winner == 0)
+				return OPEN;
+			redResult = winner;
+		} else {
+			redResult = winner != 0 ? winner : points;
+		}
+		return gs.getCurrentPlayerColor() == PlayerColor.RED ? redResult : -redResult;
+	}
+
+	/** Vergleicht die Moves des BitBoards mit denen des Servers. */
+	private static void checkMoves(BitBoard board, int[] list, int count) {
+		ArrayList<Move> server = GameRuleLogic.getPossibleMoves(board.toGameState());
+		int[] expected = new int[server.size()];
+		for (int i = 0; i < expected.length; i++)
+			expected[i] = board.encode(server.get(i));
+		int[] actual = Arrays.copyOf(list, count);
+		Arrays.sort(expected);
+		Arrays.sort(actual);
+		if (!Arrays.equals(expected, actual))
+			throw new IllegalStateException("Die Moves weichen vom Server ab: " + board.toCode());
+	}
+
+	private static String format(int[] moves) {
+		if (moves.length == 0)
+			return "keine";
+		StringBuilder sb = new StringBuilder();
+		for (int move : moves) {
+			Move m = BitBoard.toMove(move);
+			if (sb.length() > 0)
+				sb.append(' ');
+			sb.append(m.x).append(',').append(m.y).append(',').append(m.direction);
+		}
+		return sb.toString();
+	}
+
+}
@@ -1,15 +1,31 @@
 package sc.player2019.logic;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sc.framework.plugins.Player;
 import sc.player2019.Starter;
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.GameStatePool;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.OpponentModel;
+import sc.player2019.logic.search.PointsEvaluator;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.player2019.logic.tablebase.Tablebase;
+import sc.player2019.logic.tablebase.TablebaseSet;
+import sc.player2019.net.FastDecoding;
+import sc.player2019.util.AllocationMeter;
+import sc.player2019.util.GcMonitor;
 import sc.plugin2019.GameState;
 import sc.plugin2019.IGameHandler;
 import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
 import sc.plugin2019.util.GameRuleLogic;
 import sc.shared.GameResult;
 import sc.shared.InvalidGameStateException;
@@ -26,7 +42,8 @@ import sc.shared.PlayerColor;
  * vorteilhaft sind.</li>
  * <li>Wenn nur noch ein Move übrig ist, dann mache diesen Move.</li>
  * <li>Überprüfe, ob ein Move den Sieg ermglicht. Wenn ja, dann mache diesen
- * Move.</li>
+ * Move. Mit einer Endspieldatenbank wird auch ein erzwungener Sieg gespielt,
+ * der vor dem Rundenlimit endet.</li>
  * <li>
  * <ul>
  * <li>Suche den Move, der für uns die meisten Punkte bringt.</li>
@@ -36,7 +53,9 @@ import sc.shared.PlayerColor;
  * <li>Oder eine Mischung daraus. Man versucht die ersten 5 (empirische
  * Forschungen müssen noch getätigt werden) Moves die Pirahnas in die Mitte zu
  * befördern und den Rest der Zeit wird versucht ein Schwarm daraus zu
- * bilden.</li>
+ * bilden. Das übernimmt der {@link PhaseScheduler}: In der Eröffnung zählt der
+ * Weg zur Mitte mit, danach wählt eine Suche, die im Endspiel die meiste Zeit
+ * bekommt.</li>
  * <li>Des Weiteren kannn eine destruktiver Ansatz gewählt werden. Dabei wird
  * immer der Move gewählt, der die aktuellen Punkte des Gegeners minimiert.</li>
  * <li>Daraus resultieren könnte dann eine Mischung aus den Ansätzen, die die
@@ -57,11 +76,41 @@ import sc.shared.PlayerColor;
  */
 public class Logic implements IGameHandler {
 
-	private Starter client;
 	private GameState gameState;
+	private BitBoard board;
 	private Player currentPlayer;
-	private ArrayList<Move> possibleMoves;
-	private boolean alreadySend = false;
+	/** Sendet genau einen Move je Anfrage, egal aus welchem Thread */
+	private final MoveCommit commit;
+	private final GameStatePool statePool = new GameStatePool(2);
+	private final AllocationMeter allocationMeter = new AllocationMeter();
+	/** Die Pausen der Speicherbereinigung während dieses Spiels */
+	private final GcMonitor.Window gcWindow = GcMonitor.open();
+	private final Search search;
+	/** Führt die Berechnung eines Zuges aus, null für den Empfangsthread */
+	private final Executor searchExecutor;
+	/**
+	 * Es rechnet immer nur eine Anfrage: Suche und {@link #phase} gehören der
+	 * Logik, nicht der Anfrage
+	 */
+	private final Object computeLock = new Object();
+	private final TablebaseSet tablebases;
+	/** Verteilt Analyse und Ruhesuche der Moves auf Threads, null ohne */
+	private final ParallelAnalysis parallel;
+	/** Zeit und Verfahren je Spielphase */
+	private final PhaseScheduler phases = new PhaseScheduler();
+	/** Die Phase des aktuellen Zuges */
+	private PhaseScheduler.Phase phase = PhaseScheduler.Phase.OPENING;
+
+	/** Nach so vielen Millisekunden sendet der {@link SafetyTimer} einen Move */
+	static final long DEADLINE_MILLIS = 800;
+	/** So tief muss die Suche vollständig gekommen sein, damit ihr Move zählt */
+	static final int MIN_SEARCH_DEPTH = 2;
+	/** So viele Antworten durchsucht die Suche mit Gegnermodell, wenn nichts angegeben ist */
+	public static final int DEFAULT_REPLIES = 8;
+
+	/** Die Art des Gegnermodells neuer Logiken oder null */
+	private static volatile OpponentModel.Type defaultModel;
+	private static volatile int defaultReplies = DEFAULT_REPLIES;
 
 	private static final Logger log = LoggerFactory.getLogger(Logic.class);
 
@@ -72,7 +121,103 @@ public class Logic implements IGameHandler {
 	 *               kommuniziert.
 	 */
 	public Logic(Starter client) {
-		this.client = client;
+		this(client, null);
+	}
+
+	/**
+	 * Erzeugt ein neues Strategieobjekt, dessen Züge auf dem übergebenen Executor
+	 * berechnet werden. So können sich mehrere Spiele in einer JVM einen
+	 * begrenzten Thread-Pool teilen.
+	 *
+	 * @param client         Der zugrundeliegende Client, der mit dem Spielserver
+	 *                       kommuniziert.
+	 * @param searchExecutor Der Executor für die Berechnung oder null, um im
+	 *                       Empfangsthread zu rechnen.
+	 */
+	public Logic(Starter client, Executor searchExecutor) {
+		this(client, searchExecutor, null);
+	}
+
+	/**
+	 * Erzeugt ein neues Strategieobjekt, das Stellungen mit dem übergebenen Netz
+	 * bewertet.
+	 *
+	 * @param client         Der zugrundeliegende Client, der mit dem Spielserver
+	 *                       kommuniziert.
+	 * @param searchExecutor Der Executor für die Berechnung oder null, um im
+	 *                       Empfangsthread zu rechnen.
+	 * @param weights        Die Gewichte des Netzes oder null für die Differenz der
+	 *                       Punkte.
+	 */
+	public Logic(Starter client, Executor searchExecutor, NnueWeights weights) {
+		this(client, searchExecutor, weights, null);
+	}
+
+	/**
+	 * Erzeugt ein neues Strategieobjekt, das im Endspiel die übergebenen
+	 * Endspieldatenbanken fragt.
+	 *
+	 * @param client         Der zugrundeliegende Client, der mit dem Spielserver
+	 *                       kommuniziert.
+	 * @param searchExecutor Der Executor für die Berechnung oder null, um im
+	 *                       Empfangsthread zu rechnen.
+	 * @param weights        Die Gewichte des Netzes oder null für die Differenz der
+	 *                       Punkte.
+	 * @param tablebases     Die Endspieldatenbanken oder null
+	 */
+	public Logic(Starter client, Executor searchExecutor, NnueWeights weights, TablebaseSet tablebases) {
+		this(move -> client.sendMove(move), searchExecutor, weights, tablebases);
+	}
+
+	/**
+	 * Erzeugt ein neues Strategieobjekt, das seine Moves an den übergebenen
+	 * Empfänger statt an einen Server gibt, etwa um Stellungen ohne Server zu
+	 * prüfen.
+	 *
+	 * @param sender         Bekommt je Anfrage genau einen geprüften Move
+	 * @param searchExecutor Der Executor für die Berechnung oder null, um im
+	 *                       Empfangsthread zu rechnen.
+	 * @param weights        Die Gewichte des Netzes oder null für die Differenz der
+	 *                       Punkte.
+	 * @param tablebases     Die Endspieldatenbanken oder null
+	 */
+	public Logic(Consumer<Move> sender, Executor searchExecutor, NnueWeights weights, TablebaseSet tablebases) {
+		this.commit = new MoveCommit(move -> sender.accept(checkMove(move)));
+		this.searchExecutor = searchExecutor;
+		this.tablebases = tablebases;
+		this.search = new Search(weights == null ? new PointsEvaluator() : new NnueEvaluator(weights));
+		// jedes Spiel bekommt ein eigenes Modell, es lernt nur diesen Gegner
+		OpponentModel.Type model = defaultModel;
+		if (model != null)
+			search.setOpponentModel(model.create(), defaultReplies);
+		// die Tabelle nach dem Speicherbudget gleich anlegen, nicht erst im ersten
+		// Zug mit Suche
+		search.getTranspositionTable();
+		ParallelAnalysis shared = ParallelAnalysis.getShared();
+		this.parallel = shared != null && shared.uses(weights) ? shared : null;
+	}
+
+	/**
+	 * Legt das Gegnermodell für alle danach erzeugten Logiken fest, siehe
+	 * {@link Search#setOpponentModel(OpponentModel, int)}.
+	 *
+	 * @param model   Die Art des Modells oder null für die volle Suche
+	 * @param replies So viele Antworten durchsucht die Suche höchstens
+	 */
+	public static void setDefaultOpponentModel(OpponentModel.Type model, int replies) {
+		if (model != null && replies < 1)
+			throw new IllegalArgumentException("Mindestens eine Antwort: " + replies);
+		defaultModel = model;
+		defaultReplies = replies;
+	}
+
+	/** Die Art des Gegnermodells neuer Logiken oder null */
+	public static OpponentModel.Type getDefaultOpponentModel() {
+		return defaultModel;
+	}
+
+	public static int getDefaultReplies() {
+		return defaultReplies;
 	}
 
 	/**
@@ -80,6 +225,12 @@ public class Logic implements IGameHandler {
 	 */
 	public void gameEnded(GameResult data, PlayerColor color, String errorMessage) {
 		log.info("Das Spiel ist beendet.");
+		log.info("Züge: {}", commit);
+		log.info("Phasen: {}", phases);
+		gcWindow.close();
+		log.info("Speicher im Spiel: {}", gcWindow);
+		if (FastDecoding.isInstalled())
+			log.info("Dekodieren: {}", FastDecoding.getStats());
 	}
 
 	/**
@@ -89,31 +240,75 @@ public class Logic implements IGameHandler {
 	public void onRequestAction() {
 		long startTime = System.currentTimeMillis();
 		log.info("Es wurde ein Zug angefordert.");
-		alreadySend = false;
-		possibleMoves = GameRuleLogic.getPossibleMoves(gameState); // (I)
-		SafetyTimer safetyTimer = new SafetyTimer();
+		long round = commit.open(System.nanoTime() + DEADLINE_MILLIS * 1000000);
+		// die Berechnung bekommt den Spielstand dieser Anfrage, die Felder ersetzt
+		// schon das nächste Update, wenn sie lange im Pool wartet
+		GameState state = gameState;
+		BitBoard position = board;
+		ArrayList<Move> possibleMoves = GameRuleLogic.getPossibleMoves(state); // (I)
+		// Der Timer läuft ab der Anfrage, auch wenn die Berechnung noch wartet. Er
+		// bekommt eine eigene Kopie der Moves, weil die Berechnung die Liste kürzt.
+		SafetyTimer safetyTimer = new SafetyTimer(round, new ArrayList<Move>(possibleMoves));
 		safetyTimer.start();
+		Runnable task = () -> {
+			synchronized (computeLock) {
+				// der letzte Move im Spielstand ist der des Gegners, ein lernendes
+				// Gegnermodell zählt ihn
+				Move last = state.getLastMove();
+				OpponentModel model = search.getOpponentModel();
+				if (model != null && last != null)
+					model.observe(last);
+				// der Watchdog hat schon gesendet und die nächste Anfrage läuft
+				if (commit.round() != round)
+					return;
+				computeMove(state, position, possibleMoves, startTime, round, safetyTimer);
+			}
+		};
+		if (searchExecutor == null)
+			task.run();
+		else
+			searchExecutor.execute(task);
+	}
+
+	/**
+	 * Berechnet den Zug zur Anfrage mit der übergebenen Nummer nach der oben
+	 * beschriebenen Taktik und bietet ihn an. Läuft nur mit {@link #computeLock}.
+	 *
+	 * @param state         Der Spielstand der Anfrage
+	 * @param board         Derselbe Spielstand als BitBoard
+	 * @param possibleMoves Alle möglichen Moves, die Liste wird gekürzt
+	 */
+	private void computeMove(GameState state, BitBoard board, ArrayList<Move> possibleMoves, long startTime,
+			long round, SafetyTimer safetyTimer) {
+		allocationMeter.start();
+		phase = PhaseScheduler.phase(board);
+		log.info("Phase: {}", phase.label);
 		// Wenn es nur einen Move gibt, dann mache keine weiteren Berechnungen! (II)
 		if (possibleMoves.size() == 1) {
-			sendAction(possibleMoves.get(0));
+			commit(round, possibleMoves.get(0), MoveCommit.Source.ONLY_MOVE);
 			printEndTime(startTime);
 			safetyTimer.interrupt();
 			return;
 		}
 
-		possibleMoves = getValidMoves(gameState, possibleMoves); // (III)
+		// Jeder Move wird genau einmal ausgeführt, alle weiteren Schritte nutzen die
+		// Ergebnisse
+		ArrayList<RootMove> rootMoves = parallel != null ? parallel.analyse(board, possibleMoves)
+				: RootAnalysis.analyse(board, possibleMoves);
+		rootMoves = getValidMoves(rootMoves); // (III)
+		possibleMoves = toMoves(rootMoves);
 
 		// Wenn es keinen Move gibt, dann mache keine weiteren Berechnungen! (IV)
-		if (possibleMoves.size() == 0) {
-			sendAction(GameRuleLogic.getPossibleMoves(gameState).get(0));
+		if (rootMoves.size() == 0) {
+			commit(round, GameRuleLogic.getPossibleMoves(state).get(0), MoveCommit.Source.FORCED);
 			log.info(
 					"Alle Moves wurde als \"loosing\" Move eingestuft und erzwingen ein verlieren. Infolgedessen ist eine Niederlage unvermeintlich und der erstmögliche Move wird gesendet!");
 			printEndTime(startTime);
 			safetyTimer.interrupt();
 			return;
-		} else if (possibleMoves.size() == 1) {
+		} else if (rootMoves.size() == 1) {
 			// es gibt nur einen mögliche Move, wir können nur diesen ausführen.
-			sendAction(possibleMoves.get(0));
+			commit(round, rootMoves.get(0).move, MoveCommit.Source.FORCED);
 			log.info("Nur dieser Move kann die Niederlage noch verhindern!");
 			printEndTime(startTime);
 			safetyTimer.interrupt();
@@ -121,42 +316,128 @@ public class Logic implements IGameHandler {
 		}
 
 		// Checke, ob es einen Move gibt, der uns gewinnen lässt. (V)
-		if (performWinningMove(possibleMoves)) {
+		if (performWinningMove(round, rootMoves) || performTablebaseWin(round, rootMoves)) {
+			printEndTime(startTime);
 			safetyTimer.interrupt();
 			return;
 		}
 
+		// nach der Eröffnung wählt die Suche, solange ihr Move sicher ist (VI)
+		if (phase.usesSearch()) {
+			RootMove m = searchMove(board, rootMoves, startTime);
+			if (m != null) {
+				commit(round, m.move, MoveCommit.Source.SEARCH);
+				printEndTime(startTime);
+				safetyTimer.interrupt();
+				return;
+			}
+		}
+
+		// bewerte die Stellungen erst, wenn kein Fressen mehr ansteht (VI)
+		scoreQuiet(rootMoves);
+
 		// suche den bestmöglichen Move nach bestimmten Kriterien aus (VI)
-		Move m = null;
+		RootMove m = null;
 		do {
-			m = getWeightedMove(possibleMoves);
-			possibleMoves.remove(m);
-		} while (combinedSwarm(m) && possibleMoves.size() > 1);
+			m = getWeightedMove(rootMoves);
+			rootMoves.remove(m);
+			possibleMoves.remove(m.move);
+		} while (combinedSwarm(m) && rootMoves.size() > 1);
 
-		sendAction(m);
+		commit(round, m.move, MoveCommit.Source.SEARCH);
 		printEndTime(startTime);
 		safetyTimer.interrupt();
 	}
 
-	private boolean performWinningMove(ArrayList<Move> moves) {
-		GameState gs;
-		for (Move m : moves) {
-			try {
-				gs = gameState.clone();
-				m.perform(gs);
-				if (isWinning(gs, currentPlayer.getColor())) {
-					sendAction(m);
-					return true;
-				}
-			} catch (InvalidMoveException | InvalidGameStateException e) {
-				e.printStackTrace();
+	private boolean performWinningMove(long round, ArrayList<RootMove> moves) {
+		for (RootMove m : moves) {
+			if (m.winning) {
+				commit(round, m.move, MoveCommit.Source.WIN);
+				return true;
 			}
 		}
 		return false;
 	}
 
-	private boolean isWinning(GameState gs, PlayerColor pc) {
-		return gs.getPointsForPlayer(pc) == countFishsOfPlayer(gs, pc);
+	/**
+	 * Sucht die Stellungen nach jedem Move in der Endspieldatenbank und spielt
+	 * den schnellsten erzwungenen Sieg, wenn er vor dem Rundenlimit endet.
+	 */
+	private boolean performTablebaseWin(long round, ArrayList<RootMove> moves) {
+		if (tablebases == null)
+			return false;
+		RootMove best = null;
+		int bestDistance = Integer.MAX_VALUE;
+		for (RootMove m : moves) {
+			int value = tablebases.probe(m.after);
+			// der Gegner ist am Zug und verliert
+			if (value == Tablebase.NOT_FOUND || Tablebase.result(value) >= 0)
+				continue;
+			int distance = Tablebase.distance(value);
+			if (distance < bestDistance && m.after.turn() + distance <= Constants.ROUND_LIMIT * 2) {
+				best = m;
+				bestDistance = distance;
+			}
+		}
+		if (best == null)
+			return false;
+		log.info("Endspieldatenbank: Sieg in {} Halbzügen.", bestDistance + 1);
+		commit(round, best.move, MoveCommit.Source.TABLEBASE);
+		return true;
+	}
+
+	/**
+	 * Sucht mit iterativer Vertiefung, bis die Zeit der Phase ab der Anfrage
+	 * abgelaufen ist. Erst ab {@link #MIN_SEARCH_DEPTH} sieht die Suche die
+	 * Antwort des Gegners, davor entscheidet wie in der Eröffnung die Bewertung
+	 * mit ihren Filtern.
+	 *
+	 * @return Der Move der Suche oder null, wenn keine Zeit mehr bleibt, die
+	 *         Suche nicht tief genug kam oder der Move in (III) aussortiert wurde
+	 *         bzw. dem Gegner einen vereinten Schwarm ermöglicht
+	 */
+	private RootMove searchMove(BitBoard board, ArrayList<RootMove> rootMoves, long startTime) {
+		long millis = phase.getMillis() - (System.currentTimeMillis() - startTime);
+		if (millis <= 0)
+			return null;
+		SearchResult result = search.iterate(board, Search.MAX_PLY, millis);
+		log.info("Suche: {}", result);
+		if (result == null || result.getDepth() < MIN_SEARCH_DEPTH)
+			return null;
+		for (RootMove m : rootMoves) {
+			if (m.encoded != result.getEncodedMove())
+				continue;
+			if (!m.opponentThreat)
+				return m;
+			log.info("Der Move der Suche lässt den Gegner seinen Schwarm vereinen, die Bewertung entscheidet.");
+			return null;
+		}
+		log.info("Der Move der Suche lässt den Gegner gewinnen, die Bewertung entscheidet.");
+		return null;
+	}
+
+	/**
+	 * Bewertet die Stellung nach jedem Move mit der Ruhesuche. Direkt nach einem
+	 * Fressen kann der nächste Move die Punkte komplett umdrehen, daher werden
+	 * fressende und schwarmvereinende Antworten so lange verfolgt, bis die
+	 * Stellung ruhig ist.
+	 */
+	private void scoreQuiet(ArrayList<RootMove> moves) {
+		if (parallel != null) {
+			parallel.quiesce(moves);
+		} else {
+			search.getStats().reset();
+			for (RootMove m : moves)
+				m.score = -search.quiesce(m.after);
+			log.info("Ruhesuche: {}", search.getStats());
+		}
+	}
+
+	private ArrayList<Move> toMoves(ArrayList<RootMove> rootMoves) {
+		ArrayList<Move> moves = new ArrayList<Move>(rootMoves.size());
+		for (RootMove m : rootMoves)
+			moves.add(m.move);
+		return moves;
 	}
 
 	/**
@@ -170,21 +451,14 @@ public class Logic implements IGameHandler {
 	 *         werden wird der erste Move zurückgegeben.
 	 */
 	@SuppressWarnings("unused")
-	private Move getBestMove(ArrayList<Move> possibleMoves) {
+	private RootMove getBestMove(ArrayList<RootMove> possibleMoves) {
 		int bestPoints = 0;
-		Move bestMove = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
+		RootMove bestMove = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
 
-		for (Move m : possibleMoves) {
-			GameState gs = gameState.clone();
-			try {
-				m.perform(gs);
-				int points = gs.getPointsForPlayer(currentPlayer.getColor());
-				if (points > bestPoints) {
-					bestPoints = points;
-					bestMove = m;
-				}
-			} catch (InvalidGameStateException | InvalidMoveException e) {
-				log.info("Es ist ein Fehler in der Funktion \"getBestMove()\" aufgetreten.");
+		for (RootMove m : possibleMoves) {
+			if (m.ownPoints > bestPoints) {
+				bestPoints = m.ownPoints;
+				bestMove = m;
 			}
 		}
 		return bestMove;
@@ -201,22 +475,14 @@ public class Logic implements IGameHandler {
 	 * @return
 	 */
 	@SuppressWarnings("unused")
-	private Move getBestDestructiveMove(ArrayList<Move> possibleMoves) {
+	private RootMove getBestDestructiveMove(ArrayList<RootMove> possibleMoves) {
 		int smallestPoints = 100;
-		Move bestMove = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
+		RootMove bestMove = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
 
-		for (Move m : possibleMoves) {
-			GameState gs = gameState.clone();
-			try {
-				m.perform(gs);
-				int points = gs.getPointsForPlayer(
-						currentPlayer.getColor() == PlayerColor.BLUE ? PlayerColor.RED : PlayerColor.BLUE);
-				if (points < smallestPoints) {
-					smallestPoints = points;
-					bestMove = m;
-				}
-			} catch (InvalidGameStateException | InvalidMoveException e) {
-				log.info("Es ist ein Fehler in der Funktion \"getBestMove()\" aufgetreten.");
+		for (RootMove m : possibleMoves) {
+			if (m.opponentPoints < smallestPoints) {
+				smallestPoints = m.opponentPoints;
+				bestMove = m;
 			}
 		}
 		return bestMove;
@@ -227,25 +493,15 @@ public class Logic implements IGameHandler {
 	 * Move nicht ausführt durch diesen Move in der nächsten Runde einen
 	 * zusammenhägenden Schwarm hat. <br>
 	 * Dies bietet sich an, wenn man prüfen möchte, ob ein Move erlaubt sein sollte.
+	 * Das Ergebnis wurde bereits in der {@link RootAnalysis} berechnet.
 	 * 
 	 * @return true, wenn es einen zusammenhängenden Schwarm gibt, false, wenn
 	 *         nicht.
 	 */
-	private boolean combinedSwarm(Move move) {
-		GameState gs = gameState.clone();
-		try {
-			move.perform(gs);
-			ArrayList<Move> moves = GameRuleLogic.getPossibleMoves(gs);
-			for (Move m : moves) {
-				GameState gs_ = gs.clone();
-				m.perform(gs_);
-				if (isWinning(gs_, gs.getCurrentPlayerColor())) {
-					log.info("Oh oh! Der Move würde dem Gegner einen Sieg ermöglichen!");
-					return true;
-				}
-			}
-		} catch (InvalidGameStateException | InvalidMoveException e) {
-			e.printStackTrace();
+	private boolean combinedSwarm(RootMove move) {
+		if (move.opponentThreat) {
+			log.info("Oh oh! Der Move würde dem Gegner einen Sieg ermöglichen!");
+			return true;
 		}
 		log.info("Dieser Move scheint ok zu sein!");
 		return false;
@@ -302,31 +558,19 @@ public class Logic implements IGameHandler {
 	 * @return
 	 */
 
-	private Move getWeightedMove(ArrayList<Move> possibleMoves) {
-		int difference = -100;
-		// wenn die if-Abfrage mit absoluten Zahlen genutzt wird, dann muss die
-		// Differenz am Anfang auf +100 gesetzt werden!
-
-		// Am Anfang wird ein zufälliger Move ausgewählt. Wenn es keinen besseren Move
-		// gibt, dann ist der Algorithmus nicht vorersehbar
-		Move move = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
-
-		for (Move m : possibleMoves) {
-			GameState gs = gameState.clone();
-			try {
-				m.perform(gs);
-
-				int myPoints = gs.getPointsForPlayer(currentPlayer.getColor());
-				int opponentPoints = gs.getPointsForPlayer(
-						currentPlayer.getColor() == PlayerColor.BLUE ? PlayerColor.RED : PlayerColor.BLUE);
-				int diff = myPoints - opponentPoints;
-				if (diff > difference) {
-					difference = diff;
-					move = m;
-				}
-
-			} catch (InvalidGameStateException | InvalidMoveException e) {
-				e.printStackTrace();
+	private RootMove getWeightedMove(ArrayList<RootMove> possibleMoves) {
+		int score = Integer.MIN_VALUE;
+		RootMove move = null;
+
+		// die Bewertung der Ruhesuche statt der reinen Differenz der Punkte, in der
+		// Eröffnung zusätzlich der Weg zur Mitte. Bei Gleichstand entscheidet der
+		// kleinere kodierte Move, so wählt die Logik mit und ohne ParallelAnalysis
+		// denselben Move.
+		for (RootMove m : possibleMoves) {
+			int value = m.score + phase.getCentreWeight() * PhaseScheduler.centreGain(m.encoded);
+			if (move == null || value > score || value == score && m.encoded < move.encoded) {
+				score = value;
+				move = m;
 			}
 		}
 
@@ -334,29 +578,18 @@ public class Logic implements IGameHandler {
 	}
 
 	@SuppressWarnings("unused")
-	private Move getWeightedMoveBackup(ArrayList<Move> possibleMoves) {
+	private RootMove getWeightedMoveBackup(ArrayList<RootMove> possibleMoves) {
 		int difference = -100;
 		// wenn die if-Abfrage mit absoluten Zahlen genutzt wird, dann muss die
 		// Differenz am Anfang auf +100 gesetzt werden!
-		Move move = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
-
-		for (Move m : possibleMoves) {
-			GameState gs = gameState.clone();
-			try {
-				m.perform(gs);
-
-				int myPoints = gs.getPointsForPlayer(currentPlayer.getColor());
-				int opponentPoints = gs.getPointsForPlayer(
-						currentPlayer.getColor() == PlayerColor.BLUE ? PlayerColor.RED : PlayerColor.BLUE);
-				int diff = myPoints - opponentPoints;
-				// if (Math.abs(diff) < difference) { // ist das vielleicht sogar besser?
-				if (diff > difference) {
-					difference = diff;
-					move = m;
-				}
-
-			} catch (InvalidGameStateException | InvalidMoveException e) {
-				e.printStackTrace();
+		RootMove move = possibleMoves.get((int) (Math.random() * possibleMoves.size()));
+
+		for (RootMove m : possibleMoves) {
+			int diff = m.getDifference();
+			// if (Math.abs(diff) < difference) { // ist das vielleicht sogar besser?
+			if (diff > difference) {
+				difference = diff;
+				move = m;
 			}
 		}
 
@@ -374,6 +607,9 @@ public class Logic implements IGameHandler {
 		long duration = endTime - startTime;
 		System.out.println("Das Programm hat " + (double) duration / 1000.0 + " Sekunden (" + duration
 				+ " Millisekunden) gedauert!");
+		phases.record(phase, duration);
+		allocationMeter.stop();
+		log.info("Speicher in diesem Zug: {}", allocationMeter);
 	}
 
 	/**
@@ -381,25 +617,16 @@ public class Logic implements IGameHandler {
 	 * Das bedeutet, es werden alle Moves herausgefiltert, einen Sieg für den Gegner
 	 * ermöglichen. Dies sind beispielsweise Moves, die einen Fisch des Gegners
 	 * auffressen und somit einen zusammenhängenden Schwarm des Gegners
-	 * zurücklassen, was uns sofort verlieren lassen würde.
+	 * zurücklassen, was uns am Ende der Runde verlieren lassen würde.
 	 * 
-	 * @param gs    Der aktuelle GameState
-	 * @param moves Eine Liste an Moves, die zu überprüfen sind
+	 * @param moves Die analysierten Moves, die zu überprüfen sind
 	 * @return eine Liste an übrigen Moves.
 	 */
-	ArrayList<Move> getValidMoves(GameState gs, ArrayList<Move> moves) {
-		ArrayList<Move> tmp = new ArrayList<Move>();
-		GameState gsCopy;
-		PlayerColor opposite = gs.getOtherPlayerColor();
-		for (Move m : moves) {
-			try {
-				gsCopy = gs.clone();
-				m.perform(gsCopy);
-				if (!isWinning(gsCopy, opposite))
-					tmp.add(m);
-			} catch (InvalidMoveException | InvalidGameStateException e) {
-				e.printStackTrace();
-			}
+	ArrayList<RootMove> getValidMoves(ArrayList<RootMove> moves) {
+		ArrayList<RootMove> tmp = new ArrayList<RootMove>();
+		for (RootMove m : moves) {
+			if (!m.losing)
+				tmp.add(m);
 		}
 
 		return tmp;
@@ -420,8 +647,8 @@ public class Logic implements IGameHandler {
 		int points = -1;
 		int index = 0;
 		for (int i = 0; i < moves.size(); i++) {
+			GameState copy = statePool.acquire(gs);
 			try {
-				GameState copy = gs.clone();
 				Move m = moves.get(i);
 				m.perform(copy);
 				int ps = copy.getPointsForPlayer(pc);
@@ -431,6 +658,8 @@ public class Logic implements IGameHandler {
 				}
 			} catch (InvalidGameStateException | InvalidMoveException e) {
 				e.printStackTrace();
+			} finally {
+				statePool.release(copy);
 			}
 		}
 
@@ -447,11 +676,10 @@ public class Logic implements IGameHandler {
 	 */
 	int countFishsOfPlayer(GameState gameState, PlayerColor playercolor) {
 		int counter = 0;
-		GameState copy = gameState.clone();
 		for (int i = 0; i < 10; i++) {
 			for (int j = 0; j < 10; j++) {
-				if (copy.getField(i, j).getPiranha().isPresent()
-						&& copy.getField(i, j).getPiranha().get() == playercolor)
+				if (gameState.getField(i, j).getPiranha().isPresent()
+						&& gameState.getField(i, j).getPiranha().get() == playercolor)
 					counter++;
 			}
 		}
@@ -473,43 +701,92 @@ public class Logic implements IGameHandler {
 	@Override
 	public void onUpdate(GameState gameState) {
 		this.gameState = gameState;
+		// wurde der Spielstand schon beim Empfangen als BitBoard gelesen, muss er
+		// nicht erneut umgewandelt werden
+		BitBoard decoded = FastDecoding.takeDecoded();
+		board = decoded != null ? decoded : BitBoard.of(gameState);
 		currentPlayer = gameState.getCurrentPlayer();
 		log.info("Zug: {} Spieler: {}", gameState.getTurn(), currentPlayer.getColor());
 	}
 
 	/**
-	 * Diese Methode sendet den übergebenen Move. Dabei wird nur beim ersten
-	 * aufrufen der Funktion auch wirklich ein Move gesendet, andernfalls wird kein
-	 * Move mehr gesendet. Dies liegt darin begründet, dass pro Request nur ein Move
-	 * versendet werden darf. Werden mehrere Moves pro Request versendet, so hat man
-	 * verloren, da man nicht am Zug ist. Dies gilt es hiermit zu vermeiden.
+	 * Diese Methode sendet den übergebenen Move zur aktuellen Anfrage. Dabei wird
+	 * nur beim ersten Aufruf je Anfrage auch wirklich ein Move gesendet,
+	 * andernfalls wird kein Move mehr gesendet. Dies liegt darin begründet, dass
+	 * pro Request nur ein Move versendet werden darf. Werden mehrere Moves pro
+	 * Request versendet, so hat man verloren, da man nicht am Zug ist. Dies gilt
+	 * es hiermit zu vermeiden. <br>
+	 * Vor dem Senden wird der Move auf einer Kopie aus dem {@link GameStatePool}
+	 * ausgeführt, damit kein ungültiger Move beim Server ankommt. <br>
+	 * Die Berechnung selbst nutzt {@link #commit(long, Move, MoveCommit.Source)},
+	 * damit ein verspäteter Move nie zur nächsten Anfrage gesendet wird.
 	 */
 	@Override
 	public void sendAction(Move move) {
-		if (!alreadySend) {
-			client.sendMove(move);
-			alreadySend = true;
+		commit(commit.round(), move, MoveCommit.Source.SEARCH);
+	}
+
+	/**
+	 * Bietet den Move für die Anfrage mit der übergebenen Nummer an, siehe
+	 * {@link MoveCommit}.
+	 *
+	 * @return true, wenn genau dieser Move gesendet wurde
+	 */
+	private boolean commit(long round, Move move, MoveCommit.Source source) {
+		if (!commit.offer(round, move, source))
+			return false;
+		log.info("Move gesendet: {} ({}, {} ms vor der Frist)",
+				new Object[] { move, source.label, commit.getLastMargin() });
+		return true;
+	}
+
+	/**
+	 * Prüft den Move auf einer Kopie des aktuellen GameStates. Ist er ungültig,
+	 * wird stattdessen der erste mögliche Move zurückgegeben.
+	 */
+	private Move checkMove(Move move) {
+		GameState copy = statePool.acquire(gameState);
+		try {
+			move.perform(copy);
+			return move;
+		} catch (InvalidMoveException | InvalidGameStateException e) {
+			log.info("Der Move " + move + " ist ungültig und wird ersetzt!", e);
+			return GameRuleLogic.getPossibleMoves(gameState).get(0);
+		} finally {
+			statePool.release(copy);
 		}
 	}
 
 	/**
 	 * Diese Klasse dient einem vorzeitigen Abbruch des Programms, falls aus
 	 * irgendeinem unerfindlichen Grund in der maximal möglichen Zeit noch kein Move
-	 * gesendet wurde.
+	 * gesendet wurde. Ein Timer, der zu spät aufwacht, kann keinen Move mehr zur
+	 * nächsten Anfrage senden, weil er die Nummer seiner Anfrage mitgibt.
 	 * 
 	 * @author JayPi4c
 	 */
 	class SafetyTimer extends Thread {
+
+		private final long round;
+		private final ArrayList<Move> moves;
+
+		SafetyTimer(long round, ArrayList<Move> moves) {
+			this.round = round;
+			this.moves = moves;
+			setDaemon(true);
+		}
+
 		@Override
 		public void run() {
 			try {
-				Thread.sleep(800);
-				sendAction(possibleMoves.get((int) (Math.random() * possibleMoves.size())));
-				log.info(
-						"Es wurde vorzeitig abgebrochen und ein zufälliger Move ausgewählt, da sonst die Zeit überschritten werden würde.");
+				Thread.sleep(DEADLINE_MILLIS);
 			} catch (InterruptedException e) {
-				e.printStackTrace();
+				// der Move wurde rechtzeitig gesendet
+				return;
 			}
+			if (commit(round, moves.get((int) (Math.random() * moves.size())), MoveCommit.Source.WATCHDOG))
+				log.info(
+						"Es wurde vorzeitig abgebrochen und ein zufälliger Move ausgewählt, da sonst die Zeit überschritten werden würde.");
 		}
 	}
 
@@ -0,0 +1,144 @@
+package sc.player2019.logic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import sc.plugin2019.Move;
+
+/**
+ * Sorgt dafür, dass zu jeder Anfrage des Servers genau ein Move gesendet wird,
+ * egal wie viele Threads einen anbieten. <br>
+ * Jede Anfrage beginnt mit {@link #open(long)} und bekommt eine neue Nummer.
+ * Wer einen Move anbietet, gibt die Nummer der Anfrage mit, zu der er gehört;
+ * der erste, der den Zustand von "offen" auf "gesendet" umschaltet, sendet,
+ * alle anderen werden verworfen. Ein Watchdog, der erst nach dem Ende der
+ * Anfrage aufwacht, oder eine Suche, die noch an der vorigen Anfrage rechnet,
+ * kann so nie einen zweiten Move senden, auch nicht zur nächsten Anfrage. <br>
+ * Für jeden gesendeten Move wird festgehalten, von welcher {@link Source} er
+ * kam und wie viele Millisekunden vor Ablauf der Frist er gesendet wurde.
+ */
+public final class MoveCommit {
+
+	/** Woher ein gesendeter Move kam */
+	public enum Source {
+		/** Es gab nur einen möglichen Move */
+		ONLY_MOVE("einziger Zug"),
+		/** Alle Moves verlieren oder nur einer verhindert die Niederlage */
+		FORCED("erzwungen"),
+		/** Der Move gewinnt nach den Regeln des Servers, egal was der Gegner antwortet */
+		WIN("Sieg"),
+		/** Erzwungener Sieg aus der Endspieldatenbank */
+		TABLEBASE("Endspieldatenbank"),
+		/** Das Ergebnis der Bewertung oder Suche */
+		SEARCH("Suche"),
+		/** Die Frist ist abgelaufen */
+		WATCHDOG("Watchdog");
+
+		final String label;
+
+		Source(String label) {
+			this.label = label;
+		}
+	}
+
+	/** Nummer der Anfrage mal zwei, plus eins, sobald gesendet wurde */
+	private final AtomicLong state = new AtomicLong(1);
+	private final Consumer<Move> sender;
+	private volatile long deadline;
+
+	private final long[] wins = new long[Source.values().length];
+	private final long[] marginSum = new long[wins.length];
+	private final long[] minMargin = new long[wins.length];
+	private long rejected;
+	private long lastMargin;
+
+	/**
+	 * @param sender Sendet den Move an den Server, wird je Anfrage höchstens
+	 *               einmal aufgerufen
+	 */
+	public MoveCommit(Consumer<Move> sender) {
+		this.sender = sender;
+		Arrays.fill(minMargin, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Beginnt eine neue Anfrage. Moves zu früheren Anfragen werden ab jetzt
+	 * verworfen.
+	 *
+	 * @param deadline Die Frist als {@link System#nanoTime()}
+	 * @return Die Nummer der Anfrage für {@link #offer(long, Move, Source)}
+	 */
+	public long open(long deadline) {
+		this.deadline = deadline;
+		long round = (state.get() >>> 1) + 1;
+		state.set(round << 1);
+		return round;
+	}
+
+	/** Die Nummer der aktuellen Anfrage */
+	public long round() {
+		return state.get() >>> 1;
+	}
+
+	/** Ob zur aktuellen Anfrage schon ein Move gesendet wurde */
+	public boolean isCommitted() {
+		return (state.get() & 1) != 0;
+	}
+
+	/**
+	 * Sendet den Move, wenn zur Anfrage noch keiner gesendet wurde und sie noch
+	 * die aktuelle ist.
+	 *
+	 * @return true, wenn genau dieser Move gesendet wurde
+	 */
+	public boolean offer(long round, Move move, Source source) {
+		if (!state.compareAndSet(round << 1, round << 1 | 1)) {
+			synchronized (this) {
+				rejected++;
+			}
+			return false;
+		}
+		long margin = (deadline - System.nanoTime()) / 1000000;
+		sender.accept(move);
+		synchronized (this) {
+			int i = source.ordinal();
+			wins[i]++;
+			marginSum[i] += margin;
+			minMargin[i] = Math.min(minMargin[i], margin);
+			lastMargin = margin;
+		}
+		return true;
+	}
+
+	/** Millisekunden zwischen dem letzten gesendeten Move und seiner Frist */
+	public synchronized long getLastMargin() {
+		return lastMargin;
+	}
+
+	/** Anzahl der gesendeten Moves aus der Quelle */
+	public synchronized long getWins(Source source) {
+		return wins[source.ordinal()];
+	}
+
+	/** Anzahl der verworfenen Angebote */
+	public synchronized long getRejected() {
+		return rejected;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		long total = 0;
+		for (Source source : Source.values()) {
+			int i = source.ordinal();
+			if (wins[i] == 0)
+				continue;
+			total += wins[i];
+			sb.append(", ").append(source.label).append(' ').append(wins[i]).append(" (Ø ")
+					.append(marginSum[i] / wins[i]).append(" ms, min ").append(minMargin[i]).append(" ms vor der Frist)");
+		}
+		return total + " Moves gesendet" + sb + ", " + rejected + " verworfen";
+	}
+
+}
@@ -0,0 +1,159 @@
+package sc.player2019.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.PointsEvaluator;
+import sc.player2019.logic.search.Search;
+import sc.plugin2019.Move;
+
+/**
+ * Verteilt die Schritte der {@link Logic}, die jeden Move für sich betrachten,
+ * auf einen {@link ForkJoinPool} mit fester Anzahl Threads: die
+ * {@link RootAnalysis} (Ausführen, Sieg, Niederlage, Drohung des Gegners) und
+ * die Ruhesuche nach jedem Move. <br>
+ * Jeder Thread arbeitet auf eigenen Kopien: Die Stellung nach dem Move legt
+ * die {@link RootAnalysis} ohnehin neu an, und jeder Thread hat einen eigenen
+ * Puffer und eine eigene {@link Search} mit eigener Bewertung. Geteilt wird
+ * nur die Stellung vor dem Move, die nur gelesen wird. Jeder Move schreibt sein
+ * Ergebnis an seinen festen Platz, so ist die Reihenfolge dieselbe wie ohne
+ * Threads und die Logik wählt denselben Move. <br>
+ * Unter {@link #MIN_MOVES} Moves lohnt das Verteilen nicht, dann wird im
+ * aufrufenden Thread gerechnet. Ein Objekt kann von allen Spielen einer JVM
+ * geteilt werden ({@link #getShared()}), die Spiele teilen sich dann die
+ * Threads.
+ */
+public final class ParallelAnalysis {
+
+	/** Ab so vielen Moves wird verteilt */
+	public static final int MIN_MOVES = 8;
+	/** So viele Teile je Thread, damit ungleich teure Moves sich ausgleichen */
+	static final int CHUNKS_PER_THREAD = 4;
+
+	private static volatile ParallelAnalysis shared;
+
+	private final ForkJoinPool pool;
+	private final NnueWeights weights;
+	private final ThreadLocal<Search> searches;
+	private final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[BitBoard.MAX_MOVES]);
+
+	/**
+	 * @param threads Die Anzahl der Threads
+	 * @param weights Die Gewichte des Netzes oder null für die Differenz der
+	 *                Punkte, wie in der {@link Logic}
+	 */
+	public ParallelAnalysis(int threads, NnueWeights weights) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Mindestens ein Thread: " + threads);
+		this.pool = new ForkJoinPool(threads);
+		this.weights = weights;
+		this.searches = ThreadLocal
+				.withInitial(() -> new Search(weights == null ? new PointsEvaluator() : new NnueEvaluator(weights)));
+	}
+
+	/** Die Verteilung, die neue Logiken nutzen, oder null */
+	public static ParallelAnalysis getShared() {
+		return shared;
+	}
+
+	/**
+	 * Setzt die Verteilung für alle danach erzeugten Logiken mit denselben
+	 * Gewichten.
+	 */
+	public static void setShared(ParallelAnalysis analysis) {
+		shared = analysis;
+	}
+
+	/**
+	 * Wie {@link RootAnalysis#analyse(BitBoard, List)}, die Moves werden auf die
+	 * Threads verteilt.
+	 *
+	 * @return Für jeden Move ein Eintrag, in der Reihenfolge der Moves
+	 */
+	public ArrayList<RootMove> analyse(BitBoard board, List<Move> moves) {
+		if (moves.size() < MIN_MOVES)
+			return RootAnalysis.analyse(board, moves);
+		RootMove[] result = new RootMove[moves.size()];
+		run(result.length, i -> result[i] = RootAnalysis.analyse(board, moves.get(i), buffers.get()));
+		return new ArrayList<RootMove>(Arrays.asList(result));
+	}
+
+	/**
+	 * Bewertet die Stellung nach jedem Move mit der Ruhesuche aus Sicht des
+	 * Spielers, der den Move ausführt, und schreibt das Ergebnis in
+	 * {@link RootMove#score}.
+	 */
+	public void quiesce(List<RootMove> moves) {
+		if (moves.size() < MIN_MOVES) {
+			Search search = searches.get();
+			for (RootMove m : moves)
+				m.score = -search.quiesce(m.after);
+			return;
+		}
+		run(moves.size(), i -> {
+			RootMove m = moves.get(i);
+			m.score = -searches.get().quiesce(m.after);
+		});
+	}
+
+	private void run(int count, IntConsumer task) {
+		int chunk = Math.max(1, count / (pool.getParallelism() * CHUNKS_PER_THREAD));
+		pool.invoke(new Range(0, count, chunk, task));
+	}
+
+	/** Ob die Verteilung mit diesen Gewichten bewertet */
+	public boolean uses(NnueWeights weights) {
+		return this.weights == weights;
+	}
+
+	public int getThreads() {
+		return pool.getParallelism();
+	}
+
+	/** Beendet die Threads, danach darf nichts mehr verteilt werden. */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		return pool.getParallelism() + " Threads, " + pool.getStealCount() + " übernommene Teile";
+	}
+
+	/** Teilt die Moves, bis ein Teil klein genug ist */
+	private static final class Range extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int chunk;
+		private final IntConsumer task;
+
+		Range(int from, int to, int chunk, IntConsumer task) {
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+			this.task = task;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunk) {
+				for (int i = from; i < to; i++)
+					task.accept(i);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Range(from, middle, chunk, task), new Range(middle, to, chunk, task));
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package sc.player2019.logic;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Teilt das Spiel in Phasen ein und legt für jede fest, wie der Move gewählt
+ * wird und wie viel Zeit dafür da ist. <br>
+ * In der Eröffnung sind die Schwärme noch weit verstreut und eine Suche sieht
+ * kaum etwas, dort bringt die Logik ihre Fische mit wenig Zeit zur Mitte. Im
+ * Mittelspiel entscheidet eine {@link sc.player2019.logic.search.Search} mit
+ * iterativer Vertiefung. Im Endspiel, wenn das Rundenlimit nahe ist oder nur
+ * noch wenige Fische übrig sind, reicht die Suche oft bis zum Ende des Spiels
+ * und bekommt die meiste Zeit. Alle Budgets liegen unter der Frist von
+ * {@link Logic#DEADLINE_MILLIS}. <br>
+ * Der Zug zählt die Halbzüge, das Rundenlimit
+ * {@link Constants#ROUND_LIMIT} gilt je Spieler.
+ */
+public final class PhaseScheduler {
+
+	/** Bis zu diesem Halbzug dauert die Eröffnung */
+	public static final int OPENING_TURNS = 8;
+	/** So viele Halbzüge vor dem Rundenlimit beginnt das Endspiel */
+	public static final int ENDGAME_TURNS = 14;
+	/** Mit höchstens so vielen Fischen beider Farben beginnt das Endspiel */
+	public static final int ENDGAME_FISH = 12;
+
+	/** Eine Phase des Spiels mit ihrem Verfahren und ihrer Zeit */
+	public enum Phase {
+		/** Fische zur Mitte ziehen, ohne Suche */
+		OPENING("Eröffnung", false, 1, 150),
+		/** Suche mit iterativer Vertiefung */
+		MIDDLEGAME("Mittelspiel", true, 0, 400),
+		/** Suche bis zum Rundenlimit oder bis das Spiel entschieden ist */
+		ENDGAME("Endspiel", true, 0, 600);
+
+		final String label;
+		/** Ob die Suche den Move wählt, sonst die Bewertung nach (VI) */
+		final boolean search;
+		/** Gewicht eines Feldes näher an der Mitte gegenüber einem Punkt */
+		final int centreWeight;
+		/** Zeit ab der Anfrage in Millisekunden */
+		final long millis;
+
+		Phase(String label, boolean search, int centreWeight, long millis) {
+			this.label = label;
+			this.search = search;
+			this.centreWeight = centreWeight;
+			this.millis = millis;
+		}
+
+		public boolean usesSearch() {
+			return search;
+		}
+
+		public int getCentreWeight() {
+			return centreWeight;
+		}
+
+		public long getMillis() {
+			return millis;
+		}
+	}
+
+	private final long[] turns = new long[Phase.values().length];
+	private final long[] millis = new long[turns.length];
+
+	/** Die Phase der Stellung */
+	public static Phase phase(BitBoard board) {
+		if (board.turn() < OPENING_TURNS)
+			return Phase.OPENING;
+		if (board.turn() >= Constants.ROUND_LIMIT * 2 - ENDGAME_TURNS
+				|| board.countFish(BitBoard.RED) + board.countFish(BitBoard.BLUE) <= ENDGAME_FISH)
+			return Phase.ENDGAME;
+		return Phase.MIDDLEGAME;
+	}
+
+	/**
+	 * Wie viele Felder der Move den Fisch näher an die Mitte bringt, negativ,
+	 * wenn er nach außen zieht. Gemessen wird der größere Abstand der beiden
+	 * Achsen.
+	 */
+	public static int centreGain(int move) {
+		return (centreDistance(BitBoard.from(move)) - centreDistance(BitBoard.to(move))) / 2;
+	}
+
+	/** Doppelter Abstand zur Mitte, damit er ganzzahlig ist */
+	private static int centreDistance(int square) {
+		int last = BitBoard.SIZE - 1;
+		return Math.max(Math.abs(2 * BitBoard.x(square) - last), Math.abs(2 * BitBoard.y(square) - last));
+	}
+
+	/** Hält fest, dass ein Zug in der Phase so lange gedauert hat. */
+	public synchronized void record(Phase phase, long millis) {
+		turns[phase.ordinal()]++;
+		this.millis[phase.ordinal()] += millis;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			int i = phase.ordinal();
+			if (turns[i] == 0)
+				continue;
+			if (sb.length() > 0)
+				sb.append(", ");
+			sb.append(phase.label).append(' ').append(turns[i]).append(" Züge (Ø ").append(millis[i] / turns[i])
+					.append(" ms von ").append(phase.millis).append(" ms)");
+		}
+		return sb.length() == 0 ? "keine Züge" : sb.toString();
+	}
+
+}
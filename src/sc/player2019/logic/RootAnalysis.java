@@ -0,0 +1,83 @@
+package sc.player2019.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.ThreatDetector;
+import sc.player2019.logic.search.Search;
+import sc.plugin2019.Move;
+
+/**
+ * Führt jeden möglichen Move der aktuellen Stellung genau einmal aus und hält
+ * die Ergebnisse in {@link RootMove}s fest. Die einzelnen Schritte der Logik
+ * (Filtern, Siegzug suchen, Bewerten, Bedrohung prüfen) arbeiten danach nur
+ * noch auf diesen Einträgen, statt die Moves jeweils erneut auszuführen. <br>
+ * Sieg und Niederlage gelten nach den Regeln des Servers
+ * ({@link Search#outcome(BitBoard)}): Geprüft wird nur am Ende einer Runde.
+ * Nach einem Move von Blau steht das Ergebnis fest, nach einem Move von Rot
+ * werden alle Antworten von Blau ausgeführt.
+ */
+public class RootAnalysis {
+
+	private RootAnalysis() {
+		throw new IllegalStateException("Can't be instantiated.");
+	}
+
+	/**
+	 * Analysiert alle übergebenen Moves für den Spieler, der in der Stellung am Zug
+	 * ist.
+	 *
+	 * @param board Die aktuelle Stellung
+	 * @param moves Die Moves, die analysiert werden sollen
+	 * @return Für jeden Move ein Eintrag, in der Reihenfolge der Moves
+	 */
+	public static ArrayList<RootMove> analyse(BitBoard board, List<Move> moves) {
+		ArrayList<RootMove> result = new ArrayList<RootMove>(moves.size());
+		int[] buffer = new int[BitBoard.MAX_MOVES];
+		for (Move m : moves)
+			result.add(analyse(board, m, buffer));
+		return result;
+	}
+
+	static RootMove analyse(BitBoard board, Move move, int[] buffer) {
+		int own = board.current();
+		int opponent = 1 - own;
+		BitBoard after = board.copy();
+		int encoded = after.encode(move);
+		after.play(encoded);
+		boolean winning;
+		boolean losing;
+		boolean threat;
+		if (after.turn() % 2 == 0) {
+			// Blau hat die Runde beendet, Rot ist am Zug
+			int outcome = Search.outcome(after);
+			winning = outcome == -1;
+			losing = outcome == 1;
+			// wer schon gewinnt oder verliert, muss die Antworten des Gegners nicht
+			// mehr betrachten
+			threat = outcome == Integer.MIN_VALUE && ThreatDetector.hasWinningMove(after, opponent, buffer);
+		} else {
+			// Rot gewinnt nur, wenn keine Antwort von Blau den Sieg verhindert, und
+			// verliert, sobald eine Antwort Blau gewinnen lässt
+			int count = after.generateMoves(buffer);
+			BitBoard reply = new BitBoard();
+			boolean allWin = count > 0;
+			boolean anyLoss = false;
+			for (int i = 0; i < count && (allWin || !anyLoss); i++) {
+				reply.copyFrom(after);
+				reply.play(buffer[i]);
+				int outcome = Search.outcome(reply);
+				allWin &= outcome == 1;
+				anyLoss |= outcome == -1;
+			}
+			winning = allWin;
+			losing = anyLoss;
+			// eine vereinende Antwort von Blau ist schon in der Niederlage enthalten
+			threat = false;
+		}
+		return new RootMove(move, encoded, after, after.points(own), after.points(opponent), winning, losing,
+				threat);
+	}
+
+}
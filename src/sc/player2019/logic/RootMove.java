@@ -0,0 +1,102 @@
+package sc.player2019.logic;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Move;
+
+/**
+ * Das Ergebnis der Analyse eines einzelnen Moves in der aktuellen Stellung.
+ * Der Move wird dafür genau einmal ausgeführt, alle Schritte der Logik lesen
+ * danach nur noch diese Werte.
+ */
+public class RootMove {
+
+	final Move move;
+	final int encoded;
+	/** Die Stellung nach dem Move, der Gegner ist am Zug */
+	final BitBoard after;
+	final int ownPoints;
+	final int opponentPoints;
+	/**
+	 * Der Move gewinnt am Ende der Runde nach den Regeln des Servers, egal was
+	 * der Gegner noch antwortet
+	 */
+	final boolean winning;
+	/**
+	 * Der Gegner gewinnt spätestens am Ende der Runde, wenn er die richtige
+	 * Antwort spielt
+	 */
+	final boolean losing;
+	/**
+	 * Der Gegner kann seinen Schwarm mit seinem nächsten Move vereinen, nur nach
+	 * einem Move von Blau, bei Rot zählt das schon zu {@link #losing}
+	 */
+	final boolean opponentThreat;
+	/**
+	 * Bewertung der Stellung nach dem Move aus eigener Sicht, nach der Ruhesuche
+	 */
+	int score;
+
+	RootMove(Move move, int encoded, BitBoard after, int ownPoints, int opponentPoints, boolean winning,
+			boolean losing, boolean opponentThreat) {
+		this.move = move;
+		this.encoded = encoded;
+		this.after = after;
+		this.ownPoints = ownPoints;
+		this.opponentPoints = opponentPoints;
+		this.winning = winning;
+		this.losing = losing;
+		this.opponentThreat = opponentThreat;
+		this.score = ownPoints - opponentPoints;
+	}
+
+	public Move getMove() {
+		return move;
+	}
+
+	public int getEncoded() {
+		return encoded;
+	}
+
+	public BitBoard getAfter() {
+		return after;
+	}
+
+	public int getOwnPoints() {
+		return ownPoints;
+	}
+
+	public int getOpponentPoints() {
+		return opponentPoints;
+	}
+
+	/** Differenz der Punkte nach dem Move aus eigener Sicht. */
+	public int getDifference() {
+		return ownPoints - opponentPoints;
+	}
+
+	/**
+	 * Bewertung nach der Ruhesuche, bis dahin die Differenz der Punkte.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	public boolean isWinning() {
+		return winning;
+	}
+
+	public boolean isLosing() {
+		return losing;
+	}
+
+	public boolean isOpponentThreat() {
+		return opponentThreat;
+	}
+
+	@Override
+	public String toString() {
+		return move + " [" + ownPoints + ":" + opponentPoints + (winning ? ", Sieg" : "")
+				+ (losing ? ", Niederlage" : "") + (opponentThreat ? ", Gegner droht" : "") + ", Bewertung " + score + "]";
+	}
+
+}
@@ -7,6 +7,12 @@ import org.slf4j.LoggerFactory;
 
 import sc.framework.plugins.Player;
 import sc.player2019.Starter;
+import sc.player2019.logic.Logic;
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.SwarmCache;
+import sc.player2019.logic.search.OpponentModel;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
 import sc.plugin2019.GameState;
 import sc.plugin2019.IGameHandler;
 import sc.plugin2019.Move;
@@ -17,8 +23,10 @@ import sc.shared.InvalidMoveException;
 import sc.shared.PlayerColor;
 
 /**
- * Das Herz des Clients: Eine sehr simple Logik, die ihre Zuege zufaellig
- * waehlt, aber gueltige Zuege macht. Ausserdem werden zum Spielverlauf
+ * Eine Logik, die ihre Züge mit einer {@link Search} vorausberechnet. Die
+ * Tiefe wird schrittweise erhöht, bis die Bedenkzeit abgelaufen ist. Die Suche
+ * bleibt das ganze Spiel über dieselbe, so baut jeder Zug auf der Tabelle und
+ * der Hauptvariante des vorherigen auf. Ausserdem werden zum Spielverlauf
  * Konsolenausgaben gemacht.
  */
 public class Logic_Heuristic implements IGameHandler {
@@ -26,6 +34,11 @@ public class Logic_Heuristic implements IGameHandler {
 	private Starter client;
 	private GameState gameState;
 	private Player currentPlayer;
+	private final Search search = new Search();
+	private final int[] moves = new int[BitBoard.MAX_MOVES];
+
+	/** Bedenkzeit der Suche in Millisekunden */
+	static final long THINK_TIME = 1000;
 
 	private static final Logger log = LoggerFactory.getLogger(Logic_Heuristic.class);
 
@@ -37,6 +50,12 @@ public class Logic_Heuristic implements IGameHandler {
 	 */
 	public Logic_Heuristic(Starter client) {
 		this.client = client;
+		// dasselbe Gegnermodell wie die Logik, jedes Spiel ein eigenes
+		OpponentModel.Type model = Logic.getDefaultOpponentModel();
+		if (model != null)
+			search.setOpponentModel(model.create(), Logic.getDefaultReplies());
+		// die Tabelle gleich anlegen, nicht erst im ersten Zug
+		search.getTranspositionTable();
 	}
 
 	/**
@@ -53,22 +72,36 @@ public class Logic_Heuristic implements IGameHandler {
 	public void onRequestAction() {
 		long startTime = System.currentTimeMillis();
 		log.info("Es wurde ein Zug angefordert.");
-		ArrayList<Move> possibleMoves = GameRuleLogic.getPossibleMoves(gameState);
+		BitBoard board = BitBoard.of(gameState);
 
 		// Wenn es nur einen Move gibt, dann mache keine weiteren Berechnungen!
-		if (possibleMoves.size() == 1) {
-			sendAction(possibleMoves.get(0));
+		if (board.generateMoves(moves) == 1) {
+			sendAction(BitBoard.toMove(moves[0]));
 			return;
 		}
 
-		// Wenn der Gegner mit dem nächsten Move gewinnen kann, dann suche einen Move,
-		// der den Sieg unterbinden kann
-
-		// TODO: Sieg des Gengners herausfinden!
-
-		sendAction(test());
+		// iterative Vertiefung mit selektiver Suche statt jeden eigenen Move auf jeder
+		// Ebene auszuprobieren
+		SearchResult result = search.iterate(board, Search.MAX_PLY, THINK_TIME);
+		if (result == null) {
+			// ohne Move im BitBoard fragt die Logik den Server, wie die Logic in (IV)
+			ArrayList<Move> possibleMoves = GameRuleLogic.getPossibleMoves(gameState);
+			if (possibleMoves.isEmpty()) {
+				log.info("Es gibt keinen möglichen Move, es wird nichts gesendet.");
+				return;
+			}
+			log.info("Die Suche hat keinen Move gefunden, der erstmögliche Move wird gesendet.");
+			sendAction(possibleMoves.get(0));
+			return;
+		}
+		log.info("Suche: {}", result);
+		log.info("Statistik: {}", search.getStats());
+		log.info("Wiederverwendung: {}", search.getReuseStats());
+		log.info("Schwarmspeicher: {}", SwarmCache.getShared());
+		if (search.getAnalysisCache() != null)
+			log.info("Analysedatei: {}", search.getAnalysisCache());
+		sendAction(result.getMove());
 
-		// sendAction(possibleMoves.get((int) (Math.random() * possibleMoves.size())));
 		long endTime = System.currentTimeMillis();
 		long duration = endTime - startTime;
 		System.out.println("Das Programm hat " + (double) duration / 1000.0 + " Sekunden (" + duration
@@ -76,136 +109,13 @@ public class Logic_Heuristic implements IGameHandler {
 
 	}
 
-	Move test() {
-		ArrayList<Move> possibleMoves = GameRuleLogic.getPossibleMoves(gameState);
-
-		System.out.println(possibleMoves.size() + " Moves wurden ermittelt");
-		MoveObject moveObjects[] = new MoveObject[possibleMoves.size()];
-		for (int i = 0; i < moveObjects.length; i++) {
-			System.out.println("erstelle moveObject #" + i);
-			moveObjects[i] = new MoveObject(possibleMoves.get(i), gameState);
-			System.out.println("berechne Punkte fuer moveObject #" + i);
-			moveObjects[i].calcPoints(4);
-		}
-		System.out.println("moveObjects wurden erstellt");
-		int index = 0;
-		int best = 0;
-		System.out.println("muss nur noch " + moveObjects.length + " Punkte überprüfen");
-		for (int i = 0; i < moveObjects.length; i++) {
-			int p = moveObjects[i].getPoints();
-
-			if (best < p) {
-				best = p;
-				index = i;
-			}
-
-		}
-
-		return moveObjects[index].getMove();
-	}
-
-	class MoveObject {
-		Move m;
-		int points;
-		GameState gs;
-
-		public MoveObject(Move m, GameState gs) {
-			this.m = m;
-			this.gs = gs.clone();
-			points = 0;
-		}
-
-		Move getMove() {
-			return m;
-		}
-
-		void setPoints(int points) {
-			this.points = points;
-		}
-
-		int getPoints() {
-			return this.points;
-		}
-
-		void calcPoints(int depth) {
-
-			if (depth == 0) {
-				points = gs.getPointsForPlayer(gs.getCurrentPlayerColor());
-				return;
-			}
-			System.out.println("Tiefe: " + depth);
-			GameState copy = gs.clone();
-			try {
-				m.perform(copy);
-				ArrayList<Move> possibleMoves = GameRuleLogic.getPossibleMoves(copy);
-
-				MoveObject moveObjects[];
-				if (copy.getCurrentPlayerColor() != currentPlayer.getColor()) {
-					int best = 0;
-					int bestIndex = 0;
-					for (int i = 0; i < possibleMoves.size(); i++) {
-						GameState clone = copy.clone();
-						possibleMoves.get(i).perform(clone);
-						int points = clone.getPointsForPlayer(clone.getCurrentPlayerColor());
-						if (points > best) {
-							best = points;
-							bestIndex = i;
-						}
-					}
-					moveObjects = new MoveObject[1];
-					moveObjects[0] = new MoveObject(possibleMoves.get(bestIndex), copy);
-					moveObjects[0].calcPoints(depth - 1);
-
-				} else {
-
-					moveObjects = new MoveObject[possibleMoves.size()];
-					for (int i = 0; i < moveObjects.length; i++) {
-						moveObjects[i] = new MoveObject(possibleMoves.get(i), copy);
-						moveObjects[i].calcPoints(depth - 1);
-					}
-				}
-				int best = 0;
-				for (int i = 0; i < moveObjects.length; i++) {
-					int p = moveObjects[i].getPoints();
-					if (best < p) {
-						best = p;
-					}
-
-				}
-
-				this.setPoints(best);
-
-			} catch (InvalidGameStateException | InvalidMoveException e) {
-				e.printStackTrace();
-			}
-		}
-
-	}
-
-	/*
-	 * 
-	 * // für den gegnerischen Move muss immer der Move gewählt werden, der die
-	 * meisten // Punkte für den Gegner einbringt. Der eigene Move ist der, der am
-	 * ende die // meisten Punkte hat: Es kann ja sein, dass ein "misserabler" Move
-	 * im ersten // Zug einen Winning zug im zweiten Zug ermöglicht! Move
-	 * getMove(GameState gs, int depth) throws InvalidGameStateException,
-	 * InvalidMoveException { ArrayList<Move> moves =
-	 * GameRuleLogic.getPossibleMoves(gs); int points = 0; Move BestMove = null; for
-	 * (Move m : moves) { GameState copy = gs.clone(); m.perform(copy); int result =
-	 * getPoints(copy, depth); if (result > points) { points = result; BestMove = m;
-	 * } } return BestMove; }
-	 * 
-	 */
-
-	/*
-	 * int getPoints(GameState state, int depth) { if(state.getCurrentPlayerColor()
-	 * == currentPlayer.getColor()) { // Das wäre mein Zug
-	 * 
-	 * } else { // jetzt ist der Gegner am Zug: Für den Gegner müssen wir immer Das
-	 * Maximum Berechnen:
-	 * 
-	 * } }
+	/**
+	 * Die Suche dieser Logik. Darüber lassen sich die selektiven Verfahren
+	 * einzeln abschalten.
 	 */
+	public Search getSearch() {
+		return search;
+	}
 
 	/**
 	 * Gibt den Move zur&uumlck, der die meisten Punkte erm&oumlglicht.
@@ -284,6 +194,16 @@ public class Logic_Heuristic implements IGameHandler {
 		this.gameState = gameState;
 		currentPlayer = gameState.getCurrentPlayer();
 		log.info("Zug: {} Spieler: {}", gameState.getTurn(), currentPlayer.getColor());
+		// den Move des Gegners mit der Hauptvariante der letzten Suche vergleichen
+		Move expected = search.getExpectedReply();
+		Move last = gameState.getLastMove();
+		boolean opponentMoved = last != null && client != null && currentPlayer.getColor() == client.getColor();
+		if (expected != null && opponentMoved)
+			log.info("Der Gegner spielte {}, erwartet war {}{}.",
+					new Object[] { last, expected, last.equals(expected) ? " (vorhergesagt)" : "" });
+		// ein lernendes Gegnermodell zählt die Züge, die der Gegner wirklich spielt
+		if (opponentMoved && search.getOpponentModel() != null)
+			search.getOpponentModel().observe(last);
 	}
 
 	/**
@@ -1,12 +1,15 @@
 package sc.player2019.logic.Variation;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sc.framework.plugins.Player;
 import sc.player2019.Starter;
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.SwarmAnalysis;
 import sc.plugin2019.Field;
 import sc.plugin2019.GameState;
 import sc.plugin2019.IGameHandler;
@@ -87,10 +90,11 @@ public class Logic_destructive implements IGameHandler {
 					log.info("Es wurden " + fields.size() + " Felder gefunden, die den Schwarm zerstören können");
 					// Für jedes Feld wird geguckt, ob es einen Move gibt, der dieses Feld
 					// "angreift" und somit den Schwarm zerstört.
+					BitBoard board = BitBoard.of(gameState);
 					for (Field f : fields) {
+						int target = BitBoard.square(f.getX(), f.getY());
 						for (Move m : possibleMoves) {
-							if (m.x + m.direction.shift().getX() == f.getX()
-									&& m.y + m.direction.shift().getY() == f.getY()) {
+							if (BitBoard.to(board.encode(m)) == target) {
 								printEndTime(startTime);
 								sendAction(m);
 								return;
@@ -161,71 +165,30 @@ public class Logic_destructive implements IGameHandler {
 	/**
 	 * Diese Funktion sucht die Felder des Schwarmes der Übergebenen
 	 * {@link PlayerColor}, die, wenn sie aufgefressen werden wieder den Schwarm
-	 * trennen. <br>
+	 * trennen. Dazu werden die Artikulationspunkte des Schwarms über
+	 * {@link SwarmAnalysis} bestimmt. <br>
+	 * Die Felder sind so sortiert, dass das Feld, nach dessen Verlust der größte
+	 * übrige Schwarm am kleinsten ist, zuerst kommt. <br>
 	 * Diese Funktion sollte nur aufgerufen werden, wenn die übergebene PlayerColor
 	 * einen zusammenhängenden Schwarm hat.
 	 * 
 	 * @return Die Felder, die den Schwarm wieder trennen würden.
 	 */
 	ArrayList<Field> getDestroyFields(GameState gameState, PlayerColor playercolor) {
-		GameState copy = gameState.clone();
+		final SwarmAnalysis analysis = new SwarmAnalysis();
+		analysis.analyse(BitBoard.of(gameState), BitBoard.colour(playercolor));
 		ArrayList<Field> fields = new ArrayList<Field>();
-		for (int i = 0; i < 10; i++) {
-			for (int j = 0; j < 10; j++) {
-				// Da der Optionalwert evtl nicht besetzt ist, muss erst geprüft werden, ob der
-				// Wert present ist
-				if (copy.getField(i, j).getPiranha().isPresent()
-						&& copy.getField(i, j).getPiranha().get() == playercolor) {
-					log.info(i + " | " + j + " ist ein Piranha!");
-					// Wenn das Feld ein Piranha ist, der die selbe Farbe hat, wie die Playercolor,
-					// gucke, ob es anliegende Felder gibt, die diesen Kontakt überflüssig machen.
-					ArrayList<Field> neighbors = new ArrayList<Field>();
-					for (int k = Math.max(i - 1, 0); k < Math.min(10, i + 1); k++) {
-						for (int l = Math.max(j - 1, 0); l < Math.min(10, j + 1); l++) {
-							// Wenn das Feld mit dem aktuellen Feld übereinstimmt, überspringe dieses Feld
-							if (i == k && j == l) {
-								log.info("continue");
-								continue;
-							}
-							// Wenn das Nachbarfeld mit der playercolor übereinstimmt, dann zähle den
-							// Counter hoch
-							if (copy.getField(k, l).getPiranha().isPresent()
-									&& copy.getField(k, l).getPiranha().get() == playercolor) {
-								neighbors.add(copy.getField(k, l));
-								log.info("Ein Nachbar wurde gefunden!");
-							}
-						}
-					}
-					// Wenn das Feld zwei Nachbarfelder hat, die an dieses Feld angrenzen, dann
-					// prüfe, ob diese Felder sich berühren oder ob das zerstören des Feldes den
-					// Schwarm sprengen würde:
-					// überprüfe, ob jeder der Nachbarn in der Liste der Nachbarn einen Nachbar hat
-					if (!doAllHaveNeighbors(neighbors)) {
-						log.info("Alle haben Nachbarn!");
-						fields.add(copy.getField(i, j));
-					}
-				}
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			if (analysis.isCut(sq)) {
+				log.info(BitBoard.x(sq) + " | " + BitBoard.y(sq) + " trennt den Schwarm!");
+				fields.add(gameState.getField(BitBoard.x(sq), BitBoard.y(sq)));
 			}
 		}
+		fields.sort(Comparator.comparingInt(
+				f -> analysis.largestAfterRemoval(BitBoard.square(f.getX(), f.getY()))));
 		return fields;
 	}
 
-	boolean doAllHaveNeighbors(ArrayList<Field> fields) {
-		boolean answer;
-		for (Field f1 : fields) {
-			answer = false;
-			for (Field f2 : fields) {
-				if (f1 == f2)
-					continue;
-				if (Math.abs(f1.getX() - f2.getX()) <= 1 && Math.abs(f1.getY() - f2.getY()) <= 1)
-					answer = true;
-			}
-			if (!answer)
-				return answer;
-		}
-		return false;
-	}
-
 	int countFishsOfPlayer(GameState gameState, PlayerColor playercolor) {
 		int counter = 0;
 		GameState copy = gameState.clone();
@@ -0,0 +1,493 @@
+package sc.player2019.logic.board;
+
+import sc.plugin2019.Direction;
+import sc.plugin2019.FieldState;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+import sc.shared.PlayerColor;
+
+/**
+ * Kompakte Darstellung eines Spielbretts als Bitmasken. Jedes Feld (x|y) wird
+ * auf das Bit <code>y * 10 + x</code> abgebildet, die Bits 0 bis 63 liegen in
+ * <code>lo</code>, die Bits 64 bis 99 in <code>hi</code>. <br>
+ * Im Gegensatz zum {@link GameState} werden beim Kopieren und Ausführen von
+ * Moves keine Objekte erzeugt, sodass die Klasse für Berechnungen mit vielen
+ * Stellungen geeignet ist. Moves werden als <code>int</code> kodiert (siehe
+ * {@link #encode(int, int, int)}).
+ */
+public final class BitBoard {
+
+	public static final int SIZE = Constants.BOARD_SIZE;
+	public static final int SQUARES = SIZE * SIZE;
+
+	public static final int RED = 0;
+	public static final int BLUE = 1;
+
+	/** Maximale Anzahl an Moves, die in einer Stellung möglich sind. */
+	public static final int MAX_MOVES = Constants.MAX_FISH * 8;
+
+	/** Maske der gültigen Bits im oberen Teil (Felder 64 bis 99). */
+	public static final long HI_MASK = (1L << (SQUARES - 64)) - 1;
+
+	/** Verschiebung in x-Richtung, in der Reihenfolge von {@link Direction}. */
+	static final int[] DX = { 0, 1, 1, 1, 0, -1, -1, -1 };
+	/** Verschiebung in y-Richtung, in der Reihenfolge von {@link Direction}. */
+	static final int[] DY = { 1, 1, 0, -1, -1, -1, 0, 1 };
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Die Linien durch ein Feld für die vier Achsen (Richtung & 3): senkrecht,
+	 * steigende Diagonale, waagerecht und fallende Diagonale.
+	 */
+	private static final long[][] LINE_LO = new long[4][SQUARES];
+	private static final long[][] LINE_HI = new long[4][SQUARES];
+
+	static {
+		for (int sq = 0; sq < SQUARES; sq++) {
+			for (int axis = 0; axis < 4; axis++) {
+				int x = x(sq);
+				int y = y(sq);
+				// bis zum Rand in Gegenrichtung laufen und dann die ganze Linie abgehen
+				while (onBoard(x - DX[axis], y - DY[axis])) {
+					x -= DX[axis];
+					y -= DY[axis];
+				}
+				while (onBoard(x, y)) {
+					int s = square(x, y);
+					if (s < 64)
+						LINE_LO[axis][sq] |= 1L << s;
+					else
+						LINE_HI[axis][sq] |= 1L << (s - 64);
+					x += DX[axis];
+					y += DY[axis];
+				}
+			}
+		}
+	}
+
+	/** Fische je Farbe ({@link #RED}, {@link #BLUE}). */
+	final long[] lo = new long[2];
+	final long[] hi = new long[2];
+	long obstacleLo;
+	long obstacleHi;
+	int current;
+	int turn;
+
+	public BitBoard() {
+	}
+
+	/**
+	 * Erzeugt eine kompakte Kopie des übergebenen GameStates.
+	 *
+	 * @param gs Der GameState, der übertragen werden soll.
+	 * @return Das BitBoard zu dem GameState
+	 */
+	public static BitBoard of(GameState gs) {
+		BitBoard b = new BitBoard();
+		b.load(gs);
+		return b;
+	}
+
+	/**
+	 * Überträgt die Felder, den Zug und den aktuellen Spieler des GameStates in
+	 * dieses Objekt.
+	 */
+	public void load(GameState gs) {
+		clearAll();
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				FieldState state = gs.getField(x, y).getState();
+				if (state == FieldState.RED)
+					set(RED, square(x, y));
+				else if (state == FieldState.BLUE)
+					set(BLUE, square(x, y));
+				else if (state == FieldState.OBSTRUCTED)
+					setObstacle(square(x, y));
+			}
+		}
+		turn = gs.getTurn();
+		current = colour(gs.getCurrentPlayerColor());
+	}
+
+	/**
+	 * Erzeugt einen GameState mit den Feldern, dem Zug und dem Spieler am Zug
+	 * dieses Objekts, etwa um eine Stellung einem {@link sc.plugin2019.IGameHandler}
+	 * zu geben. Der letzte Move ist nicht bekannt.
+	 */
+	public GameState toGameState() {
+		GameState gs = new GameState();
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				int sq = square(x, y);
+				gs.getField(x, y).setState(test(RED, sq) ? FieldState.RED
+						: test(BLUE, sq) ? FieldState.BLUE : testObstacle(sq) ? FieldState.OBSTRUCTED : FieldState.EMPTY);
+			}
+		}
+		gs.setTurn(turn);
+		gs.setCurrentPlayerColor(playerColor(current));
+		return gs;
+	}
+
+	/**
+	 * Liest eine Stellung in der Kurzform von {@link #toCode()}.
+	 *
+	 * @throws IllegalArgumentException wenn der Text keine gültige Stellung ist
+	 */
+	public static BitBoard parse(String code) {
+		String[] parts = code.trim().split("\\s+");
+		String[] rows = parts[0].split("/");
+		if (parts.length != 3 || rows.length != SIZE)
+			throw new IllegalArgumentException("Ungültige Stellung: " + code);
+		BitBoard b = new BitBoard();
+		for (int i = 0; i < SIZE; i++) {
+			if (rows[i].length() != SIZE)
+				throw new IllegalArgumentException("Ungültige Zeile " + (i + 1) + ": " + code);
+			for (int x = 0; x < SIZE; x++) {
+				int sq = square(x, SIZE - 1 - i);
+				switch (rows[i].charAt(x)) {
+				case 'R':
+					b.set(RED, sq);
+					break;
+				case 'B':
+					b.set(BLUE, sq);
+					break;
+				case 'O':
+					b.setObstacle(sq);
+					break;
+				case '.':
+					break;
+				default:
+					throw new IllegalArgumentException("Ungültiges Feld in Zeile " + (i + 1) + ": " + code);
+				}
+			}
+		}
+		if (parts[1].equals("r"))
+			b.current = RED;
+		else if (parts[1].equals("b"))
+			b.current = BLUE;
+		else
+			throw new IllegalArgumentException("Ungültiger Spieler: " + code);
+		try {
+			b.turn = Integer.parseInt(parts[2]);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Ungültiger Zug: " + code);
+		}
+		return b;
+	}
+
+	/**
+	 * Die Stellung in einer Zeile: die Reihen von oben (y = 9) nach unten,
+	 * getrennt durch '/', mit den Zeichen wie in {@link #toString()}, danach der
+	 * Spieler am Zug (r oder b) und der Zug, z.B.
+	 * <code>.RRRRRRRR./B........B/.../.RRRRRRRR. r 0</code>.
+	 */
+	public String toCode() {
+		StringBuilder b = new StringBuilder();
+		for (int y = SIZE - 1; y >= 0; y--) {
+			for (int x = 0; x < SIZE; x++) {
+				int sq = square(x, y);
+				b.append(test(RED, sq) ? 'R' : test(BLUE, sq) ? 'B' : testObstacle(sq) ? 'O' : '.');
+			}
+			if (y > 0)
+				b.append('/');
+		}
+		return b.append(current == RED ? " r " : " b ").append(turn).toString();
+	}
+
+	/**
+	 * Überschreibt dieses Objekt mit dem Inhalt des übergebenen BitBoards, ohne
+	 * neue Objekte zu erzeugen.
+	 */
+	public void copyFrom(BitBoard other) {
+		lo[RED] = other.lo[RED];
+		lo[BLUE] = other.lo[BLUE];
+		hi[RED] = other.hi[RED];
+		hi[BLUE] = other.hi[BLUE];
+		obstacleLo = other.obstacleLo;
+		obstacleHi = other.obstacleHi;
+		current = other.current;
+		turn = other.turn;
+	}
+
+	public BitBoard copy() {
+		BitBoard b = new BitBoard();
+		b.copyFrom(this);
+		return b;
+	}
+
+	/**
+	 * Erzeugt alle gültigen Moves der übergebenen Farbe.
+	 *
+	 * @param colour Die Farbe, für die Moves gesucht werden
+	 * @param out    Ein Array mit mindestens {@link #MAX_MOVES} Einträgen
+	 * @return Die Anzahl der Moves, die in <code>out</code> geschrieben wurden
+	 */
+	public int generateMoves(int colour, int[] out) {
+		int count = 0;
+		long ownLo = lo[colour];
+		long ownHi = hi[colour];
+		while (ownLo != 0) {
+			int from = Long.numberOfTrailingZeros(ownLo);
+			ownLo &= ownLo - 1;
+			count = generateMoves(colour, from, out, count);
+		}
+		while (ownHi != 0) {
+			int from = 64 + Long.numberOfTrailingZeros(ownHi);
+			ownHi &= ownHi - 1;
+			count = generateMoves(colour, from, out, count);
+		}
+		return count;
+	}
+
+	/** Erzeugt alle gültigen Moves des Spielers, der am Zug ist. */
+	public int generateMoves(int[] out) {
+		return generateMoves(current, out);
+	}
+
+	private int generateMoves(int colour, int from, int[] out, int count) {
+		for (int dir = 0; dir < 8; dir++) {
+			int to = target(colour, from, dir);
+			if (to >= 0)
+				out[count++] = encode(from, to, dir);
+		}
+		return count;
+	}
+
+	/**
+	 * Gibt das Zielfeld eines Moves zurück oder -1, wenn der Move nicht den Regeln
+	 * entspricht.
+	 */
+	int target(int colour, int from, int dir) {
+		int distance = distance(from, dir);
+		int tx = x(from) + DX[dir] * distance;
+		int ty = y(from) + DY[dir] * distance;
+		if (!onBoard(tx, ty))
+			return -1;
+		int to = square(tx, ty);
+		if (test(colour, to) || testObstacle(to))
+			return -1;
+		// über gegnerische Fische darf nicht gesprungen werden
+		int opponent = 1 - colour;
+		int step = DY[dir] * SIZE + DX[dir];
+		for (int i = 1, sq = from + step; i < distance; i++, sq += step) {
+			if (test(opponent, sq))
+				return -1;
+		}
+		return to;
+	}
+
+	/** Anzahl der Fische auf der Linie durch das Feld in der gegebenen Richtung. */
+	public int distance(int sq, int dir) {
+		int axis = dir & 3;
+		return Long.bitCount((lo[RED] | lo[BLUE]) & LINE_LO[axis][sq])
+				+ Long.bitCount((hi[RED] | hi[BLUE]) & LINE_HI[axis][sq]);
+	}
+
+	/**
+	 * Führt einen kodierten Move für den Spieler aus, der am Zug ist. Der Move
+	 * wird dabei nicht auf Gültigkeit geprüft.
+	 *
+	 * @return true, wenn dabei ein gegnerischer Fisch gefressen wurde
+	 */
+	public boolean play(int move) {
+		int colour = current;
+		int from = from(move);
+		int to = to(move);
+		boolean capture = test(1 - colour, to);
+		clear(colour, from);
+		set(colour, to);
+		if (capture)
+			clear(1 - colour, to);
+		turn++;
+		current = turn % 2 == 0 ? RED : BLUE;
+		return capture;
+	}
+
+	/**
+	 * Kodiert den Move des Plugins für diese Stellung. Dazu wird die Zugweite
+	 * anhand der aktuellen Stellung bestimmt.
+	 */
+	public int encode(Move move) {
+		int from = square(move.x, move.y);
+		int dir = move.direction.ordinal();
+		int distance = distance(from, dir);
+		int to = square(move.x + DX[dir] * distance, move.y + DY[dir] * distance);
+		return encode(from, to, dir);
+	}
+
+	/**
+	 * Prüft, ob der kodierte Move in dieser Stellung für den Spieler am Zug den
+	 * Regeln entspricht.
+	 */
+	public boolean isLegal(int move) {
+		int from = from(move);
+		return test(current, from) && target(current, from, direction(move)) == to(move);
+	}
+
+	public static int encode(int from, int to, int dir) {
+		return from | to << 7 | dir << 14;
+	}
+
+	public static int from(int move) {
+		return move & 0x7F;
+	}
+
+	public static int to(int move) {
+		return (move >>> 7) & 0x7F;
+	}
+
+	public static int direction(int move) {
+		return (move >>> 14) & 0x7;
+	}
+
+	/** Wandelt einen kodierten Move in einen Move des Plugins um. */
+	public static Move toMove(int move) {
+		int from = from(move);
+		return new Move(x(from), y(from), DIRECTIONS[direction(move)]);
+	}
+
+	public static int square(int x, int y) {
+		return y * SIZE + x;
+	}
+
+	public static int x(int sq) {
+		return sq % SIZE;
+	}
+
+	public static int y(int sq) {
+		return sq / SIZE;
+	}
+
+	static boolean onBoard(int x, int y) {
+		return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+	}
+
+	public static int colour(PlayerColor pc) {
+		return pc == PlayerColor.RED ? RED : BLUE;
+	}
+
+	public static PlayerColor playerColor(int colour) {
+		return colour == RED ? PlayerColor.RED : PlayerColor.BLUE;
+	}
+
+	public boolean test(int colour, int sq) {
+		return sq < 64 ? (lo[colour] >>> sq & 1) != 0 : (hi[colour] >>> (sq - 64) & 1) != 0;
+	}
+
+	public boolean testObstacle(int sq) {
+		return sq < 64 ? (obstacleLo >>> sq & 1) != 0 : (obstacleHi >>> (sq - 64) & 1) != 0;
+	}
+
+	public void set(int colour, int sq) {
+		if (sq < 64)
+			lo[colour] |= 1L << sq;
+		else
+			hi[colour] |= 1L << (sq - 64);
+	}
+
+	public void clear(int colour, int sq) {
+		if (sq < 64)
+			lo[colour] &= ~(1L << sq);
+		else
+			hi[colour] &= ~(1L << (sq - 64));
+	}
+
+	public void setObstacle(int sq) {
+		if (sq < 64)
+			obstacleLo |= 1L << sq;
+		else
+			obstacleHi |= 1L << (sq - 64);
+	}
+
+	/** Entfernt alle Fische und Hindernisse. */
+	public void clearAll() {
+		lo[RED] = lo[BLUE] = hi[RED] = hi[BLUE] = 0;
+		obstacleLo = obstacleHi = 0;
+	}
+
+	/** Entfernt alle Hindernisse. */
+	public void clearObstacles() {
+		obstacleLo = obstacleHi = 0;
+	}
+
+	/** Die Fische der Farbe auf den Feldern 0 bis 63. */
+	public long lo(int colour) {
+		return lo[colour];
+	}
+
+	/** Die Fische der Farbe auf den Feldern 64 bis 99. */
+	public long hi(int colour) {
+		return hi[colour];
+	}
+
+	public long obstacleLo() {
+		return obstacleLo;
+	}
+
+	public long obstacleHi() {
+		return obstacleHi;
+	}
+
+	public int current() {
+		return current;
+	}
+
+	public void setCurrent(int colour) {
+		current = colour;
+	}
+
+	public int turn() {
+		return turn;
+	}
+
+	public void setTurn(int turn) {
+		this.turn = turn;
+	}
+
+	public int countFish(int colour) {
+		return Long.bitCount(lo[colour]) + Long.bitCount(hi[colour]);
+	}
+
+	/** Größe des größten Schwarms der Farbe, entspricht den Punkten im Spiel. */
+	public int points(int colour) {
+		if (SwarmCache.isEnabled())
+			return SwarmCache.getShared().largest(lo[colour], hi[colour]);
+		return Swarm.largest(lo[colour], hi[colour]);
+	}
+
+	/** true, wenn alle Fische der Farbe einen zusammenhängenden Schwarm bilden. */
+	public boolean isConnected(int colour) {
+		return Swarm.isConnected(lo[colour], hi[colour]);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BitBoard))
+			return false;
+		BitBoard b = (BitBoard) o;
+		return lo[RED] == b.lo[RED] && lo[BLUE] == b.lo[BLUE] && hi[RED] == b.hi[RED] && hi[BLUE] == b.hi[BLUE]
+				&& obstacleLo == b.obstacleLo && obstacleHi == b.obstacleHi && current == b.current;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(lo[RED] * 31 + hi[RED] * 17 + lo[BLUE] * 13 + hi[BLUE] * 7 + obstacleLo + obstacleHi)
+				^ current;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		for (int y = SIZE - 1; y >= 0; y--) {
+			for (int x = 0; x < SIZE; x++) {
+				int sq = square(x, y);
+				b.append(test(RED, sq) ? 'R' : test(BLUE, sq) ? 'B' : testObstacle(sq) ? 'O' : '.');
+			}
+			b.append('\n');
+		}
+		return b.append("turn=").append(turn).append(" current=").append(playerColor(current)).toString();
+	}
+
+}
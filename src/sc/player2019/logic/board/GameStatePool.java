@@ -0,0 +1,77 @@
+package sc.player2019.logic.board;
+
+import java.util.ArrayDeque;
+
+import sc.plugin2019.Field;
+import sc.plugin2019.GameState;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Stellt vorab erzeugte GameStates bereit, in die der Inhalt eines anderen
+ * GameStates kopiert wird. Im Gegensatz zu {@link GameState#clone()} werden
+ * dabei weder ein neues Board noch neue Fields erzeugt, es werden nur die
+ * Zustände der Felder übertragen. <br>
+ * Die Kopien teilen sich die Spielerobjekte und den letzten Move mit dem
+ * Original und eignen sich daher nur zum Ausprobieren von Moves, etwa um einen
+ * Move vor dem Senden zu prüfen.
+ */
+public class GameStatePool {
+
+	private final ArrayDeque<GameState> free;
+	private int created;
+
+	/**
+	 * Erzeugt einen Pool mit der angegebenen Anzahl an vorab erzeugten GameStates.
+	 * Werden mehr GameStates gleichzeitig benötigt, wird der Pool vergrößert.
+	 */
+	public GameStatePool(int size) {
+		free = new ArrayDeque<GameState>(size);
+		for (int i = 0; i < size; i++)
+			free.push(new GameState());
+		created = size;
+	}
+
+	/**
+	 * Gibt einen GameState mit dem Inhalt von <code>source</code> zurück. Der
+	 * GameState muss nach der Benutzung mit {@link #release(GameState)}
+	 * zurückgegeben werden.
+	 */
+	public synchronized GameState acquire(GameState source) {
+		GameState target = free.poll();
+		if (target == null) {
+			target = new GameState();
+			created++;
+		}
+		copy(source, target);
+		return target;
+	}
+
+	public synchronized void release(GameState state) {
+		free.push(state);
+	}
+
+	/** Anzahl der GameStates, die dieser Pool insgesamt erzeugt hat. */
+	public synchronized int getCreated() {
+		return created;
+	}
+
+	/**
+	 * Überträgt die Felder, den Zug und die Spielerfarben von <code>source</code>
+	 * in <code>target</code>.
+	 */
+	public static void copy(GameState source, GameState target) {
+		for (int x = 0; x < Constants.BOARD_SIZE; x++) {
+			for (int y = 0; y < Constants.BOARD_SIZE; y++) {
+				Field field = target.getField(x, y);
+				field.setState(source.getField(x, y).getState());
+			}
+		}
+		target.setRed(source.getRed());
+		target.setBlue(source.getBlue());
+		target.setTurn(source.getTurn());
+		target.setCurrentPlayerColor(source.getCurrentPlayerColor());
+		target.setStartPlayerColor(source.getStartPlayerColor());
+		target.setLastMove(source.getLastMove());
+	}
+
+}
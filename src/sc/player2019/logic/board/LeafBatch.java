@@ -0,0 +1,267 @@
+package sc.player2019.logic.board;
+
+/**
+ * Bewertet viele Stellungen auf einmal. Die Bitmasken der Stellungen werden in
+ * primitive Arrays gesammelt (je ein Array pro Maske statt eines Objekts pro
+ * Stellung) und die Merkmale in Schleifen über alle Stellungen berechnet, die
+ * ohne Verzweigungen auskommen und die Daten hintereinander lesen. Die
+ * Flutfüllung läuft im Gleichschritt über alle noch wachsenden Stellungen.
+ * <br>
+ * Berechnet werden für den eigenen Spieler und den Gegner:
+ * <ul>
+ * <li>Anzahl der Fische</li>
+ * <li>Nachbarschaften: Paare benachbarter Fische derselben Farbe</li>
+ * <li>Streuung: Summe der quadrierten Abstände zum Schwerpunkt</li>
+ * <li>Schritte und Reichweite einer Flutfüllung vom ersten Fisch aus</li>
+ * </ul>
+ * {@link #evaluateSingle(BitBoard, int)} berechnet dieselbe Bewertung für eine
+ * einzelne Stellung. Ein Objekt ist nicht threadsicher. <br>
+ * Ohne SIMD ist der Durchgang nicht schneller als die einzelne Bewertung, die
+ * Logik wählt ihre Moves daher ohne diese Form; gemessen wird er in der
+ * {@link sc.player2019.bench.BatchEvalBenchmark}.
+ */
+public final class LeafBatch {
+
+	/** Gewicht einer Nachbarschaft */
+	static final int PAIR_WEIGHT = 4;
+	/** Gewicht eines Fisches, der vom ersten Fisch aus erreicht wird */
+	static final int REACH_WEIGHT = 8;
+	/** Die Streuung wird durch diesen Wert geteilt */
+	static final int SPREAD_DIVISOR = 4;
+
+	private static final long[] COLUMN_LO = new long[BitBoard.SIZE];
+	private static final long[] COLUMN_HI = new long[BitBoard.SIZE];
+	private static final long[] ROW_LO = new long[BitBoard.SIZE];
+	private static final long[] ROW_HI = new long[BitBoard.SIZE];
+
+	static {
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			int x = BitBoard.x(sq);
+			int y = BitBoard.y(sq);
+			if (sq < 64) {
+				COLUMN_LO[x] |= 1L << sq;
+				ROW_LO[y] |= 1L << sq;
+			} else {
+				COLUMN_HI[x] |= 1L << (sq - 64);
+				ROW_HI[y] |= 1L << (sq - 64);
+			}
+		}
+	}
+
+	private final long[] ownLo;
+	private final long[] ownHi;
+	private final long[] opponentLo;
+	private final long[] opponentHi;
+	private int size;
+
+	/** Merkmale, jeweils [0] eigener Spieler, [1] Gegner */
+	private final int[][] fish = new int[2][];
+	private final int[][] pairs = new int[2][];
+	private final int[][] spread = new int[2][];
+	private final int[][] steps = new int[2][];
+	private final int[][] reach = new int[2][];
+	/** Die wachsende Flutfüllung, wird nur während der Berechnung gebraucht */
+	private final long[] floodLo;
+	private final long[] floodHi;
+	private final int[] active;
+
+	public LeafBatch(int capacity) {
+		ownLo = new long[capacity];
+		ownHi = new long[capacity];
+		opponentLo = new long[capacity];
+		opponentHi = new long[capacity];
+		floodLo = new long[capacity];
+		floodHi = new long[capacity];
+		active = new int[capacity];
+		for (int side = 0; side < 2; side++) {
+			fish[side] = new int[capacity];
+			pairs[side] = new int[capacity];
+			spread[side] = new int[capacity];
+			steps[side] = new int[capacity];
+			reach[side] = new int[capacity];
+		}
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return ownLo.length;
+	}
+
+	/**
+	 * Fügt eine Stellung hinzu, die aus Sicht der übergebenen Farbe bewertet
+	 * wird.
+	 *
+	 * @return Der Index der Stellung im Stapel
+	 */
+	public int add(BitBoard board, int colour) {
+		int i = size++;
+		ownLo[i] = board.lo(colour);
+		ownHi[i] = board.hi(colour);
+		opponentLo[i] = board.lo(1 - colour);
+		opponentHi[i] = board.hi(1 - colour);
+		return i;
+	}
+
+	/**
+	 * Bewertet alle Stellungen des Stapels.
+	 *
+	 * @param out Die Bewertungen, in der Reihenfolge von {@link #add}
+	 */
+	public void evaluate(int[] out) {
+		features(ownLo, ownHi, 0);
+		features(opponentLo, opponentHi, 1);
+		int[] fOwn = pairs[0], fOpp = pairs[1];
+		int[] rOwn = reach[0], rOpp = reach[1];
+		int[] sOwn = spread[0], sOpp = spread[1];
+		for (int i = 0; i < size; i++) {
+			out[i] = PAIR_WEIGHT * (fOwn[i] - fOpp[i]) + REACH_WEIGHT * (rOwn[i] - rOpp[i])
+					- (sOwn[i] - sOpp[i]) / SPREAD_DIVISOR;
+		}
+	}
+
+	private void features(long[] lo, long[] hi, int side) {
+		int n = size;
+		int[] fishOut = fish[side];
+		int[] pairsOut = pairs[side];
+		int[] spreadOut = spread[side];
+
+		for (int i = 0; i < n; i++) {
+			long l = lo[i];
+			long h = hi[i];
+			int count = Long.bitCount(l) + Long.bitCount(h);
+			fishOut[i] = count;
+			pairsOut[i] = pairs(l, h);
+			spreadOut[i] = spread(l, h, count);
+		}
+
+		flood(lo, hi, steps[side], reach[side]);
+	}
+
+	/**
+	 * Flutfüllung vom ersten Fisch aus, für alle Stellungen im Gleichschritt.
+	 * Jeder Durchgang läuft nur über die Stellungen, deren Füllung im vorherigen
+	 * Durchgang noch gewachsen ist.
+	 */
+	private void flood(long[] lo, long[] hi, int[] stepsOut, int[] reachOut) {
+		int n = size;
+		int[] active = this.active;
+		for (int i = 0; i < n; i++) {
+			long l = lo[i];
+			long h = hi[i];
+			floodLo[i] = l != 0 ? l & -l : 0;
+			floodHi[i] = l != 0 ? 0 : h & -h;
+			stepsOut[i] = 0;
+			active[i] = i;
+		}
+		int count = n;
+		while (count > 0) {
+			int next = 0;
+			for (int k = 0; k < count; k++) {
+				int i = active[k];
+				long cLo = floodLo[i];
+				long cHi = floodHi[i];
+				long nLo = Swarm.dilateLo(cLo, cHi) & lo[i];
+				long nHi = Swarm.dilateHi(cLo, cHi) & hi[i];
+				floodLo[i] = nLo;
+				floodHi[i] = nHi;
+				// verzweigungsfrei: der Index bleibt nur aktiv, wenn die Füllung wuchs
+				int grew = (nLo ^ cLo | nHi ^ cHi) != 0 ? 1 : 0;
+				stepsOut[i] += grew;
+				active[next] = i;
+				next += grew;
+			}
+			count = next;
+		}
+		for (int i = 0; i < n; i++)
+			reachOut[i] = Long.bitCount(floodLo[i]) + Long.bitCount(floodHi[i]);
+	}
+
+	/** Bewertet eine einzelne Stellung genauso wie {@link #evaluate(int[])}. */
+	public static int evaluateSingle(BitBoard board, int colour) {
+		long oLo = board.lo(colour), oHi = board.hi(colour);
+		long pLo = board.lo(1 - colour), pHi = board.hi(1 - colour);
+		int ownFish = Long.bitCount(oLo) + Long.bitCount(oHi);
+		int opponentFish = Long.bitCount(pLo) + Long.bitCount(pHi);
+		return PAIR_WEIGHT * (pairs(oLo, oHi) - pairs(pLo, pHi)) + REACH_WEIGHT * (reach(oLo, oHi) - reach(pLo, pHi))
+				- (spread(oLo, oHi, ownFish) - spread(pLo, pHi, opponentFish)) / SPREAD_DIVISOR;
+	}
+
+	/**
+	 * Anzahl der Paare benachbarter Fische. Jedes Paar wird über eine der vier
+	 * Richtungen rechts, oben, oben rechts und oben links genau einmal gezählt.
+	 */
+	static int pairs(long lo, long hi) {
+		long eLo = lo & Swarm.NOT_COL9_LO, eHi = hi & Swarm.NOT_COL9_HI;
+		long wLo = lo & Swarm.NOT_COL0_LO, wHi = hi & Swarm.NOT_COL0_HI;
+		return Long.bitCount(lo & eLo << 1) + Long.bitCount(hi & (eHi << 1 | eLo >>> 63))
+				+ Long.bitCount(lo & lo << 10) + Long.bitCount(hi & (hi << 10 | lo >>> 54))
+				+ Long.bitCount(lo & eLo << 11) + Long.bitCount(hi & (eHi << 11 | eLo >>> 53))
+				+ Long.bitCount(lo & wLo << 9) + Long.bitCount(hi & (wHi << 9 | wLo >>> 55));
+	}
+
+	/**
+	 * Summe der quadrierten Abstände aller Fische zum Schwerpunkt, berechnet aus
+	 * den Fischen je Zeile und Spalte.
+	 */
+	static int spread(long lo, long hi, int count) {
+		if (count == 0)
+			return 0;
+		int sumX = 0, sumXX = 0, sumY = 0, sumYY = 0;
+		for (int c = 0; c < BitBoard.SIZE; c++) {
+			int inColumn = Long.bitCount(lo & COLUMN_LO[c]) + Long.bitCount(hi & COLUMN_HI[c]);
+			int inRow = Long.bitCount(lo & ROW_LO[c]) + Long.bitCount(hi & ROW_HI[c]);
+			sumX += c * inColumn;
+			sumXX += c * c * inColumn;
+			sumY += c * inRow;
+			sumYY += c * c * inRow;
+		}
+		return (count * (sumXX + sumYY) - sumX * sumX - sumY * sumY) / count;
+	}
+
+	/** Anzahl der Fische, die vom ersten Fisch aus erreichbar sind. */
+	static int reach(long lo, long hi) {
+		long cLo = lo != 0 ? lo & -lo : 0;
+		long cHi = lo != 0 ? 0 : hi & -hi;
+		while (true) {
+			long nLo = Swarm.dilateLo(cLo, cHi) & lo;
+			long nHi = Swarm.dilateHi(cLo, cHi) & hi;
+			if (nLo == cLo && nHi == cHi)
+				return Long.bitCount(cLo) + Long.bitCount(cHi);
+			cLo = nLo;
+			cHi = nHi;
+		}
+	}
+
+	/** Anzahl der Fische der Stellung, für den eigenen Spieler (0) oder Gegner (1). */
+	public int getFish(int side, int index) {
+		return fish[side][index];
+	}
+
+	/** Paare benachbarter Fische, für den eigenen Spieler (0) oder Gegner (1). */
+	public int getPairs(int side, int index) {
+		return pairs[side][index];
+	}
+
+	/** Streuung um den Schwerpunkt, für den eigenen Spieler (0) oder Gegner (1). */
+	public int getSpread(int side, int index) {
+		return spread[side][index];
+	}
+
+	/** Schritte der Flutfüllung, für den eigenen Spieler (0) oder Gegner (1). */
+	public int getSteps(int side, int index) {
+		return steps[side][index];
+	}
+
+	/** Reichweite der Flutfüllung, für den eigenen Spieler (0) oder Gegner (1). */
+	public int getReach(int side, int index) {
+		return reach[side][index];
+	}
+
+}
@@ -0,0 +1,172 @@
+package sc.player2019.logic.board;
+
+/**
+ * Berechnungen zu Schwärmen direkt auf den Bitmasken einer Farbe. Ein Schwarm
+ * ist eine Menge von Fischen, die über waagerechte, senkrechte oder diagonale
+ * Nachbarschaft zusammenhängen. <br>
+ * Die Masken sind wie in {@link BitBoard} aufgeteilt: <code>lo</code> enthält
+ * die Felder 0 bis 63, <code>hi</code> die Felder 64 bis 99.
+ */
+public final class Swarm {
+
+	/** Alle Felder außer denen in Spalte 0 (x == 0). */
+	static final long NOT_COL0_LO;
+	static final long NOT_COL0_HI;
+	/** Alle Felder außer denen in Spalte 9 (x == 9). */
+	static final long NOT_COL9_LO;
+	static final long NOT_COL9_HI;
+
+	/** Die (bis zu acht) Nachbarfelder jedes Feldes. */
+	static final long[] NEIGHBOURS_LO = new long[BitBoard.SQUARES];
+	static final long[] NEIGHBOURS_HI = new long[BitBoard.SQUARES];
+
+	static {
+		long c0Lo = 0, c0Hi = 0, c9Lo = 0, c9Hi = 0;
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			int x = BitBoard.x(sq);
+			if (x != 0) {
+				if (sq < 64)
+					c0Lo |= 1L << sq;
+				else
+					c0Hi |= 1L << (sq - 64);
+			}
+			if (x != BitBoard.SIZE - 1) {
+				if (sq < 64)
+					c9Lo |= 1L << sq;
+				else
+					c9Hi |= 1L << (sq - 64);
+			}
+		}
+		NOT_COL0_LO = c0Lo;
+		NOT_COL0_HI = c0Hi;
+		NOT_COL9_LO = c9Lo;
+		NOT_COL9_HI = c9Hi;
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			long lo = sq < 64 ? 1L << sq : 0;
+			long hi = sq < 64 ? 0 : 1L << (sq - 64);
+			NEIGHBOURS_LO[sq] = dilateLo(lo, hi) & ~lo;
+			NEIGHBOURS_HI[sq] = dilateHi(lo, hi) & ~hi;
+		}
+	}
+
+	private Swarm() {
+		throw new IllegalStateException("Can't be instantiated.");
+	}
+
+	/**
+	 * Erweitert die Maske um alle acht Nachbarfelder jedes gesetzten Feldes
+	 * (untere 64 Bit des Ergebnisses).
+	 */
+	static long dilateLo(long lo, long hi) {
+		long eLo = lo & NOT_COL9_LO;
+		long wLo = lo & NOT_COL0_LO;
+		long wHi = hi & NOT_COL0_HI;
+		long hLo = lo | eLo << 1 | wLo >>> 1 | wHi << 63;
+		long hHi = dilateRowHi(lo, hi);
+		return hLo | hLo << 10 | hLo >>> 10 | hHi << 54;
+	}
+
+	/**
+	 * Erweitert die Maske um alle acht Nachbarfelder jedes gesetzten Feldes
+	 * (obere 36 Bit des Ergebnisses).
+	 */
+	static long dilateHi(long lo, long hi) {
+		long eLo = lo & NOT_COL9_LO;
+		long hLo = lo | eLo << 1 | (lo & NOT_COL0_LO) >>> 1 | (hi & NOT_COL0_HI) << 63;
+		long hHi = dilateRowHi(lo, hi);
+		return (hHi | hHi << 10 | hLo >>> 54 | hHi >>> 10) & BitBoard.HI_MASK;
+	}
+
+	private static long dilateRowHi(long lo, long hi) {
+		long eLo = lo & NOT_COL9_LO;
+		long eHi = hi & NOT_COL9_HI;
+		long wHi = hi & NOT_COL0_HI;
+		return hi | eHi << 1 | eLo >>> 63 | wHi >>> 1;
+	}
+
+	/**
+	 * Prüft, ob alle Fische der Maske einen zusammenhängenden Schwarm bilden. Eine
+	 * leere Maske gilt wie im Plugin als zusammenhängend.
+	 */
+	public static boolean isConnected(long lo, long hi) {
+		long cLo, cHi;
+		if (lo != 0) {
+			cLo = lo & -lo;
+			cHi = 0;
+		} else if (hi != 0) {
+			cLo = 0;
+			cHi = hi & -hi;
+		} else {
+			return true;
+		}
+		while (true) {
+			long nLo = dilateLo(cLo, cHi) & lo;
+			long nHi = dilateHi(cLo, cHi) & hi;
+			if (nLo == cLo && nHi == cHi)
+				return cLo == lo && cHi == hi;
+			cLo = nLo;
+			cHi = nHi;
+		}
+	}
+
+	/** Größe des größten Schwarms der Maske. */
+	public static int largest(long lo, long hi) {
+		int best = 0;
+		int remaining = Long.bitCount(lo) + Long.bitCount(hi);
+		// sobald die übrigen Fische den besten Schwarm nicht mehr schlagen können,
+		// kann abgebrochen werden
+		while (remaining > best) {
+			long cLo, cHi;
+			if (lo != 0) {
+				cLo = lo & -lo;
+				cHi = 0;
+			} else {
+				cLo = 0;
+				cHi = hi & -hi;
+			}
+			while (true) {
+				long nLo = dilateLo(cLo, cHi) & lo;
+				long nHi = dilateHi(cLo, cHi) & hi;
+				if (nLo == cLo && nHi == cHi)
+					break;
+				cLo = nLo;
+				cHi = nHi;
+			}
+			int size = Long.bitCount(cLo) + Long.bitCount(cHi);
+			if (size > best)
+				best = size;
+			remaining -= size;
+			lo &= ~cLo;
+			hi &= ~cHi;
+		}
+		return best;
+	}
+
+	/** Anzahl der einzelnen Schwärme der Maske. */
+	public static int componentCount(long lo, long hi) {
+		int count = 0;
+		while ((lo | hi) != 0) {
+			long cLo, cHi;
+			if (lo != 0) {
+				cLo = lo & -lo;
+				cHi = 0;
+			} else {
+				cLo = 0;
+				cHi = hi & -hi;
+			}
+			while (true) {
+				long nLo = dilateLo(cLo, cHi) & lo;
+				long nHi = dilateHi(cLo, cHi) & hi;
+				if (nLo == cLo && nHi == cHi)
+					break;
+				cLo = nLo;
+				cHi = nHi;
+			}
+			count++;
+			lo &= ~cLo;
+			hi &= ~cHi;
+		}
+		return count;
+	}
+
+}
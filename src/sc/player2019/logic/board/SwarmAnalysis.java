@@ -0,0 +1,186 @@
+package sc.player2019.logic.board;
+
+/**
+ * Sucht die Fische, die einen Schwarm zusammenhalten (Artikulationspunkte im
+ * Graphen der benachbarten Fische). Wird so ein Fisch gefressen oder bewegt,
+ * zerfällt sein Schwarm in mehrere Teile. <br>
+ * Die Analyse läuft in linearer Zeit nach Tarjan über die Bitmasken einer
+ * Farbe. Zusätzlich wird für jeden Fisch festgehalten, wie groß der größte
+ * Schwarm nach seinem Entfernen noch ist, damit Strategien Fressmoves und
+ * Verteidigungsmoves danach bewerten können. <br>
+ * Ein Objekt kann beliebig oft wiederverwendet werden, ist aber nicht
+ * threadsicher.
+ */
+public final class SwarmAnalysis {
+
+	private final int[] discovery = new int[BitBoard.SQUARES];
+	private final int[] low = new int[BitBoard.SQUARES];
+	/** Größe des Teilbaums im Tiefensuchbaum */
+	private final int[] size = new int[BitBoard.SQUARES];
+	/** Anzahl der Fische, die nur über den Fisch am Schwarm hängen */
+	private final int[] separated = new int[BitBoard.SQUARES];
+	/** Anzahl der Teilbäume, die nur über den Fisch am Schwarm hängen */
+	private final int[] separatedParts = new int[BitBoard.SQUARES];
+	/** Größter Teilbaum, der nur über den Fisch am Schwarm hängt */
+	private final int[] largestPart = new int[BitBoard.SQUARES];
+	private final int[] component = new int[BitBoard.SQUARES];
+	private final int[] componentSize = new int[BitBoard.SQUARES];
+
+	private long lo;
+	private long hi;
+	private long visitedLo;
+	private long visitedHi;
+	private long cutLo;
+	private long cutHi;
+	private int time;
+	private int components;
+	private int largestIndex;
+	private int largest;
+	private int secondLargest;
+
+	/**
+	 * Analysiert die Fische der übergebenen Maske.
+	 */
+	public void analyse(long lo, long hi) {
+		this.lo = lo;
+		this.hi = hi;
+		visitedLo = visitedHi = 0;
+		cutLo = cutHi = 0;
+		time = 0;
+		components = 0;
+		largestIndex = -1;
+		largest = secondLargest = 0;
+
+		while ((lo & ~visitedLo | hi & ~visitedHi) != 0) {
+			long restLo = lo & ~visitedLo;
+			int root = restLo != 0 ? Long.numberOfTrailingZeros(restLo)
+					: 64 + Long.numberOfTrailingZeros(hi & ~visitedHi);
+			visit(root, -1);
+			int sz = size[root];
+			componentSize[components] = sz;
+			if (sz > largest) {
+				secondLargest = largest;
+				largest = sz;
+				largestIndex = components;
+			} else if (sz > secondLargest) {
+				secondLargest = sz;
+			}
+			components++;
+		}
+		for (long m = lo; m != 0; m &= m - 1)
+			markIfCut(Long.numberOfTrailingZeros(m));
+		for (long m = hi; m != 0; m &= m - 1)
+			markIfCut(64 + Long.numberOfTrailingZeros(m));
+	}
+
+	/** Analysiert die Fische der Farbe in der Stellung. */
+	public void analyse(BitBoard board, int colour) {
+		analyse(board.lo(colour), board.hi(colour));
+	}
+
+	private void visit(int v, int parent) {
+		if (v < 64)
+			visitedLo |= 1L << v;
+		else
+			visitedHi |= 1L << (v - 64);
+		discovery[v] = low[v] = ++time;
+		component[v] = components;
+		size[v] = 1;
+		separated[v] = 0;
+		separatedParts[v] = 0;
+		largestPart[v] = 0;
+		long nLo = Swarm.NEIGHBOURS_LO[v] & lo;
+		long nHi = Swarm.NEIGHBOURS_HI[v] & hi;
+		while ((nLo | nHi) != 0) {
+			int w;
+			if (nLo != 0) {
+				w = Long.numberOfTrailingZeros(nLo);
+				nLo &= nLo - 1;
+			} else {
+				w = 64 + Long.numberOfTrailingZeros(nHi);
+				nHi &= nHi - 1;
+			}
+			if (w == parent)
+				continue;
+			boolean visited = w < 64 ? (visitedLo >>> w & 1) != 0 : (visitedHi >>> (w - 64) & 1) != 0;
+			if (!visited) {
+				visit(w, v);
+				size[v] += size[w];
+				if (low[w] < low[v])
+					low[v] = low[w];
+				if (low[w] >= discovery[v]) {
+					// der Teilbaum von w hängt nur über v am Rest des Schwarms (bei der
+					// Wurzel gilt das für jedes Kind)
+					separated[v] += size[w];
+					separatedParts[v]++;
+					if (size[w] > largestPart[v])
+						largestPart[v] = size[w];
+				}
+			} else if (discovery[w] < low[v]) {
+				low[v] = discovery[w];
+			}
+		}
+	}
+
+	private void markIfCut(int sq) {
+		if (partsAfterRemoval(sq) > 1) {
+			if (sq < 64)
+				cutLo |= 1L << sq;
+			else
+				cutHi |= 1L << (sq - 64);
+		}
+	}
+
+	/** Fische, die nicht über den Fisch, sondern über seine Vorfahren hängen */
+	private int rest(int sq) {
+		return componentSize[component[sq]] - 1 - separated[sq];
+	}
+
+	/**
+	 * Anzahl der Teile, in die der Schwarm des Fisches zerfällt, wenn der Fisch
+	 * entfernt wird. 0 bedeutet, dass der Fisch allein war.
+	 */
+	public int partsAfterRemoval(int sq) {
+		return separatedParts[sq] + (rest(sq) > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Größe des größten Schwarms der Farbe, nachdem der Fisch auf dem Feld entfernt
+	 * wurde. Das Feld muss einen Fisch der analysierten Maske enthalten.
+	 */
+	public int largestAfterRemoval(int sq) {
+		int own = Math.max(largestPart[sq], rest(sq));
+		int other = component[sq] == largestIndex ? secondLargest : largest;
+		return Math.max(own, other);
+	}
+
+	/** true, wenn das Entfernen des Fisches seinen Schwarm trennt. */
+	public boolean isCut(int sq) {
+		return sq < 64 ? (cutLo >>> sq & 1) != 0 : (cutHi >>> (sq - 64) & 1) != 0;
+	}
+
+	/** Alle trennenden Fische auf den Feldern 0 bis 63. */
+	public long cutLo() {
+		return cutLo;
+	}
+
+	/** Alle trennenden Fische auf den Feldern 64 bis 99. */
+	public long cutHi() {
+		return cutHi;
+	}
+
+	public int cutCount() {
+		return Long.bitCount(cutLo) + Long.bitCount(cutHi);
+	}
+
+	/** Anzahl der einzelnen Schwärme. */
+	public int components() {
+		return components;
+	}
+
+	/** Größe des größten Schwarms. */
+	public int largest() {
+		return largest;
+	}
+
+}
@@ -0,0 +1,187 @@
+package sc.player2019.logic.board;
+
+import java.util.Arrays;
+
+/**
+ * Zwischenspeicher für Schwarmberechnungen. Die Schwärme einer Farbe hängen nur
+ * von deren Bitmaske ab, und in einer Suche haben viele benachbarte Knoten für
+ * mindestens eine Farbe dieselbe Maske. Zu jeder Maske werden der größte
+ * Schwarm, die Anzahl der Schwärme und ob sie zusammenhängt einmal per
+ * Flutfüllung berechnet und danach mit einem Zugriff gelesen. <br>
+ * Der Speicher ist direkt adressiert, eine neue Maske verdrängt die alte im
+ * selben Eintrag. Jeder Eintrag besteht aus zwei Wörtern: Das erste
+ * enthält die oberen 36 Bit der Maske und das Ergebnis, das zweite die unteren
+ * 64 Bit der Maske XOR das erste. Ein Treffer braucht die ganze
+ * Maske, Kollisionen sind also ausgeschlossen. Schreiben zwei Threads
+ * gleichzeitig in einen Eintrag, passen die Wörter nicht mehr zusammen und der
+ * Eintrag gilt als Fehlschlag, daher kommt der Speicher ohne Sperren aus und
+ * kann von allen Spielen einer JVM geteilt werden ({@link #getShared()}). <br>
+ * Ein Zugriff kostet etwa so viel wie ein Speicherzugriff außerhalb des
+ * Prozessor-Caches. Das lohnt sich für den größten Schwarm, nicht aber für die
+ * Frage, ob eine Farbe zusammenhängt: Die Flutfüllung von einem Fisch aus ist
+ * schneller, deshalb rechnen {@link BitBoard#isConnected(int)} und
+ * {@link ThreatDetector} weiter direkt. <br>
+ * Die Zähler für Treffer und Fehlschläge werden ohne Synchronisation erhöht und
+ * sind bei gleichzeitiger Nutzung durch mehrere Threads nur ungefähr.
+ */
+public final class SwarmCache {
+
+	/** Standardgröße: 2^16 Einträge, 1 MB */
+	public static final int DEFAULT_BITS = 16;
+
+	/**
+	 * Der gemeinsame Speicher, den {@link BitBoard#points(int)} nutzt. Wird nur
+	 * vor dem ersten Spiel ersetzt und ist deshalb nicht volatile.
+	 */
+	private static SwarmCache shared = new SwarmCache(DEFAULT_BITS);
+
+	private static final int LARGEST_SHIFT = 36;
+	private static final int COMPONENTS_SHIFT = 41;
+	private static final long CONNECTED = 1L << 46;
+	/** Unterscheidet einen belegten Eintrag vom leeren Anfangszustand */
+	private static final long VALID = 1L << 47;
+
+	private static volatile boolean enabled = true;
+
+	/** Je Eintrag zwei Wörter nebeneinander, damit ein Zugriff nur eine Cache-Zeile braucht */
+	private final long[] table;
+	private final int mask;
+	private long hits;
+	private long misses;
+
+	public SwarmCache(int bits) {
+		table = new long[2 << bits];
+		mask = (1 << bits) - 1;
+	}
+
+	/**
+	 * Schaltet den gemeinsamen Speicher ein oder aus. Ausgeschaltet rechnet
+	 * {@link BitBoard#points(int)} jedes Mal neu, etwa zum Vergleich in
+	 * Benchmarks.
+	 */
+	public static void setEnabled(boolean enabled) {
+		SwarmCache.enabled = enabled;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/** Der gemeinsame Speicher, den {@link BitBoard#points(int)} nutzt. */
+	public static SwarmCache getShared() {
+		return shared;
+	}
+
+	/**
+	 * Ersetzt den gemeinsamen Speicher, etwa durch einen nach dem Speicherbudget
+	 * bemessenen. Nur aufrufen, solange noch keine Suche läuft.
+	 */
+	public static void setShared(SwarmCache cache) {
+		shared = cache;
+	}
+
+	/** Größe des größten Schwarms der Maske. */
+	public int largest(long lo, long hi) {
+		return (int) (lookup(lo, hi) >>> LARGEST_SHIFT) & 0x1F;
+	}
+
+	/** Anzahl der einzelnen Schwärme der Maske. */
+	public int componentCount(long lo, long hi) {
+		return (int) (lookup(lo, hi) >>> COMPONENTS_SHIFT) & 0x1F;
+	}
+
+	/** Prüft, ob alle Fische der Maske einen zusammenhängenden Schwarm bilden. */
+	public boolean isConnected(long lo, long hi) {
+		return (lookup(lo, hi) & CONNECTED) != 0;
+	}
+
+	/**
+	 * @return Das Datenwort des Eintrags zur Maske, bei einem Fehlschlag neu
+	 *         berechnet und gespeichert
+	 */
+	private long lookup(long lo, long hi) {
+		int i = index(lo, hi) << 1;
+		long d = table[i];
+		long c = table[i + 1];
+		if ((c ^ d) == lo && (d & BitBoard.HI_MASK) == hi && (d & VALID) != 0) {
+			hits++;
+			return d;
+		}
+		misses++;
+		d = compute(lo, hi);
+		table[i] = d;
+		table[i + 1] = lo ^ d;
+		return d;
+	}
+
+	private int index(long lo, long hi) {
+		long h = lo * 0x9E3779B97F4A7C15L ^ hi * 0xC2B2AE3D27D4EB4FL;
+		return (int) (h ^ h >>> 29) & mask;
+	}
+
+	/** Alle Schwärme der Maske per Flutfüllung, gepackt in ein Datenwort. */
+	private static long compute(long lo, long hi) {
+		long maskHi = hi;
+		int components = 0;
+		int largest = 0;
+		while ((lo | hi) != 0) {
+			long cLo, cHi;
+			if (lo != 0) {
+				cLo = lo & -lo;
+				cHi = 0;
+			} else {
+				cLo = 0;
+				cHi = hi & -hi;
+			}
+			while (true) {
+				long nLo = Swarm.dilateLo(cLo, cHi) & lo;
+				long nHi = Swarm.dilateHi(cLo, cHi) & hi;
+				if (nLo == cLo && nHi == cHi)
+					break;
+				cLo = nLo;
+				cHi = nHi;
+			}
+			components++;
+			largest = Math.max(largest, Long.bitCount(cLo) + Long.bitCount(cHi));
+			lo &= ~cLo;
+			hi &= ~cHi;
+		}
+		// eine leere Maske gilt wie im Plugin als zusammenhängend
+		return maskHi | (long) largest << LARGEST_SHIFT | (long) components << COMPONENTS_SHIFT
+				| (components <= 1 ? CONNECTED : 0) | VALID;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	/** Anteil der Treffer in Prozent. */
+	public double getHitRate() {
+		long total = hits + misses;
+		return total > 0 ? hits * 100.0 / total : 0;
+	}
+
+	public void resetStats() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/** Leert den Speicher, die Zähler bleiben. */
+	public void clear() {
+		Arrays.fill(table, 0);
+	}
+
+	public int size() {
+		return mask + 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d Treffer, %d Fehlschläge (%.1f %%)", hits, misses, getHitRate());
+	}
+
+}
@@ -0,0 +1,74 @@
+package sc.player2019.logic.board;
+
+/**
+ * Erkennt Moves, mit denen ein Spieler seinen Schwarm vereint und damit
+ * gewinnt. <br>
+ * Statt für jeden Move einen GameState zu klonen, werden nur die Bitmasken der
+ * Farbe verändert: Der Fisch verschwindet vom Startfeld und erscheint auf dem
+ * Zielfeld. Ob dabei ein gegnerischer Fisch gefressen wird, spielt für den
+ * Schwarm des ziehenden Spielers keine Rolle.
+ */
+public final class ThreatDetector {
+
+	private ThreatDetector() {
+		throw new IllegalStateException("Can't be instantiated.");
+	}
+
+	/**
+	 * Prüft, ob die Farbe in der Stellung einen Move hat, der ihren Schwarm
+	 * vereint.
+	 *
+	 * @param board  Die Stellung
+	 * @param colour Die Farbe, deren Moves geprüft werden
+	 * @param moves  Ein Puffer mit mindestens {@link BitBoard#MAX_MOVES} Einträgen
+	 * @return true, wenn es mindestens einen solchen Move gibt
+	 */
+	public static boolean hasWinningMove(BitBoard board, int colour, int[] moves) {
+		int count = board.generateMoves(colour, moves);
+		for (int i = 0; i < count; i++) {
+			if (connectsSwarm(board, colour, moves[i]))
+				return true;
+		}
+		return false;
+	}
+
+	public static boolean hasWinningMove(BitBoard board, int colour) {
+		return hasWinningMove(board, colour, new int[BitBoard.MAX_MOVES]);
+	}
+
+	/**
+	 * Schreibt alle Moves der Farbe, die ihren Schwarm vereinen, in
+	 * <code>out</code>.
+	 *
+	 * @return Die Anzahl der gefundenen Moves
+	 */
+	public static int winningMoves(BitBoard board, int colour, int[] out) {
+		int count = board.generateMoves(colour, out);
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			if (connectsSwarm(board, colour, out[i]))
+				out[found++] = out[i];
+		}
+		return found;
+	}
+
+	/**
+	 * Prüft, ob der Schwarm der Farbe nach dem Move zusammenhängend ist.
+	 */
+	public static boolean connectsSwarm(BitBoard board, int colour, int move) {
+		int from = BitBoard.from(move);
+		int to = BitBoard.to(move);
+		long lo = board.lo(colour);
+		long hi = board.hi(colour);
+		if (from < 64)
+			lo &= ~(1L << from);
+		else
+			hi &= ~(1L << (from - 64));
+		if (to < 64)
+			lo |= 1L << to;
+		else
+			hi |= 1L << (to - 64);
+		return Swarm.isConnected(lo, hi);
+	}
+
+}
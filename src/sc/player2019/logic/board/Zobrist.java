@@ -0,0 +1,71 @@
+package sc.player2019.logic.board;
+
+import java.util.Random;
+
+/**
+ * Zobrist-Schlüssel für {@link BitBoard}s: Jeder Fisch auf jedem Feld und jeder
+ * Zug des Spiels hat eine feste Zufallszahl, der Schlüssel einer Stellung ist
+ * deren XOR. Der Zug steht mit im Schlüssel, weil Rundenlimit und Spieler am
+ * Zug davon abhängen. Die Hindernisse stehen nicht darin, sie ändern sich
+ * während eines Spiels nicht. <br>
+ * {@link #child(BitBoard, long, int)} berechnet den Schlüssel nach einem Move
+ * aus dem vorherigen, ohne die Stellung zu durchlaufen.
+ */
+public final class Zobrist {
+
+	/** So viele Züge werden unterschieden, danach wiederholen sich die Zahlen */
+	private static final int TURNS = 128;
+
+	/** [Farbe][Feld] */
+	private static final long[][] FISH = new long[2][BitBoard.SQUARES];
+	private static final long[] TURN = new long[TURNS];
+
+	static {
+		// fester Startwert, damit Schlüssel zwischen Läufen vergleichbar sind
+		Random random = new Random(0x5069726168L);
+		for (int colour = 0; colour < 2; colour++) {
+			for (int sq = 0; sq < BitBoard.SQUARES; sq++)
+				FISH[colour][sq] = random.nextLong();
+		}
+		for (int turn = 0; turn < TURNS; turn++)
+			TURN[turn] = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/** Der Schlüssel einer Stellung. */
+	public static long key(BitBoard board) {
+		long key = TURN[board.turn & (TURNS - 1)];
+		for (int colour = 0; colour < 2; colour++) {
+			long l = board.lo[colour];
+			while (l != 0) {
+				key ^= FISH[colour][Long.numberOfTrailingZeros(l)];
+				l &= l - 1;
+			}
+			long h = board.hi[colour];
+			while (h != 0) {
+				key ^= FISH[colour][64 + Long.numberOfTrailingZeros(h)];
+				h &= h - 1;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Der Schlüssel der Stellung nach einem Move des Spielers am Zug.
+	 *
+	 * @param board Die Stellung vor dem Move
+	 * @param key   Der Schlüssel von <code>board</code>
+	 */
+	public static long child(BitBoard board, long key, int move) {
+		int colour = board.current;
+		int from = BitBoard.from(move);
+		int to = BitBoard.to(move);
+		key ^= FISH[colour][from] ^ FISH[colour][to];
+		if (board.test(1 - colour, to))
+			key ^= FISH[1 - colour][to];
+		return key ^ TURN[board.turn & (TURNS - 1)] ^ TURN[(board.turn + 1) & (TURNS - 1)];
+	}
+
+}
@@ -0,0 +1,94 @@
+package sc.player2019.logic.nnue;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Die Summen der ersten Schicht für beide Sichten (Rot und Blau). Statt sie für
+ * jede Stellung neu zu berechnen, werden bei einem Move nur die Gewichte des
+ * Start- und Zielfeldes und eines gefressenen Fisches abgezogen bzw. addiert.
+ */
+public final class Accumulator {
+
+	/** [Sicht][Neuron] */
+	final short[][] values;
+	private final NnueWeights weights;
+
+	public Accumulator(NnueWeights weights) {
+		this.weights = weights;
+		this.values = new short[2][weights.hidden];
+	}
+
+	/** Berechnet beide Sichten vollständig aus der Stellung. */
+	public void refresh(BitBoard board) {
+		for (int perspective = BitBoard.RED; perspective <= BitBoard.BLUE; perspective++) {
+			short[] acc = values[perspective];
+			System.arraycopy(weights.inputBias, 0, acc, 0, acc.length);
+			for (int colour = BitBoard.RED; colour <= BitBoard.BLUE; colour++) {
+				long lo = board.lo(colour);
+				while (lo != 0) {
+					add(acc, NnueWeights.feature(perspective, colour, Long.numberOfTrailingZeros(lo)));
+					lo &= lo - 1;
+				}
+				long hi = board.hi(colour);
+				while (hi != 0) {
+					add(acc, NnueWeights.feature(perspective, colour, 64 + Long.numberOfTrailingZeros(hi)));
+					hi &= hi - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Übernimmt die Summen von <code>parent</code> und wendet den Move an, den der
+	 * Spieler am Zug in <code>board</code> ausführt.
+	 */
+	public void update(Accumulator parent, BitBoard board, int move) {
+		int colour = board.current();
+		int from = BitBoard.from(move);
+		int to = BitBoard.to(move);
+		boolean capture = board.test(1 - colour, to);
+		int hidden = weights.hidden;
+		short[] w = weights.inputWeights;
+		for (int perspective = BitBoard.RED; perspective <= BitBoard.BLUE; perspective++) {
+			short[] src = parent.values[perspective];
+			short[] acc = values[perspective];
+			int removed = NnueWeights.feature(perspective, colour, from) * hidden;
+			int added = NnueWeights.feature(perspective, colour, to) * hidden;
+			if (capture) {
+				int captured = NnueWeights.feature(perspective, 1 - colour, to) * hidden;
+				for (int i = 0; i < hidden; i++)
+					acc[i] = (short) (src[i] - w[removed + i] + w[added + i] - w[captured + i]);
+			} else {
+				for (int i = 0; i < hidden; i++)
+					acc[i] = (short) (src[i] - w[removed + i] + w[added + i]);
+			}
+		}
+	}
+
+	private void add(short[] acc, int feature) {
+		short[] w = weights.inputWeights;
+		int offset = feature * weights.hidden;
+		for (int i = 0; i < acc.length; i++)
+			acc[i] += w[offset + i];
+	}
+
+	/**
+	 * Die Ausgabe des Netzes aus Sicht des Spielers <code>perspective</code>,
+	 * skaliert mit QA * QB.
+	 */
+	public long output(int perspective) {
+		short[] own = values[perspective];
+		short[] other = values[1 - perspective];
+		short[] w = weights.outputWeights;
+		int hidden = weights.hidden;
+		long sum = weights.outputBias;
+		for (int i = 0; i < hidden; i++)
+			sum += clamp(own[i]) * w[i] + clamp(other[i]) * w[hidden + i];
+		return sum;
+	}
+
+	private static int clamp(int value) {
+		return value < 0 ? 0 : value > NnueWeights.QA ? NnueWeights.QA : value;
+	}
+
+}
@@ -0,0 +1,66 @@
+package sc.player2019.logic.nnue;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.search.Evaluator;
+import sc.player2019.logic.search.Search;
+
+/**
+ * Bewertet Stellungen mit einem kleinen neuronalen Netz ({@link NnueWeights}).
+ * Während einer {@link Search} liegt für jede Tiefe ein {@link Accumulator}
+ * bereit, der beim Ausführen eines Moves aus dem der vorherigen Tiefe
+ * abgeleitet wird. Die Bewertung kostet dann nur noch die zweite Schicht. <br>
+ * Die Ausgabe ist wie beim {@link sc.player2019.logic.search.PointsEvaluator}
+ * in Punkten, das Netz wird darauf trainiert. Ein Objekt gehört zu genau einer
+ * Suche, die Gewichte können geteilt werden.
+ */
+public class NnueEvaluator implements Evaluator {
+
+	/** Höchstbetrag einer Bewertung, damit sie deutlich unter {@link Search#WIN} bleibt */
+	static final int MAX_SCORE = 1000;
+
+	private final NnueWeights weights;
+	private final Accumulator[] stack = new Accumulator[Search.MAX_PLY + 1];
+	private final Accumulator scratch;
+
+	public NnueEvaluator(NnueWeights weights) {
+		this.weights = weights;
+		for (int i = 0; i < stack.length; i++)
+			stack[i] = new Accumulator(weights);
+		scratch = new Accumulator(weights);
+	}
+
+	/**
+	 * Bewertet eine einzelne Stellung ohne Suche, die Summen werden dafür
+	 * vollständig berechnet.
+	 */
+	@Override
+	public int evaluate(BitBoard board) {
+		scratch.refresh(board);
+		return score(scratch, board.current());
+	}
+
+	@Override
+	public int evaluate(BitBoard board, int ply) {
+		return score(stack[ply], board.current());
+	}
+
+	@Override
+	public void setRoot(BitBoard board) {
+		stack[0].refresh(board);
+	}
+
+	@Override
+	public void onMove(BitBoard board, int move, int ply) {
+		stack[ply + 1].update(stack[ply], board, move);
+	}
+
+	private static int score(Accumulator acc, int perspective) {
+		long points = Math.round((double) acc.output(perspective) / (NnueWeights.QA * NnueWeights.QB));
+		return (int) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, points));
+	}
+
+	public NnueWeights getWeights() {
+		return weights;
+	}
+
+}
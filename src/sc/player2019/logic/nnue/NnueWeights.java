@@ -0,0 +1,134 @@
+package sc.player2019.logic.nnue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Die quantisierten Gewichte des Netzes. Das Netz hat zwei Schichten:
+ * <ol>
+ * <li>200 Eingänge (eigene und gegnerische Fische auf 100 Feldern, aus Sicht
+ * eines Spielers) auf {@link #getHidden()} Neuronen. Die Summen dieser Schicht
+ * werden im {@link Accumulator} schrittweise gepflegt. Gewichte und Bias sind
+ * mit {@link #QA} skaliert.</li>
+ * <li>Die auf [0, QA] begrenzten Neuronen beider Sichten (zuerst die des
+ * Spielers am Zug) auf eine Ausgabe. Gewichte mit {@link #QB} skaliert, der
+ * Bias mit QA * QB.</li>
+ * </ol>
+ * Die Gewichte werden nur gelesen und können von beliebig vielen
+ * {@link NnueEvaluator}en gleichzeitig genutzt werden. <br>
+ * Dateiformat (big endian): Kennung {@link #MAGIC}, Anzahl der Neuronen als
+ * int, dann als short die Gewichte der ersten Schicht (Eingang für Eingang),
+ * deren Bias, die Gewichte der zweiten Schicht und zuletzt deren Bias als int.
+ */
+public final class NnueWeights {
+
+	/** "PNN1" */
+	public static final int MAGIC = 0x504E4E31;
+	/** Eingänge: eigene Fische, dann gegnerische Fische */
+	public static final int INPUTS = 2 * BitBoard.SQUARES;
+	/** Skalierung der ersten Schicht, zugleich Obergrenze der Aktivierung */
+	public static final int QA = 255;
+	/** Skalierung der zweiten Schicht */
+	public static final int QB = 64;
+
+	final int hidden;
+	/** [Eingang * hidden + Neuron] */
+	final short[] inputWeights;
+	final short[] inputBias;
+	/** [Neuron] für die Sicht am Zug, [hidden + Neuron] für die andere */
+	final short[] outputWeights;
+	final int outputBias;
+
+	public NnueWeights(int hidden, short[] inputWeights, short[] inputBias, short[] outputWeights, int outputBias) {
+		if (inputWeights.length != INPUTS * hidden || inputBias.length != hidden
+				|| outputWeights.length != 2 * hidden)
+			throw new IllegalArgumentException("Die Gewichte passen nicht zu " + hidden + " Neuronen.");
+		this.hidden = hidden;
+		this.inputWeights = inputWeights;
+		this.inputBias = inputBias;
+		this.outputWeights = outputWeights;
+		this.outputBias = outputBias;
+	}
+
+	public int getHidden() {
+		return hidden;
+	}
+
+	/**
+	 * Der Eingang für einen Fisch aus Sicht eines Spielers. Für Blau wird das Brett
+	 * an der Diagonalen gespiegelt, damit beide Farben dieselbe Startaufstellung
+	 * sehen.
+	 */
+	public static int feature(int perspective, int colour, int sq) {
+		int oriented = perspective == BitBoard.RED ? sq : BitBoard.square(BitBoard.y(sq), BitBoard.x(sq));
+		return (colour == perspective ? 0 : BitBoard.SQUARES) + oriented;
+	}
+
+	public static NnueWeights load(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException(file + " ist keine Gewichtsdatei.");
+			int hidden = in.readInt();
+			if (hidden <= 0 || hidden > 4096)
+				throw new IOException("Ungültige Anzahl an Neuronen: " + hidden);
+			short[] inputWeights = readShorts(in, INPUTS * hidden);
+			short[] inputBias = readShorts(in, hidden);
+			short[] outputWeights = readShorts(in, 2 * hidden);
+			int outputBias = in.readInt();
+			return new NnueWeights(hidden, inputWeights, inputBias, outputWeights, outputBias);
+		} finally {
+			in.close();
+		}
+	}
+
+	public void save(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(hidden);
+			writeShorts(out, inputWeights);
+			writeShorts(out, inputBias);
+			writeShorts(out, outputWeights);
+			out.writeInt(outputBias);
+		} finally {
+			out.close();
+		}
+	}
+
+	/** Zufällige Gewichte, etwa für Messungen ohne trainiertes Netz. */
+	public static NnueWeights random(int hidden, Random random) {
+		short[] inputWeights = new short[INPUTS * hidden];
+		short[] inputBias = new short[hidden];
+		short[] outputWeights = new short[2 * hidden];
+		for (int i = 0; i < inputWeights.length; i++)
+			inputWeights[i] = (short) (random.nextGaussian() * QA / 8);
+		for (int i = 0; i < hidden; i++)
+			inputBias[i] = (short) (random.nextGaussian() * QA / 8);
+		for (int i = 0; i < outputWeights.length; i++)
+			outputWeights[i] = (short) (random.nextGaussian() * QB / 4);
+		return new NnueWeights(hidden, inputWeights, inputBias, outputWeights, 0);
+	}
+
+	private static short[] readShorts(DataInputStream in, int count) throws IOException {
+		short[] values = new short[count];
+		for (int i = 0; i < count; i++)
+			values[i] = in.readShort();
+		return values;
+	}
+
+	private static void writeShorts(DataOutputStream out, short[] values) throws IOException {
+		for (short v : values)
+			out.writeShort(v);
+	}
+
+}
@@ -0,0 +1,193 @@
+package sc.player2019.logic.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Eine Transpositionstabelle in einer Datei, die in den Speicher abgebildet
+ * wird. Alle Clients, die dieselbe Datei öffnen, lesen und schreiben dieselben
+ * Einträge, auch gleichzeitig, und ein neu gestarteter Client findet die
+ * Ergebnisse der vorherigen wieder. Gespeichert werden nur Knoten mit
+ * mindestens {@link #MIN_DEPTH} Resttiefe, also die teuren in der Nähe der
+ * Wurzel. <br>
+ * Die Einträge haben dasselbe Format wie in der {@link TranspositionTable}, nur
+ * steht an Stelle der Generation die Epoche der Datei: Jedes
+ * {@link #open(File, int)} erhöht sie um eins. Einträge, die {@link #MAX_AGE}
+ * Epochen alt sind, werden immer ersetzt, jüngere nur von gleich tiefen oder
+ * tieferen Ergebnissen. Die Größe der Datei wird beim Anlegen festgelegt und
+ * ändert sich danach nicht. <br>
+ * Jeder Eintrag besteht aus zwei Wörtern, dem Wert und dem Schlüssel XOR dem
+ * Wert. Schreiben zwei Prozesse gleichzeitig in einen Eintrag, passen die
+ * Wörter nicht mehr zusammen und der Eintrag wird wie ein fehlender behandelt;
+ * deshalb kommt die Tabelle ohne Sperren aus. Nur das Erhöhen der Epoche sperrt
+ * kurz den Kopf der Datei. Die Zähler für {@link #toString()} sind bei
+ * mehreren Threads nur ungefähr. <br>
+ * Der Schlüssel einer Stellung ist ihr Zobrist-Schlüssel XOR {@link #salt}: Die
+ * Hindernisse ändern sich von Spiel zu Spiel, und verschiedene Bewertungen
+ * liefern verschiedene Werte. Clients mit verschiedenen Netzen sollten
+ * verschiedene Dateien nutzen. <br>
+ * Dateiformat (big endian): Kennung {@link #MAGIC}, Anzahl der Einträge,
+ * Epoche, aufgefüllt auf {@link #HEADER} Bytes, dann je Eintrag zwei long.
+ */
+public final class AnalysisCache {
+
+	/** "PAC1" */
+	public static final int MAGIC = 0x50414331;
+	/** Nur Knoten mit so viel Resttiefe werden gespeichert und gefragt */
+	public static final int MIN_DEPTH = 3;
+	/** Einträge, die so viele Epochen alt sind, werden immer ersetzt */
+	public static final int MAX_AGE = 16;
+	/** Größe in MB, wenn beim Anlegen keine angegeben ist */
+	public static final int DEFAULT_MB = 64;
+
+	static final int HEADER = 64;
+	private static final int EPOCH_OFFSET = 8;
+	/** Das Mapping ist auf 2 GB begrenzt */
+	private static final int MAX_MB = 1024;
+
+	private static volatile AnalysisCache shared;
+
+	private final File file;
+	private final MappedByteBuffer data;
+	private final int mask;
+	private final int epoch;
+	private long probes;
+	private long hits;
+	private long stores;
+
+	private AnalysisCache(File file, MappedByteBuffer data, int epoch) throws IOException {
+		this.file = file;
+		this.data = data;
+		this.epoch = epoch & 0xFF;
+		int entries = data.getInt(4);
+		if (data.getInt(0) != MAGIC || Integer.bitCount(entries) != 1
+				|| (long) HEADER + 16L * entries > data.capacity())
+			throw new IOException(file + " ist keine Analysedatei.");
+		mask = entries - 1;
+	}
+
+	/**
+	 * Öffnet die Datei oder legt sie an und beginnt eine neue Epoche.
+	 *
+	 * @param megabytes Die Größe einer neuen Datei, wird auf eine Zweierpotenz
+	 *                  abgerundet; eine vorhandene Datei behält ihre Größe
+	 */
+	public static AnalysisCache open(File file, int megabytes) throws IOException {
+		if (megabytes < 1 || megabytes > MAX_MB)
+			throw new IllegalArgumentException("Die Größe muss zwischen 1 und " + MAX_MB + " MB liegen.");
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = raf.getChannel();
+			int epoch;
+			// nur einer legt die Datei an und erhöht die Epoche
+			FileLock lock = channel.lock(0, HEADER, false);
+			try {
+				if (channel.size() < HEADER) {
+					int entries = Integer.highestOneBit(megabytes) * (1 << 20) / 16;
+					raf.setLength(HEADER + 16L * entries);
+					raf.seek(0);
+					raf.writeInt(MAGIC);
+					raf.writeInt(entries);
+				}
+				raf.seek(EPOCH_OFFSET);
+				epoch = raf.readInt() + 1;
+				raf.seek(EPOCH_OFFSET);
+				raf.writeInt(epoch);
+			} finally {
+				lock.release();
+			}
+			// das Mapping bleibt gültig, wenn der Kanal geschlossen wird
+			return new AnalysisCache(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()), epoch);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Die Tabelle, die jede neue {@link Search} dieses Prozesses nutzt, oder
+	 * null.
+	 */
+	public static AnalysisCache getShared() {
+		return shared;
+	}
+
+	public static void setShared(AnalysisCache cache) {
+		shared = cache;
+	}
+
+	/**
+	 * Der Teil des Schlüssels, der während eines Spiels gleich bleibt: die
+	 * Hindernisse und die Bewertung.
+	 */
+	static long salt(BitBoard board, Evaluator evaluator) {
+		long h = board.obstacleLo() * 0x9E3779B97F4A7C15L ^ board.obstacleHi() * 0xC2B2AE3D27D4EB4FL
+				^ evaluator.getClass().getName().hashCode() * 0x165667B19E3779F9L;
+		return h ^ h >>> 31;
+	}
+
+	/**
+	 * @return Der Eintrag im Format der {@link TranspositionTable} oder 0, wenn
+	 *         es keinen gibt
+	 */
+	long probe(long key) {
+		probes++;
+		int offset = HEADER + (((int) key & mask) << 4);
+		long value = data.getLong(offset);
+		if (value == 0 || (data.getLong(offset + 8) ^ value) != key)
+			return 0;
+		hits++;
+		return value;
+	}
+
+	void store(long key, int move, int score, int depth, int bound) {
+		int offset = HEADER + (((int) key & mask) << 4);
+		long old = data.getLong(offset);
+		if (old != 0 && ((epoch - TranspositionTable.generation(old)) & 0xFF) < MAX_AGE
+				&& TranspositionTable.depth(old) > depth)
+			return;
+		// ohne neuen Move bleibt der alte der Stellung erhalten
+		if (move == 0 && (data.getLong(offset + 8) ^ old) == key)
+			move = TranspositionTable.move(old);
+		long value = TranspositionTable.pack(move, score, depth, bound, epoch);
+		data.putLong(offset, value);
+		data.putLong(offset + 8, key ^ value);
+		stores++;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int size() {
+		return mask + 1;
+	}
+
+	public int getEpoch() {
+		return epoch;
+	}
+
+	/** Anteil der Einträge aus den letzten {@link #MAX_AGE} Epochen, in Promille. */
+	public int usage() {
+		int used = 0;
+		int sample = Math.min(1000, size());
+		for (int i = 0; i < sample; i++) {
+			long value = data.getLong(HEADER + (i << 4));
+			if (value != 0 && ((epoch - TranspositionTable.generation(value)) & 0xFF) < MAX_AGE)
+				used++;
+		}
+		return used * 1000 / sample;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d Einträge, Epoche %d, %d ‰ belegt, %d Treffer bei %d Anfragen, %d gespeichert",
+				file.getName(), size(), epoch, usage(), hits, probes, stores);
+	}
+
+}
@@ -0,0 +1,42 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Bewertet eine ruhige Stellung ohne weitere Suche. <br>
+ * Bewertungen, die sich pro Move schrittweise aktualisieren (etwa ein
+ * neuronales Netz mit Akkumulator), werden von der {@link Search} über
+ * {@link #setRoot(BitBoard)} und {@link #onMove(BitBoard, int, int)} über jede
+ * ausgeführte Stellung informiert. Die Tiefe <code>ply</code> entspricht dabei
+ * dem Stapel der Suche.
+ */
+public interface Evaluator {
+
+	/**
+	 * Bewertet die Stellung aus Sicht des Spielers, der am Zug ist. Positive Werte
+	 * sind gut für ihn. Die Werte müssen deutlich unter {@link Search#WIN}
+	 * liegen.
+	 */
+	int evaluate(BitBoard board);
+
+	/**
+	 * Bewertet die Stellung in der Tiefe <code>ply</code> des Stapels. Ohne
+	 * schrittweise Aktualisierung entspricht das {@link #evaluate(BitBoard)}.
+	 */
+	default int evaluate(BitBoard board, int ply) {
+		return evaluate(board);
+	}
+
+	/** Die Suche beginnt mit dieser Stellung in Tiefe 0. */
+	default void setRoot(BitBoard board) {
+	}
+
+	/**
+	 * Der Move wird auf der Stellung in Tiefe <code>ply</code> ausgeführt, das
+	 * Ergebnis liegt in Tiefe <code>ply + 1</code>. Wird vor dem Ausführen
+	 * aufgerufen.
+	 */
+	default void onMove(BitBoard board, int move, int ply) {
+	}
+
+}
@@ -0,0 +1,40 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Lernt aus den Zügen des Gegners, welche Fische er von welchem Feld in welche
+ * Richtung zieht, und erwartet die Moves, die er bisher am häufigsten gespielt
+ * hat. Bei gleicher Häufigkeit, also auch zu Beginn des Spiels, entscheidet das
+ * {@link GreedyModel}. Ein Objekt ist nicht threadsicher.
+ */
+public class FrequencyModel implements OpponentModel {
+
+	/** Ein gespielter Move zählt so viel wie der größte Unterschied der Punkte */
+	private static final int WEIGHT = 2 * Constants.MAX_FISH;
+
+	private final GreedyModel greedy = new GreedyModel();
+	/** [Startfeld * 8 + Richtung] Anzahl der beobachteten Moves */
+	private final int[] counts = new int[BitBoard.SQUARES * 8];
+
+	@Override
+	public int rate(BitBoard board, int move) {
+		return counts[BitBoard.from(move) * 8 + BitBoard.direction(move)] * WEIGHT + greedy.rate(board, move);
+	}
+
+	@Override
+	public void observe(Move move) {
+		counts[BitBoard.square(move.x, move.y) * 8 + move.direction.ordinal()]++;
+	}
+
+	/** Anzahl der beobachteten Moves */
+	public int getObserved() {
+		int total = 0;
+		for (int count : counts)
+			total += count;
+		return total;
+	}
+
+}
@@ -0,0 +1,51 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.Swarm;
+import sc.player2019.logic.board.SwarmCache;
+
+/**
+ * Erwartet vom Gegner den gierigen Move: den, nach dem sein größter Schwarm im
+ * Vergleich zum eigenen am größten ist, wie es früher die Logik für jede
+ * Antwort angenommen hat. Wie im {@link sc.player2019.logic.board.ThreatDetector}
+ * werden nur die Bitmasken verändert, der Schwarm des anderen Spielers wird
+ * nur nach einem Fressen neu bestimmt.
+ */
+public class GreedyModel implements OpponentModel {
+
+	@Override
+	public int rate(BitBoard board, int move) {
+		int mover = board.current();
+		int other = 1 - mover;
+		int from = BitBoard.from(move);
+		int to = BitBoard.to(move);
+		long lo = board.lo(mover);
+		long hi = board.hi(mover);
+		if (from < 64)
+			lo &= ~(1L << from);
+		else
+			hi &= ~(1L << (from - 64));
+		if (to < 64)
+			lo |= 1L << to;
+		else
+			hi |= 1L << (to - 64);
+		int own = largest(lo, hi);
+		long otherLo = board.lo(other);
+		long otherHi = board.hi(other);
+		if (board.test(other, to)) {
+			if (to < 64)
+				otherLo &= ~(1L << to);
+			else
+				otherHi &= ~(1L << (to - 64));
+		}
+		return own - largest(otherLo, otherHi);
+	}
+
+	/** Wie {@link BitBoard#points(int)} für eine Maske */
+	private static int largest(long lo, long hi) {
+		if (SwarmCache.isEnabled())
+			return SwarmCache.getShared().largest(lo, hi);
+		return Swarm.largest(lo, hi);
+	}
+
+}
@@ -0,0 +1,62 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Move;
+
+/**
+ * Schätzt, welche Antworten der Gegner wahrscheinlich spielt. Ist ein Modell
+ * gesetzt ({@link Search#setOpponentModel(OpponentModel, int)}), durchsucht die
+ * {@link Search} in den Knoten, in denen der Gegner am Zug ist, nur die am
+ * besten bewerteten Antworten. Das ist nicht mehr korrekt, spart aber so viel,
+ * dass die Suche tiefer kommt. <br>
+ * Eine Bewertung muss billig sein, sie wird für jede Antwort jedes solchen
+ * Knotens berechnet.
+ */
+public interface OpponentModel {
+
+	/** Die Modelle, die sich beim Start des Clients wählen lassen */
+	enum Type {
+		/** {@link GreedyModel} */
+		GREEDY("greedy"),
+		/** {@link FrequencyModel} */
+		FREQUENCY("frequency");
+
+		final String label;
+
+		Type(String label) {
+			this.label = label;
+		}
+
+		/** Ein neues Modell dieser Art, jedes Spiel braucht ein eigenes */
+		public OpponentModel create() {
+			return this == GREEDY ? new GreedyModel() : new FrequencyModel();
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		/** Die Art mit dem Namen, wie er beim Start angegeben wird */
+		public static Type parse(String label) {
+			for (Type type : values()) {
+				if (type.label.equals(label))
+					return type;
+			}
+			throw new IllegalArgumentException("Unbekanntes Gegnermodell: " + label);
+		}
+	}
+
+	/**
+	 * Bewertet den Move des Spielers am Zug. Größere Werte bedeuten, dass der
+	 * Move wahrscheinlicher gespielt wird.
+	 */
+	int rate(BitBoard board, int move);
+
+	/**
+	 * Der Gegner hat im Spiel diesen Move gespielt. Modelle, die aus den Zügen
+	 * des Gegners lernen, zählen ihn hier.
+	 */
+	default void observe(Move move) {
+	}
+
+}
@@ -0,0 +1,17 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Bewertet eine Stellung wie bisher die Logik: die eigenen Punkte (größter
+ * Schwarm) abzüglich der Punkte des Gegners.
+ */
+public class PointsEvaluator implements Evaluator {
+
+	@Override
+	public int evaluate(BitBoard board) {
+		int own = board.current();
+		return board.points(own) - board.points(1 - own);
+	}
+
+}
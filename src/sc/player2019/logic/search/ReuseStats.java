@@ -0,0 +1,83 @@
+package sc.player2019.logic.search;
+
+/**
+ * Zählt über ein ganzes Spiel, wie oft eine {@link Search} auf die Ergebnisse
+ * der vorherigen Suche aufbauen konnte. Nach jedem eigenen Zug wird die neue
+ * Wurzel mit der erwarteten Stellung verglichen:
+ * <ul>
+ * <li>vorhergesagt: der Gegner hat den zweiten Move der Hauptvariante
+ * gespielt</li>
+ * <li>abgewichen: der Gegner hat einen anderen Move gespielt, die Wurzel folgt
+ * aber auf den eigenen Move der vorherigen Suche</li>
+ * <li>verfehlt: die Wurzel hängt nicht mit der vorherigen Suche zusammen (erster
+ * Zug, anderer Move gesendet, neues Spiel)</li>
+ * </ul>
+ * Unabhängig davon wird gezählt, wie oft die Wurzel schon in der
+ * {@link TranspositionTable} stand und mit welcher Tiefe.
+ */
+public class ReuseStats {
+
+	long searches;
+	long predicted;
+	long deviated;
+	long missed;
+	long rootHits;
+	long rootHitDepth;
+
+	public void reset() {
+		searches = 0;
+		predicted = 0;
+		deviated = 0;
+		missed = 0;
+		rootHits = 0;
+		rootHitDepth = 0;
+	}
+
+	/** Addiert die Zähler einer anderen Statistik, etwa um mehrere Spiele zusammenzufassen. */
+	public void add(ReuseStats other) {
+		searches += other.searches;
+		predicted += other.predicted;
+		deviated += other.deviated;
+		missed += other.missed;
+		rootHits += other.rootHits;
+		rootHitDepth += other.rootHitDepth;
+	}
+
+	public long getSearches() {
+		return searches;
+	}
+
+	public long getPredicted() {
+		return predicted;
+	}
+
+	public long getDeviated() {
+		return deviated;
+	}
+
+	public long getMissed() {
+		return missed;
+	}
+
+	public long getRootHits() {
+		return rootHits;
+	}
+
+	/** Die mittlere Tiefe, mit der die Wurzel schon in der Tabelle stand. */
+	public double getAverageRootHitDepth() {
+		return rootHits > 0 ? (double) rootHitDepth / rootHits : 0;
+	}
+
+	/** Anteil der Suchen, deren Wurzel schon in der Tabelle stand, in Prozent. */
+	public double getReuseRate() {
+		return searches > 0 ? rootHits * 100.0 / searches : 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d Suchen: %d vorhergesagt, %d abgewichen, %d verfehlt, Wurzel %d mal in der Tabelle"
+				+ " (%.0f %%, mittlere Tiefe %.1f)", searches, predicted, deviated, missed, rootHits, getReuseRate(),
+				getAverageRootHitDepth());
+	}
+
+}
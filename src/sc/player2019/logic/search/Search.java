@@ -0,0 +1,802 @@
+package sc.player2019.logic.search;
+
+import java.util.Arrays;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.ThreatDetector;
+import sc.player2019.logic.board.Zobrist;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Negamax-Suche mit Alpha-Beta auf dem {@link BitBoard}. An den Blättern
+ * schließt sich eine Ruhesuche an: Nach einem Fressen kann sich der größte
+ * Schwarm beider Spieler mit dem nächsten Zug komplett ändern, daher werden an
+ * den Blättern so lange fressende und schwarmvereinende Moves weiter
+ * untersucht, bis die Stellung ruhig ist. <br>
+ * Mit {@link #iterate(BitBoard, int, long)} wird die Tiefe schrittweise
+ * erhöht, bis die Zeit abgelaufen ist. Dabei lassen sich die selektiven
+ * Verfahren einzeln abschalten, um ihren Nutzen zu messen:
+ * <ul>
+ * <li>Principal Variation Search: nur der erste Move bekommt das volle
+ * Fenster, alle weiteren werden mit einem Nullfenster geprüft.</li>
+ * <li>Late Move Reductions: späte, ruhige Moves werden eine Tiefe flacher
+ * durchsucht und nur bei Erfolg erneut.</li>
+ * <li>Aspiration Windows: die Wurzel wird mit einem engen Fenster um die
+ * Bewertung der vorherigen Iteration durchsucht.</li>
+ * <li>Futility Pruning: kurz vor den Blättern werden ruhige Moves übersprungen,
+ * wenn die Bewertung weit unter alpha liegt.</li>
+ * <li>Transpositionstabelle: bereits durchsuchte Stellungen liefern ihren
+ * besten Move für die Sortierung und, wenn tief genug, ihre Bewertung.</li>
+ * <li>Gegnermodell (standardmäßig aus): wo der Gegner am Zug ist, werden nur die
+ * Antworten durchsucht, die ein {@link OpponentModel} am höchsten bewertet.
+ * Droht der Spieler an der Wurzel, seinen Schwarm zu vereinen, werden alle
+ * Antworten durchsucht, denn dann zählt genau die eine Abwehr, die ein
+ * billiges Modell leicht übersieht.</li>
+ * </ul>
+ * Die {@link TranspositionTable} bleibt von einem Aufruf von
+ * {@link #iterate(BitBoard, int, long)} zum nächsten erhalten. Folgt die neue
+ * Wurzel auf den eigenen Move der vorherigen Suche und eine Antwort des
+ * Gegners, baut die Suche auf der vorherigen auf: Die Einträge des schon
+ * untersuchten Teilbaums stehen noch in der Tabelle, ihr bester Move wird an
+ * der Wurzel zuerst durchsucht, und die Killer-Moves rücken um zwei Ebenen
+ * nach. Wie oft das gelingt, zählen die {@link #getReuseStats()}. <br>
+ * Die Stellungen liegen in einem vorab angelegten Stapel, die Suche selbst
+ * erzeugt keine Objekte. Ein Objekt ist nicht threadsicher.
+ */
+public class Search {
+
+	/** Wert eines gewonnenen Spiels, abzüglich der Züge bis dorthin */
+	public static final int WIN = 10000;
+	/** Größer als jede Bewertung */
+	public static final int INFINITY = WIN + 1;
+	/** Maximale Tiefe aus normaler Suche und Ruhesuche */
+	public static final int MAX_PLY = 64;
+	/** Maximale Tiefe der Ruhesuche */
+	public static final int MAX_QUIESCENCE_DEPTH = 8;
+	/** Knotenlimit einer einzelnen Ruhesuche */
+	public static final int QUIESCENCE_NODE_LIMIT = 400;
+	/** Halbe Breite des Fensters um die Bewertung der vorherigen Iteration */
+	public static final int ASPIRATION_WINDOW = 2;
+	/** So viele Punkte kann ein ruhiger Move höchstens bringen */
+	public static final int FUTILITY_MARGIN = 3;
+	/** So viele Moves eines Knotens werden nie reduziert */
+	public static final int LMR_FULL_MOVES = 3;
+	/** Ab dieser Resttiefe wird reduziert */
+	public static final int LMR_MIN_DEPTH = 3;
+	/**
+	 * Ab dieser Resttiefe nutzt der Gegner das Gegnermodell, darunter kostet das
+	 * Bewerten der Antworten so viel wie ihre Suche
+	 */
+	public static final int MODEL_MIN_DEPTH = 2;
+
+	private static final int NO_SCORE = Integer.MIN_VALUE;
+	/** Alle so vielen Knoten wird die Zeit geprüft */
+	private static final int TIME_CHECK_MASK = 1023;
+
+	private final Evaluator evaluator;
+	private final SearchStats stats = new SearchStats();
+	private final BitBoard[] stack = new BitBoard[MAX_PLY + 1];
+	private final int[][] moves = new int[MAX_PLY + 1][BitBoard.MAX_MOVES];
+	private final int[][] order = new int[MAX_PLY + 1][BitBoard.MAX_MOVES];
+	private final int[][] killers = new int[MAX_PLY + 1][2];
+	/** [Ebene] Zobrist-Schlüssel der Stellung im Stapel */
+	private final long[] keys = new long[MAX_PLY + 1];
+	private final ReuseStats reuse = new ReuseStats();
+	/** Wurzel und Hauptvariante der vorherigen Iteration */
+	private final BitBoard previousRoot = new BitBoard();
+	private int[] previousLine = new int[0];
+	private final BitBoard scratch = new BitBoard();
+	private TranspositionTable table;
+	private AnalysisCache analysis = AnalysisCache.getShared();
+	/** Schlüssel der Stellung in {@link #analysis} = Zobrist-Schlüssel XOR salt */
+	private long salt;
+	private final int[] rootMoves = new int[BitBoard.MAX_MOVES];
+	private final int[] rootScores = new int[BitBoard.MAX_MOVES];
+	private int rootCount;
+	private int rootBest;
+	private long quiescenceBudget;
+	private long deadline;
+	private boolean stopped;
+
+	private boolean principalVariation = true;
+	private boolean lateMoveReductions = true;
+	private boolean aspirationWindows = true;
+	private boolean futilityPruning = true;
+	private boolean transpositions = true;
+	private OpponentModel opponentModel;
+	private int opponentReplies;
+	/** Bewertungen des Gegnermodells für die Moves eines Knotens */
+	private final int[] modelScores = new int[BitBoard.MAX_MOVES];
+	private final int[] threatMoves = new int[BitBoard.MAX_MOVES];
+
+	public Search(Evaluator evaluator) {
+		this.evaluator = evaluator;
+		for (int i = 0; i < stack.length; i++)
+			stack[i] = new BitBoard();
+	}
+
+	public Search() {
+		this(new PointsEvaluator());
+	}
+
+	/**
+	 * Bewertet die Stellung nur mit der Ruhesuche.
+	 *
+	 * @return Die Bewertung aus Sicht des Spielers, der am Zug ist
+	 */
+	public int quiesce(BitBoard board) {
+		stack[0].copyFrom(board);
+		evaluator.setRoot(board);
+		quiescenceBudget = QUIESCENCE_NODE_LIMIT;
+		return quiesce(0, 0, -INFINITY, INFINITY);
+	}
+
+	/**
+	 * Durchsucht die Stellung bis zur gegebenen Tiefe ohne Zeitlimit und schließt
+	 * an den Blättern die Ruhesuche an.
+	 *
+	 * @return Die Bewertung aus Sicht des Spielers, der am Zug ist
+	 */
+	public int search(BitBoard board, int depth) {
+		stack[0].copyFrom(board);
+		keys[0] = Zobrist.key(board);
+		evaluator.setRoot(board);
+		if (transpositions)
+			table();
+		if (analysis != null)
+			salt = AnalysisCache.salt(board, evaluator);
+		deadline = 0;
+		stopped = false;
+		return search(0, depth, -INFINITY, INFINITY, true);
+	}
+
+	/**
+	 * Iterative Vertiefung: Durchsucht die Stellung mit Tiefe 1, 2, ... bis zur
+	 * maximalen Tiefe oder bis die Zeit abgelaufen ist. Das Ergebnis stammt aus der
+	 * tiefsten vollständig durchsuchten Iteration. Die {@link #getStats()} werden
+	 * zu Beginn zurückgesetzt, die Transpositionstabelle nicht.
+	 *
+	 * @param board    Die Stellung, der Spieler am Zug sucht seinen Move
+	 * @param maxDepth Die maximale Tiefe
+	 * @param millis   Die Bedenkzeit, 0 für unbegrenzt
+	 * @return Das Ergebnis oder null, wenn es keinen Move gibt
+	 */
+	public SearchResult iterate(BitBoard board, int maxDepth, long millis) {
+		long start = System.nanoTime();
+		stats.reset();
+		stack[0].copyFrom(board);
+		keys[0] = Zobrist.key(board);
+		evaluator.setRoot(board);
+		rootCount = board.generateMoves(rootMoves);
+		if (rootCount == 0)
+			return null;
+		boolean related = followsPrevious(board);
+		int tableMove = 0;
+		if (transpositions) {
+			table().nextGeneration();
+			long entry = table.probe(keys[0]);
+			if (entry != 0) {
+				reuse.rootHits++;
+				reuse.rootHitDepth += TranspositionTable.depth(entry);
+				tableMove = TranspositionTable.move(entry);
+			}
+		}
+		if (analysis != null) {
+			salt = AnalysisCache.salt(board, evaluator);
+			if (tableMove == 0)
+				tableMove = TranspositionTable.move(analysis.probe(keys[0] ^ salt));
+		}
+		// der beste Move aus der Tabelle wird zuerst durchsucht
+		for (int i = 0; i < rootCount; i++)
+			rootScores[i] = rootMoves[i] == tableMove ? 1 : 0;
+		for (int ply = 0; ply <= MAX_PLY; ply++) {
+			// nach einem eigenen Move und der Antwort des Gegners liegt jede Ebene zwei
+			// Halbzüge näher an der Wurzel
+			boolean shift = related && ply + 2 <= MAX_PLY;
+			killers[ply][0] = shift ? killers[ply + 2][0] : 0;
+			killers[ply][1] = shift ? killers[ply + 2][1] : 0;
+		}
+		deadline = millis > 0 ? start + millis * 1000000L : 0;
+		stopped = false;
+
+		sortRootMoves();
+		int bestMove = rootMoves[0];
+		int score = 0;
+		int depth = 0;
+		for (int d = 1; d <= Math.min(maxDepth, MAX_PLY); d++) {
+			long before = stats.getTotalNodes();
+			int s;
+			if (aspirationWindows && d > 1 && !isDecided(score)) {
+				int alpha = score - ASPIRATION_WINDOW;
+				int beta = score + ASPIRATION_WINDOW;
+				s = searchRoot(d, alpha, beta);
+				if (!stopped && (s <= alpha || s >= beta)) {
+					stats.aspirationFails++;
+					s = searchRoot(d, -INFINITY, INFINITY);
+				}
+			} else {
+				s = searchRoot(d, -INFINITY, INFINITY);
+			}
+			if (stopped)
+				break;
+			score = s;
+			bestMove = rootBest;
+			depth = d;
+			stats.completeIteration(d, stats.getTotalNodes() - before);
+			// ein entschiedenes Spiel wird durch mehr Tiefe nicht besser
+			if (isDecided(score))
+				break;
+		}
+		previousRoot.copyFrom(board);
+		previousLine = principalVariation(board, bestMove, Math.max(depth, 1));
+		return new SearchResult(bestMove, score, depth, (System.nanoTime() - start) / 1000000L,
+				stats.getTotalNodes(), previousLine);
+	}
+
+	/**
+	 * Vergleicht die Wurzel mit der vorherigen Suche: Folgt sie auf deren besten
+	 * Move und eine Antwort des Gegners?
+	 */
+	private boolean followsPrevious(BitBoard board) {
+		reuse.searches++;
+		if (previousLine.length == 0) {
+			reuse.missed++;
+			return false;
+		}
+		BitBoard expected = stack[1];
+		BitBoard reply = stack[2];
+		expected.copyFrom(previousRoot);
+		expected.play(previousLine[0]);
+		if (previousLine.length > 1 && expected.isLegal(previousLine[1])) {
+			reply.copyFrom(expected);
+			reply.play(previousLine[1]);
+			if (reply.equals(board) && reply.turn() == board.turn()) {
+				reuse.predicted++;
+				return true;
+			}
+		}
+		int[] replies = moves[1];
+		int count = expected.generateMoves(replies);
+		for (int i = 0; i < count; i++) {
+			reply.copyFrom(expected);
+			reply.play(replies[i]);
+			if (reply.equals(board) && reply.turn() == board.turn()) {
+				reuse.deviated++;
+				return true;
+			}
+		}
+		reuse.missed++;
+		return false;
+	}
+
+	/**
+	 * Die Hauptvariante: der beste Move und dann die besten Moves aus der
+	 * Transpositionstabelle, solange sie in der Stellung gültig sind.
+	 */
+	private int[] principalVariation(BitBoard board, int bestMove, int maxLength) {
+		int[] line = new int[maxLength];
+		line[0] = bestMove;
+		int length = 1;
+		scratch.copyFrom(board);
+		long key = Zobrist.child(scratch, keys[0], bestMove);
+		scratch.play(bestMove);
+		while (transpositions && length < maxLength) {
+			long entry = table.probe(key);
+			int move = TranspositionTable.move(entry);
+			if (entry == 0 || move == 0 || !scratch.isLegal(move))
+				break;
+			line[length++] = move;
+			key = Zobrist.child(scratch, key, move);
+			scratch.play(move);
+		}
+		return Arrays.copyOf(line, length);
+	}
+
+	/**
+	 * Durchsucht alle Moves der Wurzel. Die Moves werden nach den Bewertungen der
+	 * vorherigen Iteration sortiert, der bisher beste Move steht also vorne.
+	 */
+	private int searchRoot(int depth, int alpha, int beta) {
+		sortRootMoves();
+		int rootAlpha = alpha;
+		BitBoard board = stack[0];
+		BitBoard next = stack[1];
+		int best = -INFINITY;
+		for (int i = 0; i < rootCount; i++) {
+			evaluator.onMove(board, rootMoves[i], 0);
+			keys[1] = Zobrist.child(board, keys[0], rootMoves[i]);
+			next.copyFrom(board);
+			next.play(rootMoves[i]);
+			int score;
+			if (i == 0 || !principalVariation) {
+				score = -search(1, depth - 1, -beta, -alpha, true);
+			} else {
+				score = -search(1, depth - 1, -alpha - 1, -alpha, false);
+				if (score > alpha && score < beta) {
+					stats.reSearches++;
+					score = -search(1, depth - 1, -beta, -alpha, true);
+				}
+			}
+			if (stopped)
+				return 0;
+			rootScores[i] = score;
+			if (score > best) {
+				best = score;
+				rootBest = rootMoves[i];
+				if (score > alpha)
+					alpha = score;
+				if (alpha >= beta)
+					break;
+			}
+		}
+		// der beste Move steht in der nächsten Iteration vor allen gleich bewerteten
+		for (int i = 0; i < rootCount; i++) {
+			if (rootMoves[i] != rootBest && rootScores[i] >= best)
+				rootScores[i] = best - 1;
+		}
+		if (transpositions)
+			table.store(keys[0], rootBest, toTable(best, 0), depth, bound(best, rootAlpha, beta));
+		if (analysis != null && opponentModel == null && depth >= AnalysisCache.MIN_DEPTH)
+			analysis.store(keys[0] ^ salt, rootBest, toTable(best, 0), depth, bound(best, rootAlpha, beta));
+		return best;
+	}
+
+	private void sortRootMoves() {
+		// Insertion Sort, stabil und für höchstens 128 Einträge schnell genug
+		for (int i = 1; i < rootCount; i++) {
+			int move = rootMoves[i];
+			int score = rootScores[i];
+			int j = i - 1;
+			while (j >= 0 && rootScores[j] < score) {
+				rootMoves[j + 1] = rootMoves[j];
+				rootScores[j + 1] = rootScores[j];
+				j--;
+			}
+			rootMoves[j + 1] = move;
+			rootScores[j + 1] = score;
+		}
+	}
+
+	private int search(int ply, int depth, int alpha, int beta, boolean pvNode) {
+		if (depth <= 0 || ply >= MAX_PLY) {
+			quiescenceBudget = QUIESCENCE_NODE_LIMIT;
+			return quiesce(ply, 0, alpha, beta);
+		}
+		stats.nodes++;
+		if (deadline != 0 && (stats.nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline)
+			stopped = true;
+		if (stopped)
+			return 0;
+		BitBoard board = stack[ply];
+		int terminal = terminal(board, ply);
+		if (terminal != NO_SCORE)
+			return terminal;
+
+		long key = keys[ply];
+		int tableMove = 0;
+		long entry = 0;
+		if (transpositions) {
+			entry = table.probe(key);
+			if (entry != 0)
+				stats.tableHits++;
+		}
+		// die Analysedatei nur fragen, wenn sie tiefer sein kann als die eigene Tabelle
+		boolean shared = analysis != null && depth >= AnalysisCache.MIN_DEPTH;
+		if (shared && (entry == 0 || TranspositionTable.depth(entry) < depth)) {
+			long sharedEntry = analysis.probe(key ^ salt);
+			if (sharedEntry != 0
+					&& (entry == 0 || TranspositionTable.depth(sharedEntry) > TranspositionTable.depth(entry))) {
+				stats.analysisHits++;
+				entry = sharedEntry;
+			}
+		}
+		if (entry != 0) {
+			tableMove = TranspositionTable.move(entry);
+			if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER && score >= beta
+						|| bound == TranspositionTable.UPPER && score <= alpha) {
+					stats.tableCutoffs++;
+					return score;
+				}
+			}
+		}
+
+		int[] list = moves[ply];
+		int count = board.generateMoves(list);
+		if (count == 0)
+			return evaluator.evaluate(board, ply);
+		int own = board.current();
+		scoreMoves(board, ply, count, tableMove);
+		// die Wurzel ist in geraden Tiefen am Zug, der Gegner in ungeraden
+		if (opponentModel != null && (ply & 1) == 1 && depth >= MODEL_MIN_DEPTH && count > opponentReplies) {
+			if (ThreatDetector.hasWinningMove(board, 1 - own, threatMoves)) {
+				stats.modelFallbacks++;
+			} else {
+				int selected = selectReplies(board, ply, count, tableMove);
+				stats.modelNodes++;
+				stats.modelSkipped += count - selected;
+				count = selected;
+			}
+		}
+		int originalAlpha = alpha;
+		int bestMove = 0;
+
+		// kurz vor den Blättern lohnen ruhige Moves nicht, wenn die Stellung weit
+		// unter alpha liegt
+		boolean futile = futilityPruning && depth == 1 && !pvNode && !isDecided(alpha)
+				&& evaluator.evaluate(board, ply) + FUTILITY_MARGIN <= alpha;
+
+		BitBoard next = stack[ply + 1];
+		int best = -INFINITY;
+		int searched = 0;
+		for (int i = 0; i < count; i++) {
+			int move = nextMove(ply, i, count);
+			boolean quiet = order[ply][i] == 0;
+			if (futile && quiet && searched > 0 && !ThreatDetector.connectsSwarm(board, own, move)) {
+				stats.futilityPrunes++;
+				continue;
+			}
+			evaluator.onMove(board, move, ply);
+			keys[ply + 1] = Zobrist.child(board, key, move);
+			next.copyFrom(board);
+			next.play(move);
+			int score;
+			if (searched == 0) {
+				score = -search(ply + 1, depth - 1, -beta, -alpha, pvNode);
+			} else {
+				int reduction = lateMoveReductions && quiet && depth >= LMR_MIN_DEPTH && searched >= LMR_FULL_MOVES ? 1
+						: 0;
+				int window = principalVariation ? -alpha - 1 : -beta;
+				if (reduction > 0)
+					stats.reductions++;
+				score = -search(ply + 1, depth - 1 - reduction, window, -alpha, false);
+				if (reduction > 0 && score > alpha) {
+					stats.reSearches++;
+					score = -search(ply + 1, depth - 1, window, -alpha, !principalVariation && pvNode);
+				}
+				if (principalVariation && score > alpha && score < beta) {
+					stats.reSearches++;
+					score = -search(ply + 1, depth - 1, -beta, -alpha, pvNode);
+				}
+			}
+			searched++;
+			if (stopped)
+				return 0;
+			if (score > best) {
+				best = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						stats.cutoffs++;
+						if (searched == 1)
+							stats.firstMoveCutoffs++;
+						if (quiet && killers[ply][0] != move) {
+							killers[ply][1] = killers[ply][0];
+							killers[ply][0] = move;
+						}
+						break;
+					}
+				}
+			}
+		}
+		if (transpositions)
+			table.store(key, bestMove, toTable(best, ply), depth, bound(best, originalAlpha, beta));
+		// mit Gegnermodell gilt die Bewertung nur unter dessen Annahme, sie gehört
+		// nicht in die geteilte Analysedatei
+		if (shared && opponentModel == null)
+			analysis.store(key ^ salt, bestMove, toTable(best, ply), depth, bound(best, originalAlpha, beta));
+		return best;
+	}
+
+	private static int bound(int score, int alpha, int beta) {
+		return score <= alpha ? TranspositionTable.UPPER
+				: score >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+	}
+
+	/** Entschiedene Spiele werden in der Tabelle relativ zur Stellung gespeichert. */
+	private static int toTable(int score, int ply) {
+		return score > WIN - MAX_PLY - 1 ? score + ply : score < -WIN + MAX_PLY + 1 ? score - ply : score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		return score > WIN - MAX_PLY - 1 ? score - ply : score < -WIN + MAX_PLY + 1 ? score + ply : score;
+	}
+
+	/**
+	 * Vergibt für die Moves eines Knotens eine Reihenfolge: zuerst der beste Move
+	 * aus der Transpositionstabelle, dann fressende Moves, dann die Killer-Moves
+	 * dieser Tiefe, dann der Rest. Ein Wert von 0 bedeutet einen ruhigen Move.
+	 */
+	private void scoreMoves(BitBoard board, int ply, int count, int tableMove) {
+		int[] list = moves[ply];
+		int[] scores = order[ply];
+		int opponent = 1 - board.current();
+		for (int i = 0; i < count; i++) {
+			int move = list[i];
+			if (move == tableMove)
+				scores[i] = board.test(opponent, BitBoard.to(move)) ? 4 : 5;
+			else if (board.test(opponent, BitBoard.to(move)))
+				scores[i] = 3;
+			else if (move == killers[ply][0])
+				scores[i] = 2;
+			else if (move == killers[ply][1])
+				scores[i] = 1;
+			else
+				scores[i] = 0;
+		}
+	}
+
+	/**
+	 * Stellt die {@link #opponentReplies} Antworten mit der besten Bewertung des
+	 * Gegnermodells an den Anfang der Liste, die Reihenfolge der Suche bleibt
+	 * erhalten. Der Move aus der Tabelle und Moves, die den Schwarm des Gegners
+	 * vereinen, werden immer durchsucht, auch wenn es mehr sind.
+	 *
+	 * @return Die Anzahl der zu durchsuchenden Moves
+	 */
+	private int selectReplies(BitBoard board, int ply, int count, int tableMove) {
+		int[] list = moves[ply];
+		int[] scores = order[ply];
+		int own = board.current();
+		int selected = opponentReplies;
+		int forced = 0;
+		for (int i = 0; i < count; i++) {
+			int move = list[i];
+			if (move == tableMove) {
+				modelScores[i] = Integer.MAX_VALUE;
+				forced++;
+			} else if (ThreatDetector.connectsSwarm(board, own, move)) {
+				modelScores[i] = Integer.MAX_VALUE - 1;
+				forced++;
+			} else {
+				modelScores[i] = opponentModel.rate(board, move);
+			}
+		}
+		if (forced > selected)
+			selected = forced;
+		for (int i = 0; i < selected; i++) {
+			int best = i;
+			for (int j = i + 1; j < count; j++) {
+				if (modelScores[j] > modelScores[best])
+					best = j;
+			}
+			if (best != i) {
+				int t = list[best];
+				list[best] = list[i];
+				list[i] = t;
+				t = scores[best];
+				scores[best] = scores[i];
+				scores[i] = t;
+				t = modelScores[best];
+				modelScores[best] = modelScores[i];
+				modelScores[i] = t;
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Sucht unter den verbleibenden Moves den mit der höchsten Reihenfolge und
+	 * tauscht ihn an Position <code>index</code>.
+	 */
+	private int nextMove(int ply, int index, int count) {
+		int[] list = moves[ply];
+		int[] scores = order[ply];
+		int best = index;
+		for (int i = index + 1; i < count; i++) {
+			if (scores[i] > scores[best])
+				best = i;
+		}
+		if (best != index) {
+			int move = list[best];
+			list[best] = list[index];
+			list[index] = move;
+			int score = scores[best];
+			scores[best] = scores[index];
+			scores[index] = score;
+		}
+		return list[index];
+	}
+
+	/**
+	 * Ruhesuche: Der Spieler am Zug kann die aktuelle Bewertung annehmen (Stand
+	 * Pat) oder einen fressenden bzw. schwarmvereinenden Move ausführen.
+	 */
+	private int quiesce(int ply, int depth, int alpha, int beta) {
+		stats.quiescenceNodes++;
+		if (ply > stats.selectiveDepth)
+			stats.selectiveDepth = ply;
+		BitBoard board = stack[ply];
+		int terminal = terminal(board, ply);
+		if (terminal != NO_SCORE)
+			return terminal;
+
+		int own = board.current();
+		int opponent = 1 - own;
+		int standPat = evaluator.evaluate(board, ply);
+		// vor dem Ende der Runde kann Blau einen vereinten Schwarm von Rot nur noch
+		// durch Fressen oder einen eigenen Schwarm abwenden, ein ruhiger Move verliert
+		if (board.turn() % 2 == 1 && board.isConnected(opponent) && !board.isConnected(own))
+			standPat = -WIN + ply + 1;
+		if (standPat >= beta) {
+			stats.standPatCutoffs++;
+			return standPat;
+		}
+		if (depth >= MAX_QUIESCENCE_DEPTH || ply >= MAX_PLY)
+			return standPat;
+		if (--quiescenceBudget < 0) {
+			stats.quiescenceLimitHits++;
+			return standPat;
+		}
+		if (standPat > alpha)
+			alpha = standPat;
+
+		int[] list = moves[ply];
+		int count = board.generateMoves(list);
+		BitBoard next = stack[ply + 1];
+		int best = standPat;
+		for (int i = 0; i < count; i++) {
+			int move = list[i];
+			if (!board.test(opponent, BitBoard.to(move)) && !ThreatDetector.connectsSwarm(board, own, move))
+				continue;
+			evaluator.onMove(board, move, ply);
+			next.copyFrom(board);
+			next.play(move);
+			int score = -quiesce(ply + 1, depth + 1, -beta, -alpha);
+			if (score > best) {
+				best = score;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Prüft, ob das Spiel in der Stellung entschieden ist.
+	 *
+	 * @return Die Bewertung aus Sicht des Spielers am Zug oder {@link #NO_SCORE}
+	 */
+	private int terminal(BitBoard board, int ply) {
+		int outcome = outcome(board);
+		return outcome == NO_SCORE ? NO_SCORE : outcome * (WIN - ply);
+	}
+
+	/**
+	 * Prüft, ob das Spiel in der Stellung entschieden ist, nach den Regeln des
+	 * Servers: Geprüft wird nur am Ende einer Runde, Blau kann also auf den
+	 * vereinenden Move von Rot noch antworten. Hängt genau ein Schwarm zusammen,
+	 * gewinnt seine Farbe, hängen beide zusammen, entscheiden die Punkte; bei
+	 * Gleichstand geht das Spiel weiter. Nach dem Rundenlimit entscheiden die
+	 * Punkte.
+	 *
+	 * @return 1, 0 oder -1 aus Sicht des Spielers am Zug oder
+	 *         {@link Integer#MIN_VALUE}, wenn das Spiel noch läuft
+	 */
+	public static int outcome(BitBoard board) {
+		if (board.turn() % 2 == 1)
+			return NO_SCORE;
+		int own = board.current();
+		int opponent = 1 - own;
+		boolean ownConnected = board.isConnected(own);
+		boolean opponentConnected = board.isConnected(opponent);
+		int points = Integer.signum(board.points(own) - board.points(opponent));
+		if (board.turn() >= Constants.ROUND_LIMIT * 2)
+			return ownConnected && !opponentConnected ? 1 : opponentConnected && !ownConnected ? -1 : points;
+		if (ownConnected && opponentConnected)
+			return points != 0 ? points : NO_SCORE;
+		return ownConnected ? 1 : opponentConnected ? -1 : NO_SCORE;
+	}
+
+	public SearchStats getStats() {
+		return stats;
+	}
+
+	/** Wie oft die Suche auf der vorherigen aufbauen konnte, über alle Aufrufe. */
+	public ReuseStats getReuseStats() {
+		return reuse;
+	}
+
+	/**
+	 * Die Antwort des Gegners, die die letzte Suche erwartet hat (zweiter Move der
+	 * Hauptvariante), oder null.
+	 */
+	public Move getExpectedReply() {
+		return previousLine.length > 1 ? BitBoard.toMove(previousLine[1]) : null;
+	}
+
+	/** Die Transpositionstabelle, wird beim ersten Gebrauch angelegt. */
+	public TranspositionTable getTranspositionTable() {
+		return table();
+	}
+
+	private TranspositionTable table() {
+		if (table == null)
+			table = new TranspositionTable();
+		return table;
+	}
+
+	/**
+	 * Ergebnisse ab {@link AnalysisCache#MIN_DEPTH} Resttiefe werden zusätzlich
+	 * in der Analysedatei gespeichert und dort gesucht. Standard ist
+	 * {@link AnalysisCache#getShared()}.
+	 *
+	 * @param analysis Die Analysedatei oder null
+	 */
+	public void setAnalysisCache(AnalysisCache analysis) {
+		this.analysis = analysis;
+	}
+
+	public AnalysisCache getAnalysisCache() {
+		return analysis;
+	}
+
+	public Evaluator getEvaluator() {
+		return evaluator;
+	}
+
+	/** Nur der erste Move eines Knotens bekommt das volle Fenster. */
+	public void setPrincipalVariation(boolean principalVariation) {
+		this.principalVariation = principalVariation;
+	}
+
+	/** Späte, ruhige Moves werden zuerst eine Tiefe flacher durchsucht. */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/** Die Wurzel wird zuerst mit einem engen Fenster durchsucht. */
+	public void setAspirationWindows(boolean aspirationWindows) {
+		this.aspirationWindows = aspirationWindows;
+	}
+
+	/** Ruhige Moves kurz vor den Blättern werden übersprungen. */
+	public void setFutilityPruning(boolean futilityPruning) {
+		this.futilityPruning = futilityPruning;
+	}
+
+	/**
+	 * Ergebnisse werden in der Transpositionstabelle gespeichert und über mehrere
+	 * Suchen hinweg wiederverwendet.
+	 */
+	public void setTranspositionTable(boolean transpositions) {
+		this.transpositions = transpositions;
+	}
+
+	/**
+	 * Durchsucht dort, wo der Gegner am Zug ist, nur die <code>replies</code>
+	 * Antworten, die das Modell am höchsten bewertet. Die Ergebnisse gelten dann
+	 * nur unter der Annahme, dass der Gegner sich an das Modell hält: Sie kommen
+	 * nicht in die {@link AnalysisCache}, und die Transpositionstabelle wird
+	 * geleert, wenn sich das Modell ändert.
+	 *
+	 * @param model   Das Modell oder null, um wieder alle Antworten zu durchsuchen
+	 * @param replies So viele Antworten werden höchstens durchsucht, mindestens 1
+	 */
+	public void setOpponentModel(OpponentModel model, int replies) {
+		if (model != null && replies < 1)
+			throw new IllegalArgumentException("Mindestens eine Antwort: " + replies);
+		if (table != null && (model != opponentModel || replies != opponentReplies))
+			table.clear();
+		this.opponentModel = model;
+		this.opponentReplies = replies;
+	}
+
+	/** Das Gegnermodell oder null, wenn alle Antworten durchsucht werden */
+	public OpponentModel getOpponentModel() {
+		return opponentModel;
+	}
+
+	/** true, wenn die Bewertung ein entschiedenes Spiel beschreibt. */
+	public static boolean isDecided(int score) {
+		return Math.abs(score) > WIN - MAX_PLY - 1;
+	}
+
+}
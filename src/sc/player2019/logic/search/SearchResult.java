@@ -0,0 +1,74 @@
+package sc.player2019.logic.search;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Move;
+
+/**
+ * Das Ergebnis einer iterativen Vertiefung.
+ */
+public class SearchResult {
+
+	private final int move;
+	private final int score;
+	private final int depth;
+	private final long millis;
+	private final long nodes;
+	private final int[] principalVariation;
+
+	SearchResult(int move, int score, int depth, long millis, long nodes, int[] principalVariation) {
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.millis = millis;
+		this.nodes = nodes;
+		this.principalVariation = principalVariation;
+	}
+
+	/** Der beste Move, kodiert wie im {@link BitBoard}. */
+	public int getEncodedMove() {
+		return move;
+	}
+
+	public Move getMove() {
+		return BitBoard.toMove(move);
+	}
+
+	/** Die Bewertung aus Sicht des Spielers, der in der Wurzel am Zug ist. */
+	public int getScore() {
+		return score;
+	}
+
+	/** Die tiefste vollständig durchsuchte Iteration, 0 wenn keine fertig wurde. */
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Die erwartete Zugfolge ab der Wurzel, kodiert wie im {@link BitBoard}. Der
+	 * erste Eintrag ist der beste Move, der zweite die erwartete Antwort des
+	 * Gegners.
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	/** Knoten pro Sekunde. */
+	public long getNodesPerSecond() {
+		return millis > 0 ? nodes * 1000 / millis : nodes * 1000;
+	}
+
+	@Override
+	public String toString() {
+		return BitBoard.toMove(move) + " Bewertung " + score + ", Tiefe " + depth + ", " + nodes + " Knoten in "
+				+ millis + " ms (" + getNodesPerSecond() + " Knoten/s)";
+	}
+
+}
@@ -0,0 +1,188 @@
+package sc.player2019.logic.search;
+
+/**
+ * Zählt, wie viel Arbeit eine {@link Search} verrichtet hat. Die Werte werden
+ * nicht automatisch zurückgesetzt, sondern über {@link #reset()}.
+ */
+public class SearchStats {
+
+	/** Knoten der normalen Suche */
+	long nodes;
+	/** Knoten der Ruhesuche */
+	long quiescenceNodes;
+	/** Abbrüche, weil die Bewertung ohne Zug schon über beta lag */
+	long standPatCutoffs;
+	/** Ruhesuchen, die wegen des Knotenlimits abgebrochen wurden */
+	long quiescenceLimitHits;
+	/** Die größte erreichte Tiefe inklusive Ruhesuche */
+	int selectiveDepth;
+	/** Beta-Abbrüche der normalen Suche */
+	long cutoffs;
+	/** Beta-Abbrüche schon beim ersten Move, ein Maß für die Zugsortierung */
+	long firstMoveCutoffs;
+	/** Wiederholte Suchen nach Nullfenster oder Reduktion */
+	long reSearches;
+	/** Reduzierte späte Moves */
+	long reductions;
+	/** Übersprungene ruhige Moves kurz vor den Blättern */
+	long futilityPrunes;
+	/** Iterationen, deren enges Fenster nicht gereicht hat */
+	long aspirationFails;
+	/** Stellungen, die schon in der Transpositionstabelle standen */
+	long tableHits;
+	/** Davon direkt mit der gespeicherten Bewertung beendet */
+	long tableCutoffs;
+	/** Stellungen, deren Eintrag aus der Analysedatei tiefer war als der eigene */
+	long analysisHits;
+	/** Knoten des Gegners, in denen nur die Antworten des Modells durchsucht wurden */
+	long modelNodes;
+	/** Davon übersprungene Antworten */
+	long modelSkipped;
+	/** Knoten des Gegners, die wegen einer Drohung voll durchsucht wurden */
+	long modelFallbacks;
+	/** Die tiefste vollständige Iteration */
+	int completedDepth;
+	/** Knoten der letzten beiden vollständigen Iterationen */
+	private long lastIterationNodes;
+	private long previousIterationNodes;
+
+	public void reset() {
+		nodes = 0;
+		quiescenceNodes = 0;
+		standPatCutoffs = 0;
+		quiescenceLimitHits = 0;
+		selectiveDepth = 0;
+		cutoffs = 0;
+		firstMoveCutoffs = 0;
+		reSearches = 0;
+		reductions = 0;
+		futilityPrunes = 0;
+		aspirationFails = 0;
+		tableHits = 0;
+		tableCutoffs = 0;
+		analysisHits = 0;
+		modelNodes = 0;
+		modelSkipped = 0;
+		modelFallbacks = 0;
+		completedDepth = 0;
+		lastIterationNodes = 0;
+		previousIterationNodes = 0;
+	}
+
+	void completeIteration(int depth, long iterationNodes) {
+		completedDepth = depth;
+		previousIterationNodes = lastIterationNodes;
+		lastIterationNodes = iterationNodes;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+
+	public long getTotalNodes() {
+		return nodes + quiescenceNodes;
+	}
+
+	public long getStandPatCutoffs() {
+		return standPatCutoffs;
+	}
+
+	public long getQuiescenceLimitHits() {
+		return quiescenceLimitHits;
+	}
+
+	public int getSelectiveDepth() {
+		return selectiveDepth;
+	}
+
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	public long getFirstMoveCutoffs() {
+		return firstMoveCutoffs;
+	}
+
+	public long getReSearches() {
+		return reSearches;
+	}
+
+	public long getReductions() {
+		return reductions;
+	}
+
+	public long getFutilityPrunes() {
+		return futilityPrunes;
+	}
+
+	public long getAspirationFails() {
+		return aspirationFails;
+	}
+
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	public long getTableCutoffs() {
+		return tableCutoffs;
+	}
+
+	public long getAnalysisHits() {
+		return analysisHits;
+	}
+
+	public long getModelNodes() {
+		return modelNodes;
+	}
+
+	public long getModelSkipped() {
+		return modelSkipped;
+	}
+
+	public long getModelFallbacks() {
+		return modelFallbacks;
+	}
+
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Effektiver Verzweigungsfaktor: Verhältnis der Knoten der letzten zur
+	 * vorletzten vollständigen Iteration, 0 wenn es weniger als zwei gab.
+	 */
+	public double getEffectiveBranchingFactor() {
+		return previousIterationNodes > 0 ? (double) lastIterationNodes / previousIterationNodes : 0;
+	}
+
+	@Override
+	public String toString() {
+		long total = getTotalNodes();
+		StringBuilder sb = new StringBuilder();
+		sb.append(total).append(" Knoten (").append(nodes).append(" Suche, ").append(quiescenceNodes)
+				.append(" Ruhesuche");
+		if (total > 0)
+			sb.append(", ").append(quiescenceNodes * 100 / total).append(" %");
+		sb.append("), ").append(standPatCutoffs).append(" Stand-Pat-Abbrüche, ").append(quiescenceLimitHits)
+				.append(" Limits, selektive Tiefe ").append(selectiveDepth);
+		if (completedDepth > 0) {
+			sb.append(", Tiefe ").append(completedDepth).append(String.format(", EBF %.2f", getEffectiveBranchingFactor()))
+					.append(", ").append(cutoffs).append(" Abbrüche (")
+					.append(cutoffs > 0 ? firstMoveCutoffs * 100 / cutoffs : 0).append(" % beim ersten Move), ")
+					.append(reSearches).append(" Wiederholungen, ").append(reductions).append(" Reduktionen, ")
+					.append(futilityPrunes).append(" Futility, ").append(aspirationFails).append(" Fenster verfehlt, ")
+					.append(tableHits).append(" Tabellentreffer (").append(tableCutoffs).append(" übernommen)");
+			if (analysisHits > 0)
+				sb.append(", ").append(analysisHits).append(" aus der Analysedatei");
+			if (modelNodes + modelFallbacks > 0)
+				sb.append(", Gegnermodell in ").append(modelNodes).append(" Knoten (").append(modelSkipped)
+						.append(" Antworten übersprungen, ").append(modelFallbacks).append(" voll wegen Drohung)");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,138 @@
+package sc.player2019.logic.search;
+
+import java.util.Arrays;
+
+/**
+ * Speichert Ergebnisse der {@link Search} nach dem Zobrist-Schlüssel der
+ * Stellung: den besten Move, die Bewertung, die Resttiefe und ob die Bewertung
+ * exakt oder nur eine Schranke ist. Die Tabelle bleibt über mehrere Suchen
+ * erhalten, so findet die Suche im nächsten Zug den bereits untersuchten
+ * Teilbaum wieder. Jede Suche erhöht die Generation; Einträge älterer
+ * Generationen werden immer ersetzt, solche der laufenden Suche nur von
+ * tieferen Ergebnissen. <br>
+ * Die Tabelle ist direkt adressiert, je Eintrag ein Schlüssel und ein gepackter
+ * Wert: Move (Bits 0-19), Bewertung + 2^15 (20-35), Tiefe (36-43), Art
+ * (44-45), Generation (46-53) und ein Bit für belegt (63).
+ */
+public final class TranspositionTable {
+
+	/** Standardgröße: 2^18 Einträge, 4 MB */
+	public static final int DEFAULT_BITS = 18;
+
+	/** Die Bewertung ist exakt */
+	static final int EXACT = 0;
+	/** Die Bewertung ist eine untere Schranke (beta-Abbruch) */
+	static final int LOWER = 1;
+	/** Die Bewertung ist eine obere Schranke (kein Move über alpha) */
+	static final int UPPER = 2;
+
+	private static final long USED = 1L << 63;
+	private static final int SCORE_OFFSET = 1 << 15;
+
+	private static volatile int defaultBits = DEFAULT_BITS;
+
+	private final long[] keys;
+	private final long[] entries;
+	private final int mask;
+	private int generation;
+
+	/** Eine Tabelle mit {@link #getDefaultBits()} */
+	public TranspositionTable() {
+		this(defaultBits);
+	}
+
+	/**
+	 * @param bits Die Tabelle hat 2^bits Einträge zu je 16 Byte
+	 */
+	public TranspositionTable(int bits) {
+		keys = new long[1 << bits];
+		entries = new long[1 << bits];
+		mask = (1 << bits) - 1;
+	}
+
+	/**
+	 * Legt die Größe aller Tabellen fest, die danach ohne Größe angelegt werden,
+	 * etwa nach dem Speicherbudget.
+	 */
+	public static void setDefaultBits(int bits) {
+		if (bits < 1 || bits > 28)
+			throw new IllegalArgumentException("Ungültige Größe: 2^" + bits);
+		defaultBits = bits;
+	}
+
+	public static int getDefaultBits() {
+		return defaultBits;
+	}
+
+	/** Beginnt eine neue Suche, ältere Einträge werden damit ersetzbar. */
+	void nextGeneration() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	/**
+	 * @return Der gepackte Eintrag zum Schlüssel oder 0, wenn es keinen gibt
+	 */
+	long probe(long key) {
+		int i = (int) key & mask;
+		return keys[i] == key ? entries[i] : 0;
+	}
+
+	void store(long key, int move, int score, int depth, int bound) {
+		int i = (int) key & mask;
+		long old = entries[i];
+		if (old != 0 && keys[i] != key && generation(old) == generation && depth(old) > depth)
+			return;
+		// ohne neuen Move bleibt der alte der Stellung erhalten
+		if (move == 0 && keys[i] == key)
+			move = move(old);
+		keys[i] = key;
+		entries[i] = pack(move, score, depth, bound, generation);
+	}
+
+	static long pack(int move, int score, int depth, int bound, int generation) {
+		return USED | (long) move | (long) (score + SCORE_OFFSET) << 20 | (long) depth << 36 | (long) bound << 44
+				| (long) generation << 46;
+	}
+
+	/** Leert die Tabelle. */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(entries, 0);
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	/** Anteil der Einträge aus der laufenden Generation, in Promille. */
+	public int usage() {
+		int used = 0;
+		int sample = Math.min(1000, entries.length);
+		for (int i = 0; i < sample; i++) {
+			if (entries[i] != 0 && generation(entries[i]) == generation)
+				used++;
+		}
+		return used * 1000 / sample;
+	}
+
+	static int move(long entry) {
+		return (int) (entry & 0xFFFFF);
+	}
+
+	static int score(long entry) {
+		return (int) (entry >>> 20 & 0xFFFF) - SCORE_OFFSET;
+	}
+
+	static int depth(long entry) {
+		return (int) (entry >>> 36 & 0xFF);
+	}
+
+	static int bound(long entry) {
+		return (int) (entry >>> 44 & 0x3);
+	}
+
+	static int generation(long entry) {
+		return (int) (entry >>> 46 & 0xFF);
+	}
+
+}
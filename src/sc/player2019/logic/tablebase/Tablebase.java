@@ -0,0 +1,270 @@
+package sc.player2019.logic.tablebase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Eine Endspieldatenbank für eine Lage der Hindernisse (und alle dazu
+ * symmetrischen Lagen) und bis zu {@link #getMaxFish()} Fische je Farbe. Sie
+ * wird mit {@link sc.player2019.tools.TablebaseGenerator} erzeugt. <br>
+ * Für jede Stellung ist gespeichert, ob der Spieler am Zug gewinnt, verliert
+ * oder keiner von beiden den Sieg erzwingen kann, und im ersten Fall in wie
+ * vielen Zügen (Halbzügen) das Spiel spätestens bzw. frühestens endet. Es gelten
+ * die Regeln des Servers: Geprüft wird nur am Ende einer Runde, also wenn Rot am
+ * Zug ist; sind dann beide Schwärme zusammenhängend und gleich groß, geht das
+ * Spiel weiter. Ein Spieler ohne Fische setzt aus. Das Rundenlimit ist nicht
+ * berücksichtigt, ein Ergebnis gilt nur, wenn die Entfernung vor dem Limit
+ * endet, und {@link #DRAW} heißt, dass am Ende die Punkte entscheiden. <br>
+ * Die Datei wird in den Speicher abgebildet und nur gelesen, die Werte liegen
+ * in Blöcken zu {@link #BLOCK_SIZE} Stellungen, die einzeln mit Deflate
+ * komprimiert sind. Jeder Thread entpackt die zuletzt gebrauchten Blöcke in
+ * einen eigenen Zwischenspeicher, ein Objekt kann also von beliebig vielen
+ * Threads gleichzeitig gefragt werden. <br>
+ * Dateiformat (big endian): Kennung {@link #MAGIC}, höchste Anzahl an Fischen
+ * je Farbe, Anzahl und Felder der Hindernisse (kanonische Lage), Blockgröße,
+ * dann je Tabelle (rote Fische, blaue Fische, Farbe am Zug, in dieser
+ * Schachtelung) die Anzahl der Stellungen als long und der erste Block als int,
+ * die Anzahl der Blöcke, deren Anfänge als long (mit dem Ende als letztem
+ * Eintrag) und zuletzt die komprimierten Blöcke.
+ */
+public final class Tablebase {
+
+	/** "PTB1" */
+	public static final int MAGIC = 0x50544231;
+	/** Stellungen je komprimiertem Block */
+	public static final int BLOCK_SIZE = 1 << 16;
+	/** Größte speicherbare Entfernung in Halbzügen */
+	public static final int MAX_DISTANCE = 126;
+
+	/** Wert einer Stellung, die keiner erzwingen kann */
+	public static final int DRAW = 0;
+	/** Ergebnis von {@link #probe(BitBoard)} für eine Stellung außerhalb der Datenbank */
+	public static final int NOT_FOUND = -1;
+
+	/** Entpackte Blöcke je Thread */
+	private static final int CACHED_BLOCKS = 8;
+
+	private final File file;
+	private final int maxFish;
+	private final TablebaseIndex index;
+	/** [Tabelle] erster Block */
+	private final int[] firstBlock;
+	/** [Tabelle] Anzahl der Stellungen */
+	private final long[] entries;
+	/** Anfänge der Blöcke relativ zum Anfang der Daten */
+	private final long[] blockOffsets;
+	private final MappedByteBuffer data;
+	private final int dataStart;
+	private final ThreadLocal<BlockCache> caches = new ThreadLocal<BlockCache>() {
+		@Override
+		protected BlockCache initialValue() {
+			return new BlockCache();
+		}
+	};
+	/** Zuletzt gefragte Hindernisse und die Symmetrie dazu */
+	private volatile Layout layout = new Layout(0, 0, -1);
+
+	private Tablebase(File file, MappedByteBuffer data) throws IOException {
+		this.file = file;
+		this.data = data;
+		if (data.getInt() != MAGIC)
+			throw new IOException(file + " ist keine Endspieldatenbank.");
+		maxFish = data.getInt();
+		int[] obstacles = new int[data.getInt()];
+		for (int i = 0; i < obstacles.length; i++)
+			obstacles[i] = data.getInt();
+		if (maxFish < 0 || maxFish > TablebaseIndex.MAX_FISH || data.getInt() != BLOCK_SIZE)
+			throw new IOException(file + " hat ein unbekanntes Format.");
+		index = new TablebaseIndex(obstacles);
+		int tables = tableCount(maxFish);
+		firstBlock = new int[tables];
+		entries = new long[tables];
+		for (int t = 0; t < tables; t++) {
+			entries[t] = data.getLong();
+			firstBlock[t] = data.getInt();
+		}
+		blockOffsets = new long[data.getInt() + 1];
+		for (int i = 0; i < blockOffsets.length; i++)
+			blockOffsets[i] = data.getLong();
+		dataStart = data.position();
+	}
+
+	/** Bildet eine Datenbank in den Speicher ab. */
+	public static Tablebase open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			// die Abbildung bleibt auch nach dem Schließen des Kanals gültig
+			return new Tablebase(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/** Anzahl der Tabellen bis zu <code>maxFish</code> Fischen je Farbe. */
+	public static int tableCount(int maxFish) {
+		return (maxFish + 1) * (maxFish + 1) * 2;
+	}
+
+	/** Die Nummer der Tabelle für die Anzahl der Fische und die Farbe am Zug. */
+	public static int table(int maxFish, int red, int blue, int current) {
+		return ((red * (maxFish + 1)) + blue) * 2 + current;
+	}
+
+	/**
+	 * Sucht die Stellung in der Datenbank.
+	 *
+	 * @return Der Wert aus Sicht des Spielers am Zug (siehe {@link #result(int)}
+	 *         und {@link #distance(int)}) oder {@link #NOT_FOUND}, wenn die
+	 *         Stellung zu viele Fische oder eine andere Lage der Hindernisse hat
+	 */
+	public int probe(BitBoard board) {
+		int red = board.countFish(BitBoard.RED);
+		int blue = board.countFish(BitBoard.BLUE);
+		if (red > maxFish || blue > maxFish)
+			return NOT_FOUND;
+		int symmetry = symmetry(board);
+		if (symmetry < 0)
+			return NOT_FOUND;
+		long[] image = caches.get().image;
+		TablebaseIndex.transform(symmetry, board.lo(BitBoard.RED), board.hi(BitBoard.RED), image);
+		long rank = index.rank(image[0], image[1]);
+		TablebaseIndex.transform(symmetry, board.lo(BitBoard.BLUE), board.hi(BitBoard.BLUE), image);
+		long position = rank * index.combinations(blue) + index.rank(image[0], image[1]);
+		return read(table(maxFish, red, blue, board.current()), position);
+	}
+
+	/** Ob die Datenbank Stellungen mit der Lage der Hindernisse dieses Bretts enthält. */
+	public boolean covers(BitBoard board) {
+		return symmetry(board) >= 0;
+	}
+
+	/** Die Symmetrie, die die Hindernisse des Bretts auf die der Datenbank abbildet, oder -1. */
+	private int symmetry(BitBoard board) {
+		Layout last = layout;
+		if (last.obstacleLo == board.obstacleLo() && last.obstacleHi == board.obstacleHi())
+			return last.symmetry;
+		int[] obstacles = TablebaseIndex.obstacles(board);
+		int[] own = index.getObstacles();
+		int symmetry = -1;
+		for (int t = 0; t < TablebaseIndex.SYMMETRIES && symmetry < 0; t++) {
+			if (Arrays.equals(TablebaseIndex.transform(t, obstacles), own))
+				symmetry = t;
+		}
+		layout = new Layout(board.obstacleLo(), board.obstacleHi(), symmetry);
+		return symmetry;
+	}
+
+	/** Liest den Wert einer Stellung aus einer Tabelle. */
+	int read(int table, long position) {
+		if (position < 0 || position >= entries[table])
+			return NOT_FOUND;
+		int block = firstBlock[table] + (int) (position / BLOCK_SIZE);
+		return caches.get().block(block)[(int) (position % BLOCK_SIZE)] & 0xFF;
+	}
+
+	/** 1, wenn der Spieler am Zug gewinnt, -1, wenn er verliert, sonst 0. */
+	public static int result(int value) {
+		return value == DRAW ? 0 : value < 128 ? 1 : -1;
+	}
+
+	/** Die Anzahl der Halbzüge bis zum Ende des Spiels bei bestem Spiel beider Seiten. */
+	public static int distance(int value) {
+		return value == DRAW ? 0 : value < 128 ? value - 1 : value - 128;
+	}
+
+	/** Der Wert für einen Sieg des Spielers am Zug nach <code>distance</code> Halbzügen. */
+	public static int win(int distance) {
+		return 1 + distance;
+	}
+
+	/** Der Wert für eine Niederlage des Spielers am Zug nach <code>distance</code> Halbzügen. */
+	public static int loss(int distance) {
+		return 128 + distance;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int getMaxFish() {
+		return maxFish;
+	}
+
+	/** Die kanonische Lage der Hindernisse. */
+	public int[] getObstacles() {
+		return index.getObstacles();
+	}
+
+	@Override
+	public String toString() {
+		return file.getName() + " (bis " + maxFish + " Fische je Farbe, Hindernisse "
+				+ Arrays.toString(index.getObstacles()) + ", " + (blockOffsets.length - 1) + " Blöcke)";
+	}
+
+	private static final class Layout {
+
+		final long obstacleLo;
+		final long obstacleHi;
+		final int symmetry;
+
+		Layout(long obstacleLo, long obstacleHi, int symmetry) {
+			this.obstacleLo = obstacleLo;
+			this.obstacleHi = obstacleHi;
+			this.symmetry = symmetry;
+		}
+
+	}
+
+	/** Die entpackten Blöcke eines Threads, direkt nach der Blocknummer abgelegt. */
+	private final class BlockCache {
+
+		final long[] image = new long[2];
+		private final int[] ids = new int[CACHED_BLOCKS];
+		private final byte[][] blocks = new byte[CACHED_BLOCKS][BLOCK_SIZE];
+		private final Inflater inflater = new Inflater();
+		private byte[] compressed = new byte[0];
+
+		BlockCache() {
+			Arrays.fill(ids, -1);
+		}
+
+		byte[] block(int id) {
+			int slot = id % CACHED_BLOCKS;
+			if (ids[slot] == id)
+				return blocks[slot];
+			int length = (int) (blockOffsets[id + 1] - blockOffsets[id]);
+			if (compressed.length < length)
+				compressed = new byte[length];
+			ByteBuffer in = data.duplicate();
+			in.position(dataStart + (int) blockOffsets[id]);
+			in.get(compressed, 0, length);
+			inflater.reset();
+			inflater.setInput(compressed, 0, length);
+			try {
+				int n = 0;
+				while (n < BLOCK_SIZE && !inflater.finished()) {
+					int read = inflater.inflate(blocks[slot], n, BLOCK_SIZE - n);
+					if (read == 0 && inflater.needsInput())
+						throw new DataFormatException("unerwartetes Ende");
+					n += read;
+				}
+			} catch (DataFormatException e) {
+				throw new IllegalStateException(file + " ist beschädigt (Block " + id + ").", e);
+			}
+			ids[slot] = id;
+			return blocks[slot];
+		}
+
+	}
+
+}
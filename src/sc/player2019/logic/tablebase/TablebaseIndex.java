@@ -0,0 +1,237 @@
+package sc.player2019.logic.tablebase;
+
+import java.util.Arrays;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Nummeriert die Stellungen einer Endspieldatenbank für eine feste Lage der
+ * Hindernisse. Die Fische einer Farbe sind eine Kombination der freien Felder
+ * (alle Felder außer den Hindernissen), die Kombination wird in
+ * colexikographischer Reihenfolge durchgezählt. Der Index einer Stellung mit
+ * <code>r</code> roten und <code>b</code> blauen Fischen ist
+ * <code>Rang(rot) * C(frei, b) + Rang(blau)</code>; Indizes, bei denen sich
+ * rote und blaue Fische überschneiden, bleiben ungenutzt. <br>
+ * Außerdem stellt die Klasse die acht Symmetrien des Bretts bereit. Die Regeln
+ * sind unter allen acht gleich, daher wird je Klasse von Hindernislagen nur
+ * eine kanonische Lage berechnet.
+ */
+public final class TablebaseIndex {
+
+	/** Höchste Anzahl an Fischen je Farbe, für die Binomialkoeffizienten vorliegen */
+	public static final int MAX_FISH = 4;
+	/** Anzahl der Symmetrien des Bretts */
+	public static final int SYMMETRIES = 8;
+
+	/** C(n, k) für n bis 100 und k bis {@link #MAX_FISH} */
+	private static final long[][] BINOMIAL = new long[BitBoard.SQUARES + 1][MAX_FISH + 1];
+	/** [Symmetrie][Feld] das Bildfeld */
+	private static final int[][] TRANSFORM = new int[SYMMETRIES][BitBoard.SQUARES];
+
+	static {
+		for (int n = 0; n <= BitBoard.SQUARES; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= MAX_FISH; k++)
+				BINOMIAL[n][k] = n == 0 ? 0 : BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+		}
+		int last = BitBoard.SIZE - 1;
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			int x = BitBoard.x(sq);
+			int y = BitBoard.y(sq);
+			for (int t = 0; t < SYMMETRIES; t++) {
+				int tx = (t & 1) != 0 ? last - x : x;
+				int ty = (t & 2) != 0 ? last - y : y;
+				TRANSFORM[t][sq] = (t & 4) != 0 ? BitBoard.square(ty, tx) : BitBoard.square(tx, ty);
+			}
+		}
+	}
+
+	private final int[] obstacles;
+	/** [Feld] Nummer unter den freien Feldern oder -1 für ein Hindernis */
+	private final int[] freeIndex = new int[BitBoard.SQUARES];
+	/** [Nummer] das freie Feld */
+	private final int[] freeSquare;
+
+	/**
+	 * @param obstacles Die Felder der Hindernisse, aufsteigend sortiert
+	 */
+	public TablebaseIndex(int[] obstacles) {
+		this.obstacles = obstacles.clone();
+		Arrays.sort(this.obstacles);
+		freeSquare = new int[BitBoard.SQUARES - obstacles.length];
+		Arrays.fill(freeIndex, -1);
+		int free = 0;
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			if (Arrays.binarySearch(this.obstacles, sq) < 0) {
+				freeIndex[sq] = free;
+				freeSquare[free++] = sq;
+			}
+		}
+	}
+
+	public int[] getObstacles() {
+		return obstacles.clone();
+	}
+
+	public int getFreeSquares() {
+		return freeSquare.length;
+	}
+
+	/** Die Anzahl der Kombinationen von <code>fish</code> freien Feldern. */
+	public long combinations(int fish) {
+		return BINOMIAL[freeSquare.length][fish];
+	}
+
+	/** Die Anzahl der Indizes für <code>red</code> rote und <code>blue</code> blaue Fische. */
+	public long size(int red, int blue) {
+		return combinations(red) * combinations(blue);
+	}
+
+	/** Der Index einer Stellung, die Fische als Bitmasken. */
+	public long index(long redLo, long redHi, long blueLo, long blueHi, int blue) {
+		return rank(redLo, redHi) * combinations(blue) + rank(blueLo, blueHi);
+	}
+
+	/**
+	 * Der colexikographische Rang der Fische einer Farbe unter allen
+	 * Kombinationen gleicher Größe. Die Felder dürfen keine Hindernisse sein.
+	 */
+	public long rank(long lo, long hi) {
+		long rank = 0;
+		int k = 1;
+		while (lo != 0) {
+			rank += BINOMIAL[freeIndex[Long.numberOfTrailingZeros(lo)]][k++];
+			lo &= lo - 1;
+		}
+		while (hi != 0) {
+			rank += BINOMIAL[freeIndex[64 + Long.numberOfTrailingZeros(hi)]][k++];
+			hi &= hi - 1;
+		}
+		return rank;
+	}
+
+	/**
+	 * Die Kombination zu einem Rang, als aufsteigende Nummern freier Felder.
+	 *
+	 * @param out Ein Array mit mindestens <code>fish</code> Einträgen
+	 */
+	public static void unrank(long rank, int fish, int[] out) {
+		for (int k = fish; k >= 1; k--) {
+			int n = k - 1;
+			while (BINOMIAL[n + 1][k] <= rank)
+				n++;
+			out[k - 1] = n;
+			rank -= BINOMIAL[n][k];
+		}
+	}
+
+	/**
+	 * Schaltet eine Kombination (aufsteigende Nummern freier Felder) auf die
+	 * nächste in colexikographischer Reihenfolge, deren Rang also um eins größer
+	 * ist.
+	 *
+	 * @return false, wenn es keine weitere Kombination gibt
+	 */
+	public boolean next(int[] combination, int fish) {
+		for (int i = 0; i < fish; i++) {
+			int limit = i + 1 < fish ? combination[i + 1] : freeSquare.length;
+			if (combination[i] + 1 < limit) {
+				combination[i]++;
+				for (int j = 0; j < i; j++)
+					combination[j] = j;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Das Feld zu einer Nummer unter den freien Feldern. */
+	public int square(int free) {
+		return freeSquare[free];
+	}
+
+	/** Das Bild eines Feldes unter einer der acht Symmetrien. */
+	public static int transform(int symmetry, int sq) {
+		return TRANSFORM[symmetry][sq];
+	}
+
+	/**
+	 * Das Bild einer Bitmaske unter einer Symmetrie.
+	 *
+	 * @param out erhält die untere und die obere Hälfte des Bildes
+	 */
+	public static void transform(int symmetry, long lo, long hi, long[] out) {
+		long tLo = 0, tHi = 0;
+		int[] map = TRANSFORM[symmetry];
+		while (lo != 0) {
+			int sq = map[Long.numberOfTrailingZeros(lo)];
+			lo &= lo - 1;
+			if (sq < 64)
+				tLo |= 1L << sq;
+			else
+				tHi |= 1L << (sq - 64);
+		}
+		while (hi != 0) {
+			int sq = map[64 + Long.numberOfTrailingZeros(hi)];
+			hi &= hi - 1;
+			if (sq < 64)
+				tLo |= 1L << sq;
+			else
+				tHi |= 1L << (sq - 64);
+		}
+		out[0] = tLo;
+		out[1] = tHi;
+	}
+
+	/**
+	 * Die kanonische Lage zu einer Lage der Hindernisse: das aufsteigend sortierte
+	 * Bild, das unter allen Symmetrien lexikographisch am kleinsten ist.
+	 */
+	public static int[] canonical(int[] obstacles) {
+		return transform(canonicalSymmetry(obstacles), obstacles);
+	}
+
+	/** Die Symmetrie, die eine Lage der Hindernisse auf ihre kanonische Lage abbildet. */
+	public static int canonicalSymmetry(int[] obstacles) {
+		int best = 0;
+		int[] bestImage = null;
+		for (int t = 0; t < SYMMETRIES; t++) {
+			int[] image = transform(t, obstacles);
+			if (bestImage == null || compare(image, bestImage) < 0) {
+				best = t;
+				bestImage = image;
+			}
+		}
+		return best;
+	}
+
+	/** Das aufsteigend sortierte Bild einiger Felder unter einer Symmetrie. */
+	public static int[] transform(int symmetry, int[] squares) {
+		int[] image = new int[squares.length];
+		for (int i = 0; i < squares.length; i++)
+			image[i] = TRANSFORM[symmetry][squares[i]];
+		Arrays.sort(image);
+		return image;
+	}
+
+	private static int compare(int[] a, int[] b) {
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] != b[i])
+				return a[i] - b[i];
+		}
+		return a.length - b.length;
+	}
+
+	/** Die Felder der Hindernisse einer Stellung, aufsteigend sortiert. */
+	public static int[] obstacles(BitBoard board) {
+		int count = Long.bitCount(board.obstacleLo()) + Long.bitCount(board.obstacleHi());
+		int[] squares = new int[count];
+		int i = 0;
+		for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+			if (board.testObstacle(sq))
+				squares[i++] = sq;
+		}
+		return squares;
+	}
+
+}
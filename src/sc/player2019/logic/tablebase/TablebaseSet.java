@@ -0,0 +1,85 @@
+package sc.player2019.logic.tablebase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Alle Endspieldatenbanken eines Verzeichnisses, je eine für eine Klasse von
+ * Hindernislagen. {@link #probe(BitBoard)} wählt die Datenbank passend zu den
+ * Hindernissen des Bretts. Wird nach dem Öffnen nur gelesen und kann von
+ * mehreren Spielen gleichzeitig genutzt werden.
+ */
+public final class TablebaseSet {
+
+	/** Endung der Dateien, die {@link #open(File)} in einem Verzeichnis lädt */
+	public static final String SUFFIX = ".ptb";
+
+	/** Kanonische Lage der Hindernisse -> Datenbank */
+	private final Map<String, Tablebase> tablebases = new HashMap<String, Tablebase>();
+	private final List<Tablebase> all = new ArrayList<Tablebase>();
+
+	/**
+	 * Öffnet eine einzelne Datenbank oder alle Datenbanken eines Verzeichnisses.
+	 * Gibt es für eine Klasse von Hindernislagen mehrere, wird die mit den meisten
+	 * Fischen genutzt.
+	 */
+	public static TablebaseSet open(File fileOrDirectory) throws IOException {
+		TablebaseSet set = new TablebaseSet();
+		File[] files = fileOrDirectory.isDirectory() ? fileOrDirectory.listFiles() : new File[] { fileOrDirectory };
+		if (files == null)
+			throw new IOException(fileOrDirectory + " kann nicht gelesen werden.");
+		Arrays.sort(files);
+		for (File file : files) {
+			if (fileOrDirectory.isDirectory() && !file.getName().endsWith(SUFFIX))
+				continue;
+			set.add(Tablebase.open(file));
+		}
+		return set;
+	}
+
+	public void add(Tablebase tablebase) {
+		String key = Arrays.toString(tablebase.getObstacles());
+		Tablebase old = tablebases.get(key);
+		if (old == null || old.getMaxFish() < tablebase.getMaxFish())
+			tablebases.put(key, tablebase);
+		all.add(tablebase);
+	}
+
+	/**
+	 * Sucht die Stellung in der passenden Datenbank.
+	 *
+	 * @return siehe {@link Tablebase#probe(BitBoard)}
+	 */
+	public int probe(BitBoard board) {
+		Tablebase tablebase = get(board);
+		return tablebase == null ? Tablebase.NOT_FOUND : tablebase.probe(board);
+	}
+
+	/** Die Datenbank für die Hindernisse des Bretts oder null. */
+	public Tablebase get(BitBoard board) {
+		int[] canonical = TablebaseIndex.canonical(TablebaseIndex.obstacles(board));
+		return tablebases.get(Arrays.toString(canonical));
+	}
+
+	public List<Tablebase> getTablebases() {
+		return Collections.unmodifiableList(all);
+	}
+
+	public boolean isEmpty() {
+		return all.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return all.size() + " Endspieldatenbanken für " + tablebases.size() + " Hindernislagen";
+	}
+
+}
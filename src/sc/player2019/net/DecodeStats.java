@@ -0,0 +1,49 @@
+package sc.player2019.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sammelt die Dauer, die das Dekodieren der empfangenen Spielstände benötigt.
+ * Die Werte können von mehreren Threads gleichzeitig erfasst werden.
+ */
+public class DecodeStats {
+
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private volatile long lastNanos;
+
+	public void record(long nanos) {
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		lastNanos = nanos;
+		long max;
+		while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos))
+			;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	/** Dauer des zuletzt dekodierten Spielstands in Nanosekunden. */
+	public long getLastNanos() {
+		return lastNanos;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public double getAverageNanos() {
+		long c = count.get();
+		return c == 0 ? 0 : (double) totalNanos.get() / c;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d Spielstände, Ø %.1f µs, max %.1f µs", getCount(), getAverageNanos() / 1000.0,
+				getMaxNanos() / 1000.0);
+	}
+
+}
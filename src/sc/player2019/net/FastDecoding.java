@@ -0,0 +1,180 @@
+package sc.player2019.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Board;
+import sc.plugin2019.Field;
+import sc.plugin2019.FieldState;
+import sc.plugin2019.GameState;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Optionaler schneller Weg für empfangene Spielstände. Die Felder des Boards
+ * werden direkt aus dem XML-Pull-Parser von XStream gelesen, statt jedes Field
+ * per Reflection zu erzeugen. Dabei wird gleichzeitig ein {@link BitBoard}
+ * gefüllt, das die Logik über {@link #takeDecoded()} abholen kann und so den
+ * GameState gar nicht mehr umwandeln muss. <br>
+ * Ist das Board unvollständig oder unbekannt aufgebaut, wird kein BitBoard
+ * bereitgestellt und die Logik wandelt wie bisher den von XStream erzeugten
+ * GameState um. <br>
+ * Die Dauer jedes dekodierten Spielstands wird in {@link #getStats()}
+ * gesammelt.
+ */
+public class FastDecoding {
+
+	private static final Logger log = LoggerFactory.getLogger(FastDecoding.class);
+
+	private static final DecodeStats stats = new DecodeStats();
+	/** Der Empfangsthread ruft auch die Logik auf, daher genügt ein ThreadLocal */
+	private static final ThreadLocal<BitBoard> decoded = new ThreadLocal<BitBoard>();
+	private static volatile boolean installed = false;
+
+	private FastDecoding() {
+		throw new IllegalStateException("Can't be instantiated.");
+	}
+
+	/**
+	 * Registriert die Konverter an der übergebenen XStream-Instanz. Muss vor dem
+	 * Erzeugen des Clients aufgerufen werden.
+	 */
+	public static synchronized void install(XStream xStream) {
+		if (installed)
+			return;
+		xStream.registerConverter(new BoardConverter(), XStream.PRIORITY_VERY_HIGH);
+		xStream.registerConverter(new TimedStateConverter(xStream), XStream.PRIORITY_VERY_HIGH);
+		installed = true;
+		log.info("Schnelles Dekodieren der Spielstände ist aktiviert.");
+	}
+
+	public static boolean isInstalled() {
+		return installed;
+	}
+
+	/**
+	 * Gibt das BitBoard des zuletzt in diesem Thread empfangenen Spielstands
+	 * zurück und vergisst es. Gibt null zurück, wenn der schnelle Weg nicht aktiv
+	 * ist oder der Spielstand nicht gelesen werden konnte.
+	 */
+	public static BitBoard takeDecoded() {
+		BitBoard board = decoded.get();
+		decoded.remove();
+		return board;
+	}
+
+	public static DecodeStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Liest die Felder des Boards direkt aus den Attributen der
+	 * <code>field</code>-Elemente.
+	 */
+	static class BoardConverter implements Converter {
+
+		@Override
+		public boolean canConvert(@SuppressWarnings("rawtypes") Class type) {
+			return type == Board.class;
+		}
+
+		@Override
+		public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+			Board board = (Board) source;
+			for (int x = 0; x < Constants.BOARD_SIZE; x++) {
+				writer.startNode("fields");
+				for (int y = 0; y < Constants.BOARD_SIZE; y++) {
+					Field field = board.getField(x, y);
+					writer.startNode("field");
+					writer.addAttribute("x", Integer.toString(x));
+					writer.addAttribute("y", Integer.toString(y));
+					writer.addAttribute("state", field.getState().name());
+					writer.endNode();
+				}
+				writer.endNode();
+			}
+		}
+
+		@Override
+		public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+			Board board = new Board();
+			// Board() legt zufällige Hindernisse an, diese dürfen nicht stehen bleiben
+			for (int x = 0; x < Constants.BOARD_SIZE; x++) {
+				for (int y = 0; y < Constants.BOARD_SIZE; y++)
+					board.getField(x, y).setState(FieldState.EMPTY);
+			}
+			BitBoard bits = new BitBoard();
+			int fields = 0;
+			while (reader.hasMoreChildren()) {
+				reader.moveDown();
+				while (reader.hasMoreChildren()) {
+					reader.moveDown();
+					String x = reader.getAttribute("x");
+					String y = reader.getAttribute("y");
+					String state = reader.getAttribute("state");
+					if (x != null && y != null && state != null) {
+						int fx = Integer.parseInt(x);
+						int fy = Integer.parseInt(y);
+						FieldState fs = FieldState.valueOf(state);
+						board.getField(fx, fy).setState(fs);
+						int sq = BitBoard.square(fx, fy);
+						if (fs == FieldState.RED)
+							bits.set(BitBoard.RED, sq);
+						else if (fs == FieldState.BLUE)
+							bits.set(BitBoard.BLUE, sq);
+						else if (fs == FieldState.OBSTRUCTED)
+							bits.setObstacle(sq);
+						fields++;
+					}
+					reader.moveUp();
+				}
+				reader.moveUp();
+			}
+			if (fields == BitBoard.SQUARES) {
+				decoded.set(bits);
+			} else {
+				log.warn("Das Board enthielt nur {} Felder, die Logik nutzt den GameState.", fields);
+				decoded.remove();
+			}
+			return board;
+		}
+
+	}
+
+	/**
+	 * Liest den GameState wie bisher per Reflection, misst dabei die Dauer und
+	 * ergänzt das BitBoard um Zug und aktuellen Spieler.
+	 */
+	static class TimedStateConverter extends ReflectionConverter {
+
+		TimedStateConverter(XStream xStream) {
+			super(xStream.getMapper(), xStream.getReflectionProvider(), GameState.class);
+		}
+
+		@Override
+		public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+			long start = System.nanoTime();
+			decoded.remove();
+			GameState state = (GameState) super.unmarshal(reader, context);
+			BitBoard bits = decoded.get();
+			if (bits != null) {
+				bits.setTurn(state.getTurn());
+				bits.setCurrent(BitBoard.colour(state.getCurrentPlayerColor()));
+			}
+			long nanos = System.nanoTime() - start;
+			stats.record(nanos);
+			log.debug("Spielstand in {} µs dekodiert", nanos / 1000);
+			return state;
+		}
+
+	}
+
+}
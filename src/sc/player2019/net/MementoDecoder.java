@@ -0,0 +1,105 @@
+package sc.player2019.net;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.xmlpull.mxp1.MXParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.plugin2019.Direction;
+import sc.plugin2019.Move;
+
+/**
+ * Liest Spielstände (<code>&lt;state&gt;</code>-Elemente) mit einem
+ * Pull-Parser direkt in ein {@link BitBoard}, ohne GameState, Board oder Field
+ * zu erzeugen. Die Eingabe kann ein ganzer Protokollmitschnitt sein, es werden
+ * alle übrigen Elemente übersprungen. <br>
+ * Ein Objekt liest genau eine Eingabe und ist nicht threadsicher.
+ */
+public class MementoDecoder {
+
+	private final XmlPullParser parser = new MXParser();
+	private final DecodeStats stats;
+	private Move lastMove;
+
+	public MementoDecoder(Reader in, DecodeStats stats) throws XmlPullParserException {
+		this.stats = stats;
+		parser.setInput(in);
+	}
+
+	public MementoDecoder(Reader in) throws XmlPullParserException {
+		this(in, new DecodeStats());
+	}
+
+	/**
+	 * Liest den nächsten Spielstand der Eingabe.
+	 *
+	 * @param target Das BitBoard, in das der Spielstand geschrieben wird
+	 * @return false, wenn die Eingabe keinen weiteren Spielstand enthält
+	 */
+	public boolean next(BitBoard target) throws XmlPullParserException, IOException {
+		int event;
+		while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+			if (event == XmlPullParser.START_TAG && "state".equals(parser.getName())) {
+				long start = System.nanoTime();
+				readState(target);
+				stats.record(System.nanoTime() - start);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void readState(BitBoard target) throws XmlPullParserException, IOException {
+		target.clearAll();
+		target.setTurn(Integer.parseInt(parser.getAttributeValue(null, "turn")));
+		target.setCurrent("BLUE".equals(parser.getAttributeValue(null, "currentPlayerColor")) ? BitBoard.BLUE
+				: BitBoard.RED);
+		lastMove = null;
+		int depth = 1;
+		while (depth > 0) {
+			int event = parser.next();
+			if (event == XmlPullParser.START_TAG) {
+				depth++;
+				String name = parser.getName();
+				if ("field".equals(name)) {
+					readField(target);
+				} else if ("lastMove".equals(name)) {
+					lastMove = new Move(Integer.parseInt(parser.getAttributeValue(null, "x")),
+							Integer.parseInt(parser.getAttributeValue(null, "y")),
+							Direction.valueOf(parser.getAttributeValue(null, "direction")));
+				}
+			} else if (event == XmlPullParser.END_TAG) {
+				depth--;
+			} else if (event == XmlPullParser.END_DOCUMENT) {
+				throw new XmlPullParserException("Unerwartetes Ende des Spielstands", parser, null);
+			}
+		}
+	}
+
+	private void readField(BitBoard target) {
+		String state = parser.getAttributeValue(null, "state");
+		if (state == null || "EMPTY".equals(state))
+			return;
+		int sq = BitBoard.square(Integer.parseInt(parser.getAttributeValue(null, "x")),
+				Integer.parseInt(parser.getAttributeValue(null, "y")));
+		if ("RED".equals(state))
+			target.set(BitBoard.RED, sq);
+		else if ("BLUE".equals(state))
+			target.set(BitBoard.BLUE, sq);
+		else if ("OBSTRUCTED".equals(state))
+			target.setObstacle(sq);
+	}
+
+	/** Der letzte Move des zuletzt gelesenen Spielstands oder null. */
+	public Move getLastMove() {
+		return lastMove;
+	}
+
+	public DecodeStats getStats() {
+		return stats;
+	}
+
+}
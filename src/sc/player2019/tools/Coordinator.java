@@ -0,0 +1,231 @@
+package sc.player2019.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilt Arbeitspakete über eine Socket-Verbindung an beliebig viele
+ * {@link Worker} und schreibt deren Ergebnisse in eine Datei, in der
+ * Reihenfolge, in der sie ankommen. <br>
+ * Jedes Paket wird so lange vergeben, bis ein Ergebnis dafür da ist: Bricht
+ * die Verbindung zu einem Worker ab oder antwortet er nicht innerhalb von
+ * {@link #LEASE_MILLIS}, kommt sein Paket zurück in die Warteschlange und geht
+ * an den nächsten freien Worker. Worker können also jederzeit dazukommen,
+ * abstürzen und neu gestartet werden. Kommt ein Ergebnis doppelt, wird nur das
+ * erste geschrieben. Sind alle Pakete erledigt, meldet der Coordinator allen
+ * Workern das Ende und beendet sich. <br>
+ * Aufruf:
+ * <ul>
+ * <li><code>java -cp ... sc.player2019.tools.Coordinator port selfplay ausgabe [Spiele] [Tiefe] [Spiele je Paket] [Seed]</code>
+ * schreibt {@link TrainingPosition}en wie {@link SelfPlay}.</li>
+ * <li><code>java -cp ... sc.player2019.tools.Coordinator port analyse ausgabe eingabe [Tiefe] [Stellungen je Paket]</code>
+ * durchsucht die Stellungen der Eingabe (eine je Zeile, in der Kurzform von
+ * BitBoard.toCode()) und schreibt je Stellung eine Zeile mit Tiefe, Bewertung
+ * und bestem Move.</li>
+ * </ul>
+ */
+public class Coordinator {
+
+	/** So lange darf ein Worker für ein Paket brauchen */
+	static final long LEASE_MILLIS = 10 * 60 * 1000;
+
+	private final LinkedBlockingDeque<WorkTask> pending = new LinkedBlockingDeque<WorkTask>();
+	private final HashSet<Integer> finished = new HashSet<Integer>();
+	private final int total;
+	private final OutputStream out;
+	private final long leaseMillis;
+	private ServerSocket server;
+	private long startMillis;
+	private int requeued;
+
+	public Coordinator(List<WorkTask> tasks, OutputStream out, long leaseMillis) {
+		this.pending.addAll(tasks);
+		this.total = tasks.size();
+		this.out = out;
+		this.leaseMillis = leaseMillis;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3 || !args[1].equals("selfplay") && !args[1].equals("analyse")
+				|| args[1].equals("analyse") && args.length < 4) {
+			System.out.println("Aufruf: Coordinator port selfplay ausgabe [Spiele] [Tiefe] [Spiele je Paket] [Seed]");
+			System.out.println("        Coordinator port analyse ausgabe eingabe [Tiefe] [Stellungen je Paket]");
+			System.exit(2);
+		}
+		int port = Integer.parseInt(args[0]);
+		ArrayList<WorkTask> tasks = new ArrayList<WorkTask>();
+		if (args[1].equals("selfplay")) {
+			int games = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+			int depth = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+			int batch = args.length > 5 ? Integer.parseInt(args[5]) : 5;
+			long seed = args.length > 6 ? Long.parseLong(args[6]) : 2019;
+			for (int first = 0; first < games; first += batch)
+				tasks.add(WorkTask.selfPlay(tasks.size(), depth, seed + first, Math.min(batch, games - first)));
+		} else {
+			int depth = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+			int batch = args.length > 5 ? Integer.parseInt(args[5]) : 20;
+			ArrayList<String> positions = readPositions(new File(args[3]));
+			for (int first = 0; first < positions.size(); first += batch) {
+				List<String> part = positions.subList(first, Math.min(first + batch, positions.size()));
+				tasks.add(WorkTask.analyse(tasks.size(), depth, part.toArray(new String[part.size()])));
+			}
+		}
+		File file = new File(args[2]);
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			Coordinator coordinator = new Coordinator(tasks, out, LEASE_MILLIS);
+			coordinator.run(new ServerSocket(port));
+			System.out.println(coordinator + ", Ergebnisse in " + file);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static ArrayList<String> readPositions(File file) throws IOException {
+		ArrayList<String> positions = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#"))
+					positions.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return positions;
+	}
+
+	/**
+	 * Nimmt Worker an, bis alle Pakete erledigt sind. Jeder Worker wird in einem
+	 * eigenen Thread bedient.
+	 */
+	public void run(ServerSocket server) throws IOException {
+		startMillis = System.currentTimeMillis();
+		synchronized (this) {
+			this.server = server;
+			if (isFinished())
+				server.close();
+		}
+		System.out.println(total + " Pakete, warte auf Worker an Port " + server.getLocalPort());
+		while (true) {
+			final Socket socket;
+			try {
+				socket = server.accept();
+			} catch (SocketException e) {
+				// geschlossen, weil alle Pakete erledigt sind
+				if (isFinished())
+					return;
+				throw e;
+			}
+			Thread thread = new Thread(() -> serve(socket), "Coordinator " + socket.getRemoteSocketAddress());
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	private void serve(Socket socket) {
+		String name = String.valueOf(socket.getRemoteSocketAddress());
+		WorkTask task = null;
+		try {
+			socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, leaseMillis));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			if (in.readInt() != WorkTask.MAGIC)
+				throw new IOException("kein Worker");
+			name = in.readUTF();
+			System.out.println(name + " verbunden");
+			while ((task = next()) != null) {
+				task.write(out);
+				if (in.readInt() != WorkTask.RESULT || in.readInt() != task.id)
+					throw new IOException("unerwartete Antwort");
+				byte[] result = new byte[in.readInt()];
+				in.readFully(result);
+				complete(task, result, name);
+				task = null;
+			}
+			out.writeInt(WorkTask.DONE);
+			out.flush();
+		} catch (IOException e) {
+			if (task != null)
+				requeue(task);
+			System.out.println(name + " getrennt (" + e + ")"
+					+ (task != null ? ", " + task + " wird neu vergeben" : ""));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// schon geschlossen
+			}
+		}
+	}
+
+	/**
+	 * Das nächste offene Paket. Solange andere Worker noch rechnen, wird
+	 * gewartet, weil deren Pakete zurückkommen können.
+	 *
+	 * @return null, wenn alle Pakete erledigt sind
+	 */
+	private WorkTask next() throws InterruptedException {
+		while (!isFinished()) {
+			WorkTask task = pending.poll(500, TimeUnit.MILLISECONDS);
+			if (task != null && !isFinished(task))
+				return task;
+		}
+		return null;
+	}
+
+	private synchronized void requeue(WorkTask task) {
+		if (!finished.contains(task.id)) {
+			requeued++;
+			pending.addFirst(task);
+		}
+	}
+
+	private synchronized void complete(WorkTask task, byte[] result, String worker) throws IOException {
+		if (!finished.add(task.id))
+			return;
+		out.write(result);
+		System.out.printf("%s von %s erledigt, %d/%d nach %.1f s%n", task, worker, finished.size(), total,
+				(System.currentTimeMillis() - startMillis) / 1000.0);
+		if (isFinished()) {
+			out.flush();
+			if (server != null)
+				server.close();
+		}
+	}
+
+	private synchronized boolean isFinished() {
+		return finished.size() == total;
+	}
+
+	private synchronized boolean isFinished(WorkTask task) {
+		return finished.contains(task.id);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return finished.size() + "/" + total + " Pakete erledigt, " + requeued + " neu vergeben";
+	}
+
+}
@@ -0,0 +1,228 @@
+package sc.player2019.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.net.MementoDecoder;
+import sc.plugin2019.Direction;
+import sc.plugin2019.FieldState;
+import sc.plugin2019.GameState;
+import sc.plugin2019.Move;
+import sc.plugin2019.util.Constants;
+
+/**
+ * Liest Spiele aus Logs und Replays und schreibt alle Stellungen mit dem
+ * Ausgang ihres Spiels als {@link TrainingPosition}en in eine Datei, wie sie
+ * {@link NnueTrainer} und die Benchmarks laden. <br>
+ * Logs des Servers oder der GUI (auch als HTML wie in <code>additional/</code>)
+ * werden zeilenweise gelesen. Jeder vom Server empfangene Move wird dem Spiel
+ * seines Raums zugeordnet und mit {@link Move#perform(GameState)} auf einem
+ * eigenen {@link GameState} ausgeführt. Die Logs enthalten die Hindernisse
+ * nicht, deshalb beginnt jedes Spiel in der Startaufstellung ohne Hindernisse;
+ * da Fische über Hindernisse springen dürfen, bleiben alle Moves gültig. <br>
+ * Replays (<code>.xml</code>, auch gepackt als <code>.xml.gz</code>) enthalten
+ * jeden Spielstand vollständig und werden mit dem {@link MementoDecoder}
+ * gelesen. Ein neues Spiel beginnt, sobald der Zug nicht mehr steigt. <br>
+ * Geschrieben werden nur Spiele, die nach den Regeln des Servers entschieden
+ * sind, und jede Stellung nur einmal. Hindernisse stehen nicht im Datensatz.
+ * <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.tools.CorpusImporter ausgabe eingabe...</code>
+ */
+public class CorpusImporter {
+
+	/** Ein vom Server empfangener Move mit dem Raum, zu dem er gehört */
+	private static final Pattern RECEIVED_MOVE = Pattern.compile(
+			"Received RoomPacket\\{roomId=([^,]+), data=Zug von \\((\\d)\\|(\\d)\\) in Richtung ([A-Z_]+)\\}");
+
+	/** Das Spiel ist noch nicht entschieden */
+	static final int OPEN = Integer.MIN_VALUE;
+
+	private final DataOutputStream out;
+	private final HashSet<BitBoard> seen = new HashSet<BitBoard>();
+	private int games;
+	private int unfinished;
+	private int invalid;
+	private long positions;
+	private long duplicates;
+
+	public CorpusImporter(DataOutputStream out) {
+		this.out = out;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Aufruf: CorpusImporter ausgabe eingabe...");
+			System.exit(2);
+		}
+		File file = new File(args[0]);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		CorpusImporter importer = new CorpusImporter(out);
+		try {
+			for (int i = 1; i < args.length; i++)
+				importer.read(new File(args[i]));
+		} finally {
+			out.close();
+		}
+		System.out.println(importer + " in " + file);
+	}
+
+	/** Liest eine Datei, je nach Endung als Replay oder als Log. */
+	public void read(File file) throws Exception {
+		String name = file.getName();
+		InputStream in = new FileInputStream(file);
+		try {
+			if (name.endsWith(".gz")) {
+				in = new GZIPInputStream(in);
+				name = name.substring(0, name.length() - 3);
+			}
+			BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+			if (name.endsWith(".xml"))
+				readReplay(reader);
+			else
+				readLog(reader);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Spielt die Moves eines Logs nach. Spiele, die am Ende der Datei noch offen
+	 * sind, werden verworfen.
+	 */
+	void readLog(BufferedReader reader) throws IOException {
+		HashMap<String, ArrayList<BitBoard>> histories = new HashMap<String, ArrayList<BitBoard>>();
+		HashMap<String, GameState> states = new HashMap<String, GameState>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			Matcher m = RECEIVED_MOVE.matcher(line);
+			if (!m.find())
+				continue;
+			String room = m.group(1);
+			GameState gs = states.get(room);
+			if (gs == null) {
+				gs = withoutObstacles(new GameState());
+				states.put(room, gs);
+				histories.put(room, new ArrayList<BitBoard>());
+			}
+			ArrayList<BitBoard> history = histories.get(room);
+			history.add(BitBoard.of(gs));
+			try {
+				new Move(Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)), Direction.valueOf(m.group(4)))
+						.perform(gs);
+			} catch (Exception e) {
+				// ein Move, der ohne Hindernisse ungültig ist, passt nicht zum Spiel
+				invalid++;
+				states.remove(room);
+				histories.remove(room);
+				continue;
+			}
+			int result = redResult(BitBoard.of(gs));
+			if (result != OPEN) {
+				write(history, result);
+				states.remove(room);
+				histories.remove(room);
+			}
+		}
+		unfinished += histories.size();
+	}
+
+	/**
+	 * Liest die Spielstände eines Replays. Ein Spiel, dessen letzter Spielstand
+	 * nicht entschieden ist, wird verworfen.
+	 */
+	void readReplay(BufferedReader reader) throws Exception {
+		MementoDecoder decoder = new MementoDecoder(reader);
+		ArrayList<BitBoard> history = new ArrayList<BitBoard>();
+		BitBoard board = new BitBoard();
+		while (decoder.next(board)) {
+			if (!history.isEmpty() && board.turn() <= history.get(history.size() - 1).turn())
+				finish(history);
+			history.add(board.copy());
+		}
+		finish(history);
+	}
+
+	private void finish(ArrayList<BitBoard> history) throws IOException {
+		if (history.isEmpty())
+			return;
+		int result = redResult(history.get(history.size() - 1));
+		if (result == OPEN)
+			unfinished++;
+		else
+			write(history.subList(0, history.size() - 1), result);
+		history.clear();
+	}
+
+	/** Schreibt alle Stellungen eines Spiels, die noch nicht geschrieben wurden. */
+	private void write(Iterable<BitBoard> history, int redResult) throws IOException {
+		games++;
+		for (Iterator<BitBoard> it = history.iterator(); it.hasNext();) {
+			BitBoard board = it.next();
+			board.clearObstacles();
+			if (!seen.add(board)) {
+				duplicates++;
+				continue;
+			}
+			new TrainingPosition(board, redResult).write(out);
+			positions++;
+		}
+	}
+
+	/**
+	 * Der Ausgang nach den Regeln des Servers aus Sicht von Rot: Geprüft wird nur
+	 * am Ende einer Runde. Hängt genau ein Schwarm zusammen, gewinnt seine Farbe,
+	 * hängen beide zusammen, der größere. Nach dem Rundenlimit entscheiden die
+	 * Punkte.
+	 *
+	 * @return 1, 0 oder -1, {@link #OPEN} wenn das Spiel weitergeht
+	 */
+	static int redResult(BitBoard board) {
+		if (board.turn() % 2 == 1)
+			return OPEN;
+		boolean red = board.isConnected(BitBoard.RED);
+		boolean blue = board.isConnected(BitBoard.BLUE);
+		int points = Integer.signum(board.points(BitBoard.RED) - board.points(BitBoard.BLUE));
+		if (board.turn() >= Constants.ROUND_LIMIT * 2)
+			return red && !blue ? 1 : blue && !red ? -1 : points;
+		if (red && blue)
+			return points != 0 ? points : OPEN;
+		return red ? 1 : blue ? -1 : OPEN;
+	}
+
+	private static GameState withoutObstacles(GameState gs) {
+		for (int x = 0; x < BitBoard.SIZE; x++) {
+			for (int y = 0; y < BitBoard.SIZE; y++) {
+				if (gs.getField(x, y).getState() == FieldState.OBSTRUCTED)
+					gs.getField(x, y).setState(FieldState.EMPTY);
+			}
+		}
+		return gs;
+	}
+
+	public long getPositions() {
+		return positions;
+	}
+
+	@Override
+	public String toString() {
+		return games + " Spiele, " + positions + " Stellungen (" + duplicates + " doppelt), " + unfinished
+				+ " offene und " + invalid + " ungültige Spiele verworfen";
+	}
+
+}
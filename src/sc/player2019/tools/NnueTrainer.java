@@ -0,0 +1,220 @@
+package sc.player2019.tools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+
+/**
+ * Trainiert das Netz für den {@link NnueEvaluator} auf Stellungen aus
+ * {@link SelfPlay} und schreibt die quantisierten Gewichte. <br>
+ * Das Netz lernt eine Mischung aus der Differenz der Punkte in der Stellung
+ * und dem Ausgang des Spiels (in Punkten: {@link #RESULT_POINTS} für einen
+ * Sieg), beides aus Sicht des Spielers am Zug. Trainiert wird mit
+ * stochastischem Gradientenabstieg in float, erst zum Schluss wird quantisiert.
+ * 10 % der Stellungen dienen zur Kontrolle. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.tools.NnueTrainer daten gewichte [Neuronen] [Epochen] [Lernrate] [Anteil Ausgang]</code>
+ */
+public class NnueTrainer {
+
+	/** So viele Punkte ist ein gewonnenes Spiel im Ziel wert */
+	static final float RESULT_POINTS = 8;
+
+	private final int hidden;
+	private final float[] w1;
+	private final float[] b1;
+	private final float[] w2;
+	private float b2;
+	/** Zwischenwerte eines Durchlaufs: [Sicht am Zug / andere][Neuron] */
+	private final float[][] pre;
+	private final int[][] features = new int[2][32];
+	private final int[] featureCount = new int[2];
+
+	NnueTrainer(int hidden, Random random) {
+		this.hidden = hidden;
+		w1 = new float[NnueWeights.INPUTS * hidden];
+		b1 = new float[hidden];
+		w2 = new float[2 * hidden];
+		pre = new float[2][hidden];
+		for (int i = 0; i < w1.length; i++)
+			w1[i] = (float) (random.nextGaussian() * 0.1);
+		for (int i = 0; i < hidden; i++)
+			b1[i] = 0.5f;
+		for (int i = 0; i < w2.length; i++)
+			w2[i] = (float) (random.nextGaussian() / Math.sqrt(hidden));
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Aufruf: NnueTrainer daten gewichte [Neuronen] [Epochen] [Lernrate] [Anteil Ausgang]");
+			System.exit(2);
+		}
+		int hidden = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+		int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		float rate = args.length > 4 ? Float.parseFloat(args[4]) : 0.005f;
+		float lambda = args.length > 5 ? Float.parseFloat(args[5]) : 0.5f;
+
+		ArrayList<TrainingPosition> positions = read(new File(args[0]));
+		Random random = new Random(2019);
+		Collections.shuffle(positions, random);
+		int split = positions.size() / 10;
+		ArrayList<TrainingPosition> validation = new ArrayList<TrainingPosition>(positions.subList(0, split));
+		ArrayList<TrainingPosition> training = new ArrayList<TrainingPosition>(positions.subList(split,
+				positions.size()));
+		System.out.println(training.size() + " Stellungen zum Training, " + validation.size() + " zur Kontrolle");
+		System.out.printf("Punktedifferenz als Bewertung: Fehler %.3f%n", baseline(validation, lambda));
+
+		NnueTrainer trainer = new NnueTrainer(hidden, random);
+		for (int epoch = 1; epoch <= epochs; epoch++) {
+			Collections.shuffle(training, random);
+			double loss = 0;
+			for (TrainingPosition p : training)
+				loss += trainer.step(p, target(p, lambda), rate);
+			System.out.printf("Epoche %d: Training %.3f, Kontrolle %.3f%n", epoch, loss / training.size(),
+					trainer.loss(validation, lambda));
+			rate *= 0.9f;
+		}
+
+		NnueWeights weights = trainer.quantise();
+		weights.save(new File(args[1]));
+		NnueEvaluator evaluator = new NnueEvaluator(weights);
+		double error = 0;
+		for (TrainingPosition p : validation) {
+			double diff = evaluator.evaluate(p.board) - target(p, lambda);
+			error += diff * diff;
+		}
+		System.out.printf("Quantisiert: Fehler %.3f, gespeichert in %s%n", error / Math.max(1, validation.size()),
+				args[1]);
+	}
+
+	static ArrayList<TrainingPosition> read(File file) throws Exception {
+		ArrayList<TrainingPosition> positions = new ArrayList<TrainingPosition>();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			TrainingPosition p;
+			while ((p = TrainingPosition.read(in)) != null)
+				positions.add(p);
+		} finally {
+			in.close();
+		}
+		return positions;
+	}
+
+	/** Das Ziel aus Sicht des Spielers am Zug, in Punkten. */
+	static float target(TrainingPosition p, float lambda) {
+		int own = p.board.current();
+		int points = p.board.points(own) - p.board.points(1 - own);
+		return lambda * RESULT_POINTS * p.result() + (1 - lambda) * points;
+	}
+
+	private static double baseline(ArrayList<TrainingPosition> positions, float lambda) {
+		double error = 0;
+		for (TrainingPosition p : positions) {
+			int own = p.board.current();
+			double diff = p.board.points(own) - p.board.points(1 - own) - target(p, lambda);
+			error += diff * diff;
+		}
+		return error / Math.max(1, positions.size());
+	}
+
+	private double loss(ArrayList<TrainingPosition> positions, float lambda) {
+		double error = 0;
+		for (TrainingPosition p : positions) {
+			double diff = forward(p.board) - target(p, lambda);
+			error += diff * diff;
+		}
+		return error / Math.max(1, positions.size());
+	}
+
+	private void collect(BitBoard board) {
+		int own = board.current();
+		for (int side = 0; side < 2; side++) {
+			int perspective = side == 0 ? own : 1 - own;
+			int count = 0;
+			for (int colour = BitBoard.RED; colour <= BitBoard.BLUE; colour++) {
+				for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+					if (board.test(colour, sq))
+						features[side][count++] = NnueWeights.feature(perspective, colour, sq);
+				}
+			}
+			featureCount[side] = count;
+		}
+	}
+
+	private float forward(BitBoard board) {
+		collect(board);
+		float out = b2;
+		for (int side = 0; side < 2; side++) {
+			float[] a = pre[side];
+			System.arraycopy(b1, 0, a, 0, hidden);
+			for (int k = 0; k < featureCount[side]; k++) {
+				int offset = features[side][k] * hidden;
+				for (int i = 0; i < hidden; i++)
+					a[i] += w1[offset + i];
+			}
+			int w2Offset = side * hidden;
+			for (int i = 0; i < hidden; i++)
+				out += clamp(a[i]) * w2[w2Offset + i];
+		}
+		return out;
+	}
+
+	/**
+	 * Ein Schritt des Gradientenabstiegs für eine Stellung.
+	 *
+	 * @return der quadratische Fehler vor dem Schritt
+	 */
+	private double step(TrainingPosition p, float target, float rate) {
+		float out = forward(p.board);
+		float gradient = out - target;
+		for (int side = 0; side < 2; side++) {
+			float[] a = pre[side];
+			int w2Offset = side * hidden;
+			for (int i = 0; i < hidden; i++) {
+				float h = clamp(a[i]);
+				float back = gradient * w2[w2Offset + i];
+				w2[w2Offset + i] -= rate * gradient * h;
+				// die Aktivierung leitet nur zwischen 0 und 1 weiter
+				if (a[i] <= 0 || a[i] >= 1)
+					continue;
+				float delta = rate * back;
+				b1[i] -= delta;
+				for (int k = 0; k < featureCount[side]; k++)
+					w1[features[side][k] * hidden + i] -= delta;
+			}
+		}
+		b2 -= rate * gradient;
+		return gradient * gradient;
+	}
+
+	private static float clamp(float value) {
+		return value < 0 ? 0 : value > 1 ? 1 : value;
+	}
+
+	NnueWeights quantise() {
+		short[] inputWeights = new short[w1.length];
+		for (int i = 0; i < w1.length; i++)
+			inputWeights[i] = toShort(w1[i] * NnueWeights.QA);
+		short[] inputBias = new short[hidden];
+		for (int i = 0; i < hidden; i++)
+			inputBias[i] = toShort(b1[i] * NnueWeights.QA);
+		short[] outputWeights = new short[w2.length];
+		for (int i = 0; i < w2.length; i++)
+			outputWeights[i] = toShort(w2[i] * NnueWeights.QB);
+		int outputBias = Math.round(b2 * NnueWeights.QA * NnueWeights.QB);
+		return new NnueWeights(hidden, inputWeights, inputBias, outputWeights, outputBias);
+	}
+
+	private static short toShort(float value) {
+		return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+	}
+
+}
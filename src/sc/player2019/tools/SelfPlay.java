@@ -0,0 +1,97 @@
+package sc.player2019.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+import sc.plugin2019.GameState;
+
+/**
+ * Lässt die {@link Search} gegen sich selbst spielen und schreibt alle
+ * Stellungen mit dem Ausgang ihres Spiels als {@link TrainingPosition}en in
+ * eine Datei. Die ersten Züge und ein kleiner Teil der übrigen werden zufällig
+ * gewählt, damit sich die Spiele unterscheiden. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.tools.SelfPlay datei [Spiele] [Tiefe] [Seed]</code>
+ */
+public class SelfPlay {
+
+	/** So viele Züge am Anfang jedes Spiels sind zufällig */
+	static final int RANDOM_OPENING = 4;
+	/** Anteil zufälliger Züge im restlichen Spiel */
+	static final double RANDOM_RATE = 0.1;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Aufruf: SelfPlay datei [Spiele] [Tiefe] [Seed]");
+			System.exit(2);
+		}
+		File file = new File(args[0]);
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int depth = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		Random random = new Random(args.length > 3 ? Long.parseLong(args[3]) : 2019);
+
+		Search search = new Search();
+		int[] results = new int[3];
+		long positions = 0;
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			for (int game = 0; game < games; game++) {
+				ArrayList<TrainingPosition> history = play(search, random, depth);
+				results[history.get(0).redResult + 1]++;
+				for (TrainingPosition position : history) {
+					position.write(out);
+					positions++;
+				}
+				if ((game + 1) % 10 == 0)
+					System.out.println((game + 1) + " Spiele, " + positions + " Stellungen");
+			}
+		} finally {
+			out.close();
+		}
+		System.out.println("Rot gewinnt " + results[2] + ", unentschieden " + results[1] + ", Blau gewinnt "
+				+ results[0] + ". " + positions + " Stellungen in " + file);
+	}
+
+	/**
+	 * Spielt ein Spiel von der Startaufstellung mit zufälligen Hindernissen bis
+	 * zum Ende.
+	 *
+	 * @return Alle Stellungen vor dem Ende mit dem Ausgang des Spiels
+	 */
+	static ArrayList<TrainingPosition> play(Search search, Random random, int depth) {
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		BitBoard board = BitBoard.of(new GameState());
+		ArrayList<BitBoard> history = new ArrayList<BitBoard>();
+		int outcome;
+		while ((outcome = Search.outcome(board)) == Integer.MIN_VALUE) {
+			int count = board.generateMoves(moves);
+			if (count == 0) {
+				outcome = 0;
+				break;
+			}
+			history.add(board.copy());
+			int move;
+			if (board.turn() < RANDOM_OPENING || random.nextDouble() < RANDOM_RATE) {
+				move = moves[random.nextInt(count)];
+			} else {
+				SearchResult result = search.iterate(board, depth, 0);
+				move = result.getEncodedMove();
+			}
+			board.play(move);
+		}
+		// Ausgang aus Sicht der Farbe am Zug in der Endstellung, umgerechnet auf Rot
+		int redResult = board.current() == BitBoard.RED ? outcome : -outcome;
+		ArrayList<TrainingPosition> positions = new ArrayList<TrainingPosition>(history.size());
+		for (BitBoard position : history)
+			positions.add(new TrainingPosition(position, redResult));
+		return positions;
+	}
+
+}
@@ -0,0 +1,400 @@
+package sc.player2019.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.board.Swarm;
+import sc.player2019.logic.tablebase.Tablebase;
+import sc.player2019.logic.tablebase.TablebaseIndex;
+import sc.player2019.logic.tablebase.TablebaseSet;
+
+/**
+ * Erzeugt eine {@link Tablebase} durch Rückwärtsanalyse: Zuerst werden alle
+ * Stellungen markiert, in denen das Spiel entschieden ist, dann wird in
+ * Durchgängen <code>n = 1, 2, ...</code> jede noch offene Stellung mit ihren
+ * Nachfolgern verglichen. Hat der Spieler am Zug einen Move in eine Stellung,
+ * die der Gegner nach <code>n - 1</code> Halbzügen verliert, gewinnt er nach
+ * <code>n</code>; führen alle Moves in gewonnene Stellungen des Gegners,
+ * verliert er nach <code>n</code>. Ein Spieler ohne Moves (ohne Fische) setzt
+ * aus. Werte aus dem laufenden Durchgang werden
+ * dabei nicht gelesen, so sind die Entfernungen exakt und die Durchgänge können
+ * auf mehrere Threads verteilt werden. Was am Ende offen ist, kann keiner
+ * erzwingen. <br>
+ * Tabellen mit weniger Fischen werden zuerst gelöst, da ein Fressen in sie
+ * führt. Der Speicherbedarf ist ein Byte je Stellung und Farbe am Zug: bei zwei
+ * Fischen je Farbe etwa 45 MB je Hindernislage, bei drei Fischen wären es schon
+ * 46 GB. <br>
+ * Aufruf:
+ * <code>java -cp ... sc.player2019.tools.TablebaseGenerator verzeichnis [Fische je Farbe] [Hindernisse|alle] [Threads]</code>
+ * <br>
+ * Hindernisse als Felder <code>x,y;x,y</code>, ohne Angabe die kanonische Lage
+ * zu (2|2) und (7|7). Mit <code>alle</code> wird für jede Klasse von Lagen, die
+ * der Server erzeugen kann, eine Datei geschrieben.
+ */
+public class TablebaseGenerator {
+
+	private final TablebaseIndex index;
+	private final int maxFish;
+	private final ExecutorService pool;
+	private final int chunks;
+	private final BitBoard template = new BitBoard();
+	/** [Tabelle] ein Wert je Stellung, siehe {@link Tablebase} */
+	private final byte[][] tables;
+	/** Größte Entfernung in den bereits gelösten Tabellen */
+	private int maxDistance;
+
+	TablebaseGenerator(int[] obstacles, int maxFish, ExecutorService pool, int threads) {
+		if (maxFish < 1 || maxFish > TablebaseIndex.MAX_FISH)
+			throw new IllegalArgumentException("Es werden 1 bis " + TablebaseIndex.MAX_FISH + " Fische je Farbe unterstützt.");
+		this.index = new TablebaseIndex(obstacles);
+		this.maxFish = maxFish;
+		this.pool = pool;
+		this.chunks = threads * 8;
+		this.tables = new byte[Tablebase.tableCount(maxFish)][];
+		for (int sq : obstacles)
+			template.setObstacle(sq);
+		if (index.size(maxFish, maxFish) > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Bei " + maxFish + " Fischen je Farbe sind es "
+					+ index.size(maxFish, maxFish) + " Stellungen, das ist zu viel für eine Tabelle.");
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Aufruf: TablebaseGenerator verzeichnis [Fische je Farbe] [Hindernisse|alle] [Threads]");
+			System.exit(2);
+		}
+		File directory = new File(args[0]);
+		int maxFish = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		String layout = args.length > 2 ? args[2] : "2,2;7,7";
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException(directory + " kann nicht angelegt werden.");
+
+		List<int[]> layouts = new ArrayList<int[]>();
+		if (layout.equals("alle"))
+			layouts.addAll(allLayouts());
+		else
+			layouts.add(TablebaseIndex.canonical(parseLayout(layout)));
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (int[] obstacles : layouts) {
+				long start = System.currentTimeMillis();
+				TablebaseGenerator generator = new TablebaseGenerator(obstacles, maxFish, pool, threads);
+				generator.solve();
+				File file = new File(directory, fileName(obstacles, maxFish));
+				generator.write(file);
+				System.out.printf("%s geschrieben: %d kB in %.1f s%n", file, file.length() / 1024,
+						(System.currentTimeMillis() - start) / 1000.0);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/** Der Dateiname für eine kanonische Lage der Hindernisse. */
+	static String fileName(int[] obstacles, int maxFish) {
+		StringBuilder name = new StringBuilder("piranhas-").append(maxFish);
+		for (int sq : obstacles)
+			name.append('-').append(sq);
+		return name.append(TablebaseSet.SUFFIX).toString();
+	}
+
+	private static int[] parseLayout(String layout) {
+		String[] fields = layout.split(";");
+		int[] obstacles = new int[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			String[] xy = fields[i].split(",");
+			obstacles[i] = BitBoard.square(Integer.parseInt(xy[0].trim()), Integer.parseInt(xy[1].trim()));
+		}
+		return obstacles;
+	}
+
+	/**
+	 * Die kanonischen Lagen aller Paare von Hindernissen, die der Server erzeugen
+	 * kann: zwei verschiedene Felder mit x und y zwischen 2 und 7 (ausschließlich).
+	 */
+	static List<int[]> allLayouts() {
+		Map<String, int[]> layouts = new LinkedHashMap<String, int[]>();
+		int first = 2, last = BitBoard.SIZE - 3;
+		for (int a = 0; a < BitBoard.SQUARES; a++) {
+			for (int b = a + 1; b < BitBoard.SQUARES; b++) {
+				if (inner(a, first, last) && inner(b, first, last)) {
+					int[] canonical = TablebaseIndex.canonical(new int[] { a, b });
+					layouts.put(Arrays.toString(canonical), canonical);
+				}
+			}
+		}
+		return new ArrayList<int[]>(layouts.values());
+	}
+
+	private static boolean inner(int sq, int first, int last) {
+		int x = BitBoard.x(sq), y = BitBoard.y(sq);
+		return x >= first && x < last && y >= first && y < last;
+	}
+
+	/** Löst alle Tabellen, nach der Anzahl der Fische aufsteigend. */
+	void solve() throws Exception {
+		for (int total = 0; total <= 2 * maxFish; total++) {
+			for (int red = Math.max(0, total - maxFish); red <= Math.min(maxFish, total); red++)
+				solve(red, total - red);
+		}
+	}
+
+	private void solve(int red, int blue) throws Exception {
+		long start = System.currentTimeMillis();
+		int size = (int) index.size(red, blue);
+		int redTable = Tablebase.table(maxFish, red, blue, BitBoard.RED);
+		int blueTable = Tablebase.table(maxFish, red, blue, BitBoard.BLUE);
+		tables[redTable] = new byte[size];
+		tables[blueTable] = new byte[size];
+		int lowerDistance = maxDistance;
+		int pass = 0;
+		for (;; pass++) {
+			long changed = pass(red, blue, pass);
+			if (changed > 0)
+				maxDistance = Math.max(maxDistance, pass);
+			// Werte aus kleineren Tabellen werden erst im Durchgang nach ihrer Entfernung gelesen
+			if (changed == 0 && pass > lowerDistance || pass == Tablebase.MAX_DISTANCE)
+				break;
+		}
+		System.out.printf("%d gegen %d Fische: %d Stellungen, %d Durchgänge, Rot am Zug %s, Blau am Zug %s (%.1f s)%n",
+				red, blue, size, pass + 1, summary(tables[redTable]), summary(tables[blueTable]),
+				(System.currentTimeMillis() - start) / 1000.0);
+	}
+
+	/** Ein Durchgang über alle Stellungen einer Tabelle, verteilt auf den Pool. */
+	private long pass(final int red, final int blue, final int pass) throws Exception {
+		long redCombinations = index.combinations(red);
+		List<Future<Long>> results = new ArrayList<Future<Long>>();
+		int count = (int) Math.min(chunks, redCombinations);
+		for (int c = 0; c < count; c++) {
+			final long from = redCombinations * c / count;
+			final long to = redCombinations * (c + 1) / count;
+			results.add(pool.submit(new Callable<Long>() {
+				@Override
+				public Long call() {
+					return pass(red, blue, pass, from, to);
+				}
+			}));
+		}
+		long changed = 0;
+		for (Future<Long> result : results)
+			changed += result.get();
+		return changed;
+	}
+
+	/** Ein Durchgang über die Stellungen mit den roten Kombinationen from bis to. */
+	long pass(int red, int blue, int pass, long from, long to) {
+		BitBoard board = new BitBoard();
+		int[] moves = new int[BitBoard.MAX_MOVES];
+		int[] redFish = new int[red];
+		int[] blueFish = new int[blue];
+		long[] fish = new long[4];
+		byte[] redTable = tables[Tablebase.table(maxFish, red, blue, BitBoard.RED)];
+		byte[] blueTable = tables[Tablebase.table(maxFish, red, blue, BitBoard.BLUE)];
+		long blueCombinations = index.combinations(blue);
+		long changed = 0;
+		for (long redRank = from; redRank < to; redRank++) {
+			TablebaseIndex.unrank(redRank, red, redFish);
+			long redLo = 0, redHi = 0;
+			for (int i = 0; i < red; i++) {
+				int sq = index.square(redFish[i]);
+				if (sq < 64)
+					redLo |= 1L << sq;
+				else
+					redHi |= 1L << (sq - 64);
+			}
+			for (int i = 0; i < blue; i++)
+				blueFish[i] = i;
+			for (long blueRank = 0; blueRank < blueCombinations; blueRank++, index.next(blueFish, blue)) {
+				long blueLo = 0, blueHi = 0;
+				for (int i = 0; i < blue; i++) {
+					int sq = index.square(blueFish[i]);
+					if (sq < 64)
+						blueLo |= 1L << sq;
+					else
+						blueHi |= 1L << (sq - 64);
+				}
+				if ((redLo & blueLo | redHi & blueHi) != 0)
+					continue;
+				int position = (int) (redRank * blueCombinations + blueRank);
+				fish[0] = redLo;
+				fish[1] = redHi;
+				fish[2] = blueLo;
+				fish[3] = blueHi;
+				for (int current = BitBoard.RED; current <= BitBoard.BLUE; current++) {
+					byte[] table = current == BitBoard.RED ? redTable : blueTable;
+					if (table[position] != Tablebase.DRAW)
+						continue;
+					int value = pass == 0 ? terminal(current, fish, red, blue)
+							: successors(board, moves, current, fish, red, blue, pass);
+					if (value != Tablebase.DRAW) {
+						table[position] = (byte) value;
+						changed++;
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Das Ergebnis einer Stellung, in der das Spiel entschieden ist, sonst
+	 * {@link Tablebase#DRAW}. Wie beim Server wird nur am Ende einer Runde
+	 * geprüft, also wenn Rot am Zug ist.
+	 */
+	private static int terminal(int current, long[] fish, int red, int blue) {
+		if (current != BitBoard.RED)
+			return Tablebase.DRAW;
+		boolean redConnected = Swarm.isConnected(fish[0], fish[1]);
+		boolean blueConnected = Swarm.isConnected(fish[2], fish[3]);
+		// zusammenhängend heißt: der größte Schwarm umfasst alle Fische
+		int winner = redConnected && blueConnected ? Integer.signum(red - blue)
+				: redConnected ? 1 : blueConnected ? -1 : 0;
+		return winner > 0 ? Tablebase.win(0) : winner < 0 ? Tablebase.loss(0) : Tablebase.DRAW;
+	}
+
+	/** Bewertet eine offene Stellung anhand der Werte ihrer Nachfolger. */
+	private int successors(BitBoard board, int[] moves, int current, long[] fish, int red, int blue, int pass) {
+		board.copyFrom(template);
+		setFish(board, BitBoard.RED, fish[0], fish[1]);
+		setFish(board, BitBoard.BLUE, fish[2], fish[3]);
+		int count = board.generateMoves(current, moves);
+		int opponent = 1 - current;
+		if (count == 0) {
+			// ohne Fisch kein Move: der Spieler setzt aus
+			long position = index.index(fish[0], fish[1], fish[2], fish[3], blue);
+			int value = tables[Tablebase.table(maxFish, red, blue, opponent)][(int) position] & 0xFF;
+			if (value == Tablebase.DRAW || Tablebase.distance(value) >= pass)
+				return Tablebase.DRAW;
+			return Tablebase.result(value) < 0 ? Tablebase.win(pass) : Tablebase.loss(pass);
+		}
+		boolean allWon = true;
+		for (int i = 0; i < count; i++) {
+			int from = BitBoard.from(moves[i]);
+			int to = BitBoard.to(moves[i]);
+			boolean capture = board.test(opponent, to);
+			long ownLo = fish[2 * current], ownHi = fish[2 * current + 1];
+			long oppLo = fish[2 * opponent], oppHi = fish[2 * opponent + 1];
+			if (from < 64)
+				ownLo &= ~(1L << from);
+			else
+				ownHi &= ~(1L << (from - 64));
+			if (to < 64) {
+				ownLo |= 1L << to;
+				oppLo &= ~(1L << to);
+			} else {
+				ownHi |= 1L << (to - 64);
+				oppHi &= ~(1L << (to - 64));
+			}
+			int childRed = red, childBlue = blue;
+			if (capture) {
+				if (opponent == BitBoard.RED)
+					childRed--;
+				else
+					childBlue--;
+			}
+			long position = current == BitBoard.RED ? index.index(ownLo, ownHi, oppLo, oppHi, childBlue)
+					: index.index(oppLo, oppHi, ownLo, ownHi, childBlue);
+			int value = tables[Tablebase.table(maxFish, childRed, childBlue, opponent)][(int) position] & 0xFF;
+			// Werte aus diesem Durchgang zählen erst im nächsten
+			if (value == Tablebase.DRAW || Tablebase.distance(value) >= pass) {
+				allWon = false;
+				continue;
+			}
+			if (Tablebase.result(value) < 0)
+				return Tablebase.win(pass);
+		}
+		return allWon ? Tablebase.loss(pass) : Tablebase.DRAW;
+	}
+
+	private static void setFish(BitBoard board, int colour, long lo, long hi) {
+		while (lo != 0) {
+			board.set(colour, Long.numberOfTrailingZeros(lo));
+			lo &= lo - 1;
+		}
+		while (hi != 0) {
+			board.set(colour, 64 + Long.numberOfTrailingZeros(hi));
+			hi &= hi - 1;
+		}
+	}
+
+	private static String summary(byte[] table) {
+		long won = 0, lost = 0;
+		for (byte b : table) {
+			int result = Tablebase.result(b & 0xFF);
+			if (result > 0)
+				won++;
+			else if (result < 0)
+				lost++;
+		}
+		return won + " gewonnen / " + lost + " verloren";
+	}
+
+	/** Schreibt die gelösten Tabellen im Format von {@link Tablebase}. */
+	void write(File file) throws IOException {
+		List<byte[]> blocks = new ArrayList<byte[]>();
+		int[] firstBlock = new int[tables.length];
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		byte[] buffer = new byte[Tablebase.BLOCK_SIZE + 1024];
+		for (int t = 0; t < tables.length; t++) {
+			firstBlock[t] = blocks.size();
+			byte[] table = tables[t];
+			for (int offset = 0; offset < table.length; offset += Tablebase.BLOCK_SIZE) {
+				deflater.reset();
+				deflater.setInput(table, offset, Math.min(Tablebase.BLOCK_SIZE, table.length - offset));
+				deflater.finish();
+				int length = 0;
+				while (!deflater.finished()) {
+					if (length == buffer.length)
+						buffer = Arrays.copyOf(buffer, buffer.length * 2);
+					length += deflater.deflate(buffer, length, buffer.length - length);
+				}
+				blocks.add(Arrays.copyOf(buffer, length));
+			}
+		}
+		deflater.end();
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(Tablebase.MAGIC);
+			out.writeInt(maxFish);
+			int[] obstacles = index.getObstacles();
+			out.writeInt(obstacles.length);
+			for (int sq : obstacles)
+				out.writeInt(sq);
+			out.writeInt(Tablebase.BLOCK_SIZE);
+			for (int t = 0; t < tables.length; t++) {
+				out.writeLong(tables[t].length);
+				out.writeInt(firstBlock[t]);
+			}
+			out.writeInt(blocks.size());
+			long offset = 0;
+			for (byte[] block : blocks) {
+				out.writeLong(offset);
+				offset += block.length;
+			}
+			out.writeLong(offset);
+			for (byte[] block : blocks)
+				out.write(block);
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package sc.player2019.tools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import sc.player2019.logic.board.BitBoard;
+
+/**
+ * Eine Stellung mit dem Ausgang ihres Spiels, wie sie {@link SelfPlay} schreibt
+ * und {@link NnueTrainer} liest. <br>
+ * Ein Datensatz besteht aus den vier Fischmasken (rot lo/hi, blau lo/hi) als
+ * long, dem Zug, der Farbe am Zug und dem Ausgang aus Sicht von Rot (1, 0 oder
+ * -1) als byte.
+ */
+public class TrainingPosition {
+
+	/** Größe eines Datensatzes in Bytes */
+	public static final int BYTES = 4 * 8 + 3;
+
+	public final BitBoard board;
+	/** Ausgang des Spiels aus Sicht von Rot */
+	public final int redResult;
+
+	public TrainingPosition(BitBoard board, int redResult) {
+		this.board = board;
+		this.redResult = redResult;
+	}
+
+	/** Ausgang des Spiels aus Sicht des Spielers am Zug. */
+	public int result() {
+		return board.current() == BitBoard.RED ? redResult : -redResult;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeLong(board.lo(BitBoard.RED));
+		out.writeLong(board.hi(BitBoard.RED));
+		out.writeLong(board.lo(BitBoard.BLUE));
+		out.writeLong(board.hi(BitBoard.BLUE));
+		out.writeByte(board.turn());
+		out.writeByte(board.current());
+		out.writeByte(redResult);
+	}
+
+	/**
+	 * Liest den nächsten Datensatz.
+	 *
+	 * @return der Datensatz oder null am Ende der Datei
+	 */
+	public static TrainingPosition read(DataInputStream in) throws IOException {
+		long redLo;
+		try {
+			redLo = in.readLong();
+		} catch (EOFException e) {
+			return null;
+		}
+		long redHi = in.readLong();
+		long blueLo = in.readLong();
+		long blueHi = in.readLong();
+		BitBoard board = new BitBoard();
+		setMask(board, BitBoard.RED, redLo, redHi);
+		setMask(board, BitBoard.BLUE, blueLo, blueHi);
+		board.setTurn(in.readByte());
+		board.setCurrent(in.readByte());
+		return new TrainingPosition(board, in.readByte());
+	}
+
+	private static void setMask(BitBoard board, int colour, long lo, long hi) {
+		while (lo != 0) {
+			board.set(colour, Long.numberOfTrailingZeros(lo));
+			lo &= lo - 1;
+		}
+		while (hi != 0) {
+			board.set(colour, 64 + Long.numberOfTrailingZeros(hi));
+			hi &= hi - 1;
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package sc.player2019.tools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Ein Arbeitspaket, das der {@link Coordinator} an einen {@link Worker}
+ * schickt, und das Protokoll zwischen beiden. <br>
+ * Nach dem Verbindungsaufbau schickt der Worker {@link #MAGIC} und seinen
+ * Namen. Danach schickt der Coordinator abwechselnd ein Paket
+ * ({@link #TASK}), und der Worker antwortet mit dem Ergebnis ({@link #RESULT}),
+ * bis der Coordinator mit {@link #DONE} das Ende meldet. Alle Werte sind big
+ * endian wie in {@link DataOutputStream}.
+ */
+public class WorkTask {
+
+	/** "PWP1" */
+	static final int MAGIC = 0x50575031;
+
+	static final int TASK = 1;
+	static final int RESULT = 2;
+	static final int DONE = 3;
+
+	/** Spiele der Suche gegen sich selbst wie in {@link SelfPlay} */
+	public static final int SELF_PLAY = 1;
+	/** Stellungen durchsuchen, z.B. für ein Eröffnungsbuch */
+	public static final int ANALYSE = 2;
+
+	final int id;
+	final int kind;
+	final int depth;
+	/** Bei {@link #SELF_PLAY}: Startwert des Zufallsgenerators */
+	final long seed;
+	/** Bei {@link #SELF_PLAY}: Anzahl der Spiele */
+	final int games;
+	/** Bei {@link #ANALYSE}: die Stellungen in der Kurzform von BitBoard.toCode() */
+	final String[] positions;
+
+	WorkTask(int id, int kind, int depth, long seed, int games, String[] positions) {
+		this.id = id;
+		this.kind = kind;
+		this.depth = depth;
+		this.seed = seed;
+		this.games = games;
+		this.positions = positions;
+	}
+
+	static WorkTask selfPlay(int id, int depth, long seed, int games) {
+		return new WorkTask(id, SELF_PLAY, depth, seed, games, new String[0]);
+	}
+
+	static WorkTask analyse(int id, int depth, String[] positions) {
+		return new WorkTask(id, ANALYSE, depth, 0, 0, positions);
+	}
+
+	void write(DataOutputStream out) throws IOException {
+		out.writeInt(TASK);
+		out.writeInt(id);
+		out.writeInt(kind);
+		out.writeInt(depth);
+		out.writeLong(seed);
+		out.writeInt(games);
+		out.writeInt(positions.length);
+		for (String position : positions)
+			out.writeUTF(position);
+		out.flush();
+	}
+
+	/** Liest ein Paket, nachdem {@link #TASK} gelesen wurde. */
+	static WorkTask read(DataInputStream in) throws IOException {
+		int id = in.readInt();
+		int kind = in.readInt();
+		int depth = in.readInt();
+		long seed = in.readLong();
+		int games = in.readInt();
+		String[] positions = new String[in.readInt()];
+		for (int i = 0; i < positions.length; i++)
+			positions[i] = in.readUTF();
+		return new WorkTask(id, kind, depth, seed, games, positions);
+	}
+
+	/** Ungefährer Umfang, für die Fortschrittsanzeige */
+	int size() {
+		return kind == SELF_PLAY ? games : positions.length;
+	}
+
+	@Override
+	public String toString() {
+		return "Paket " + id + (kind == SELF_PLAY ? " (" + games + " Spiele)" : " (" + positions.length + " Stellungen)");
+	}
+
+}
@@ -0,0 +1,163 @@
+package sc.player2019.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Random;
+
+import sc.player2019.logic.board.BitBoard;
+import sc.player2019.logic.nnue.NnueEvaluator;
+import sc.player2019.logic.nnue.NnueWeights;
+import sc.player2019.logic.search.PointsEvaluator;
+import sc.player2019.logic.search.Search;
+import sc.player2019.logic.search.SearchResult;
+
+/**
+ * Holt Arbeitspakete von einem {@link Coordinator}, rechnet sie in einem Thread
+ * und schickt die Ergebnisse zurück, bis der Coordinator das Ende meldet. Für
+ * mehrere Kerne startet man mehrere Worker. <br>
+ * Bricht die Verbindung ab, verbindet sich der Worker neu; erst nach
+ * {@link #MAX_RETRIES} erfolglosen Versuchen in Folge gibt er auf. Das Paket,
+ * an dem er gerade rechnete, vergibt der Coordinator neu. <br>
+ * Aufruf: <code>java -cp ... sc.player2019.tools.Worker host port</code> oder
+ * <code>java -jar ... --worker --host host --port port</code>
+ */
+public class Worker {
+
+	/** Versuche, sich nach einem Abbruch neu zu verbinden */
+	static final int MAX_RETRIES = 30;
+	/** Pause zwischen zwei Versuchen */
+	static final long RETRY_MILLIS = 2000;
+
+	private final String host;
+	private final int port;
+	private final String name;
+	private final Search search;
+	private int tasks;
+
+	/**
+	 * @param weights Die Gewichte des Netzes oder null, um nach Punkten zu
+	 *                bewerten
+	 */
+	public Worker(String host, int port, NnueWeights weights) throws IOException {
+		this.host = host;
+		this.port = port;
+		this.search = new Search(weights == null ? new PointsEvaluator() : new NnueEvaluator(weights));
+		this.name = InetAddress.getLocalHost().getHostName() + "/" + Long.toHexString(System.nanoTime() & 0xFFFFFF);
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Aufruf: Worker host port");
+			System.exit(2);
+		}
+		new Worker(args[0], Integer.parseInt(args[1]), null).run();
+	}
+
+	/**
+	 * Arbeitet, bis der Coordinator das Ende meldet oder nicht mehr erreichbar
+	 * ist.
+	 *
+	 * @return true, wenn alle Pakete erledigt sind
+	 */
+	public boolean run() throws InterruptedException {
+		int failures = 0;
+		while (failures < MAX_RETRIES) {
+			Socket socket = new Socket();
+			try {
+				socket.connect(new InetSocketAddress(host, port));
+				failures = 0;
+				if (serve(socket)) {
+					System.out.println(name + ": fertig nach " + tasks + " Paketen");
+					return true;
+				}
+			} catch (IOException e) {
+				failures++;
+				if (failures == 1)
+					System.out.println(name + ": keine Verbindung zu " + host + ":" + port + " (" + e
+							+ "), neuer Versuch");
+				Thread.sleep(RETRY_MILLIS);
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// schon geschlossen
+				}
+			}
+		}
+		System.out.println(name + ": aufgegeben nach " + MAX_RETRIES + " Versuchen");
+		return false;
+	}
+
+	/** @return true, wenn der Coordinator das Ende gemeldet hat */
+	private boolean serve(Socket socket) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		out.writeInt(WorkTask.MAGIC);
+		out.writeUTF(name);
+		out.flush();
+		while (true) {
+			int type = in.readInt();
+			if (type == WorkTask.DONE)
+				return true;
+			if (type != WorkTask.TASK)
+				throw new IOException("Unbekannte Nachricht " + type);
+			WorkTask task = WorkTask.read(in);
+			byte[] result = compute(task);
+			out.writeInt(WorkTask.RESULT);
+			out.writeInt(task.id);
+			out.writeInt(result.length);
+			out.write(result);
+			out.flush();
+			tasks++;
+		}
+	}
+
+	/**
+	 * Rechnet ein Paket.
+	 *
+	 * @return Bei {@link WorkTask#SELF_PLAY} die {@link TrainingPosition}en aller
+	 *         Spiele, bei {@link WorkTask#ANALYSE} je Stellung eine Zeile mit
+	 *         Stellung, Tiefe, Bewertung und bestem Move, getrennt durch
+	 *         Tabulatoren
+	 */
+	byte[] compute(WorkTask task) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		if (task.kind == WorkTask.SELF_PLAY) {
+			DataOutputStream out = new DataOutputStream(bytes);
+			Random random = new Random(task.seed);
+			for (int game = 0; game < task.games; game++) {
+				ArrayList<TrainingPosition> positions = SelfPlay.play(search, random, task.depth);
+				for (TrainingPosition position : positions)
+					position.write(out);
+			}
+			out.flush();
+		} else if (task.kind == WorkTask.ANALYSE) {
+			Writer out = new OutputStreamWriter(bytes, "UTF-8");
+			for (String code : task.positions) {
+				BitBoard board = BitBoard.parse(code);
+				SearchResult result = search.iterate(board, task.depth, 0);
+				out.write(code);
+				if (result == null) {
+					out.write("\t0\t0\t-\n");
+				} else {
+					out.write("\t" + result.getDepth() + "\t" + result.getScore() + "\t" + result.getMove() + "\n");
+				}
+			}
+			out.flush();
+		} else {
+			throw new IOException("Unbekannte Art von Paket: " + task.kind);
+		}
+		return bytes.toByteArray();
+	}
+
+}
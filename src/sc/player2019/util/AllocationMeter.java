@@ -0,0 +1,103 @@
+package sc.player2019.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Misst, wie viel Speicher der aktuelle Thread zwischen {@link #start()} und
+ * {@link #stop()} angefordert hat und wie oft in dieser Zeit die junge
+ * Generation aufgeräumt wurde. <br>
+ * Die Messung des angeforderten Speichers benötigt die HotSpot-Erweiterung
+ * <code>com.sun.management.ThreadMXBean</code>; fehlt diese, wird -1
+ * zurückgegeben.
+ */
+public class AllocationMeter {
+
+	private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+	private long startBytes;
+	private long startYoungGcs;
+	private long startGcMillis;
+	private long bytes;
+	private long youngGcs;
+	private long gcMillis;
+
+	public void start() {
+		startBytes = allocatedBytes();
+		startYoungGcs = youngCollections();
+		startGcMillis = collectionMillis();
+	}
+
+	public void stop() {
+		long now = allocatedBytes();
+		bytes = now < 0 || startBytes < 0 ? -1 : now - startBytes;
+		youngGcs = youngCollections() - startYoungGcs;
+		gcMillis = collectionMillis() - startGcMillis;
+	}
+
+	/** Angeforderter Speicher in Bytes während der letzten Messung. */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/** Anzahl der Aufräumläufe der jungen Generation während der letzten Messung. */
+	public long getYoungGcs() {
+		return youngGcs;
+	}
+
+	/** Gesamtdauer aller Aufräumläufe während der letzten Messung. */
+	public long getGcMillis() {
+		return gcMillis;
+	}
+
+	@Override
+	public String toString() {
+		return (bytes < 0 ? "?" : bytes / 1024 + " KB") + " angefordert, " + youngGcs + " junge GCs (" + gcMillis
+				+ " ms)";
+	}
+
+	/** Vom aktuellen Thread insgesamt angeforderter Speicher oder -1. */
+	public static long allocatedBytes() {
+		if (THREADS == null)
+			return -1;
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/** Anzahl aller bisherigen Aufräumläufe der jungen Generation. */
+	public static long youngCollections() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (isYoung(gc))
+				count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/** Gesamtdauer aller bisherigen Aufräumläufe in Millisekunden. */
+	public static long collectionMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			millis += Math.max(0, gc.getCollectionTime());
+		return millis;
+	}
+
+	private static boolean isYoung(GarbageCollectorMXBean gc) {
+		String name = gc.getName();
+		return name.contains("Young") || name.contains("Scavenge") || name.equals("Copy") || name.equals("ParNew");
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean() {
+		try {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			if (bean.isThreadAllocatedMemorySupported()) {
+				bean.setThreadAllocatedMemoryEnabled(true);
+				return bean;
+			}
+		} catch (ClassCastException | UnsupportedOperationException e) {
+			// keine HotSpot-JVM
+		}
+		return null;
+	}
+
+}
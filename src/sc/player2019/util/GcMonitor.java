@@ -0,0 +1,143 @@
+package sc.player2019.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Zählt die Pausen der Speicherbereinigung, während ein Fenster offen ist, etwa
+ * für die Dauer eines Spiels. Anders als die Summen in {@link AllocationMeter}
+ * wird dabei jede einzelne Pause gemeldet, so ist auch die längste bekannt,
+ * und der belegte Speicher direkt nach jeder Bereinigung, also der Speicher,
+ * den das Programm im eingeschwungenen Zustand wirklich braucht. <br>
+ * Mehrere Fenster können gleichzeitig offen sein, etwa für mehrere Spiele in
+ * einer JVM; jede Pause zählt dann für alle. Läufe, die neben dem Programm
+ * laufen (z.B. "G1 Concurrent GC"), sind keine Pausen und werden nicht
+ * gezählt. <br>
+ * Die Meldungen benötigen die HotSpot-Erweiterung
+ * <code>com.sun.management</code>; fehlt diese, bleiben alle Fenster leer.
+ */
+public final class GcMonitor {
+
+	private static final CopyOnWriteArrayList<Window> WINDOWS = new CopyOnWriteArrayList<Window>();
+	private static final boolean INSTALLED = install();
+
+	private GcMonitor() {
+	}
+
+	/** Öffnet ein Fenster, das ab jetzt jede Pause zählt. */
+	public static Window open() {
+		Window window = new Window();
+		WINDOWS.add(window);
+		return window;
+	}
+
+	/** Ob die JVM die einzelnen Pausen meldet. */
+	public static boolean isSupported() {
+		return INSTALLED;
+	}
+
+	/** Belegter Speicher des Heaps in Bytes, ohne vorher aufzuräumen. */
+	public static long usedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static boolean install() {
+		NotificationListener listener = new NotificationListener() {
+			@Override
+			public void handleNotification(Notification notification, Object handback) {
+				if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+					return;
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+						.from((CompositeData) notification.getUserData());
+				if (!isPause(info.getGcName()))
+					return;
+				long after = 0;
+				for (MemoryUsage usage : info.getGcInfo().getMemoryUsageAfterGc().values())
+					after += usage.getUsed();
+				for (Window window : WINDOWS)
+					window.record(info.getGcInfo().getDuration(), after);
+			}
+		};
+		boolean installed = false;
+		try {
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (gc instanceof NotificationEmitter) {
+					((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+					installed = true;
+				}
+			}
+		} catch (LinkageError | RuntimeException e) {
+			// keine HotSpot-JVM
+		}
+		return installed;
+	}
+
+	private static boolean isPause(String name) {
+		return !name.contains("Concurrent") && !name.contains("Cycles");
+	}
+
+	/** Die Pausen seit {@link GcMonitor#open()} */
+	public static final class Window {
+
+		private long pauses;
+		private long totalMillis;
+		private long maxMillis;
+		private long lastAfterGc = -1;
+		private long maxAfterGc;
+
+		private Window() {
+		}
+
+		private synchronized void record(long millis, long afterGc) {
+			pauses++;
+			totalMillis += millis;
+			maxMillis = Math.max(maxMillis, millis);
+			lastAfterGc = afterGc;
+			maxAfterGc = Math.max(maxAfterGc, afterGc);
+		}
+
+		/** Hört auf zu zählen, die Werte bleiben erhalten. */
+		public void close() {
+			WINDOWS.remove(this);
+		}
+
+		public synchronized long getPauses() {
+			return pauses;
+		}
+
+		public synchronized long getTotalMillis() {
+			return totalMillis;
+		}
+
+		public synchronized long getMaxMillis() {
+			return maxMillis;
+		}
+
+		/**
+		 * Belegter Speicher nach der letzten Bereinigung in Bytes oder -1, wenn es
+		 * noch keine gab.
+		 */
+		public synchronized long getLastAfterGc() {
+			return lastAfterGc;
+		}
+
+		@Override
+		public synchronized String toString() {
+			if (!INSTALLED)
+				return "keine Meldungen der Speicherbereinigung";
+			return pauses + " GC-Pausen (" + totalMillis + " ms, längste " + maxMillis + " ms), belegt nach GC "
+					+ (lastAfterGc < 0 ? "?" : lastAfterGc / 1024 / 1024 + " MB (höchstens " + maxAfterGc / 1024 / 1024
+							+ " MB)");
+		}
+	}
+
+}